@@ -33,11 +33,8 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import net.runelite.cache.definitions.ItemDefinition;
-import net.runelite.cache.definitions.ModelDefinition;
-import net.runelite.cache.definitions.loaders.ModelLoader;
+import net.runelite.cache.definitions.providers.CachingModelProvider;
 import net.runelite.cache.definitions.providers.ModelProvider;
-import net.runelite.cache.fs.Archive;
-import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Store;
 import net.runelite.cache.item.ItemSpriteFactory;
 import org.apache.commons.cli.CommandLine;
@@ -225,19 +222,7 @@ public class Cache
 		itemManager.load();
 		itemManager.link();
 
-		ModelProvider modelProvider = new ModelProvider()
-		{
-			@Override
-			public ModelDefinition provide(int modelId) throws IOException
-			{
-				Index models = store.getIndex(IndexType.MODELS);
-				Archive archive = models.getArchive(modelId);
-
-				byte[] data = archive.decompress(store.getStorage().loadArchive(archive));
-				ModelDefinition inventoryModel = new ModelLoader().load(modelId, data);
-				return inventoryModel;
-			}
-		};
+		ModelProvider modelProvider = new CachingModelProvider(store);
 
 		SpriteManager spriteManager = new SpriteManager(store);
 		spriteManager.load();
@@ -26,22 +26,19 @@ package net.runelite.cache;
 
 import java.io.IOException;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 import net.runelite.cache.definitions.DBRowDefinition;
 import net.runelite.cache.definitions.loaders.DBRowLoader;
 import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.ArchiveFiles;
-import net.runelite.cache.fs.FSFile;
 import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Storage;
 import net.runelite.cache.fs.Store;
+import net.runelite.cache.util.DefinitionTable;
 
 public class DBRowManager
 {
 	private final Store store;
-	private final Map<Integer, DBRowDefinition> rows = new HashMap<>();
+	private final DefinitionTable<DBRowDefinition> rows = new DefinitionTable<>();
 
 	public DBRowManager(Store store)
 	{
@@ -49,6 +46,11 @@ public class DBRowManager
 	}
 
 	public void load() throws IOException
+	{
+		load(true);
+	}
+
+	public void load(boolean parallel) throws IOException
 	{
 		DBRowLoader loader = new DBRowLoader();
 
@@ -65,16 +67,12 @@ public class DBRowManager
 		byte[] archiveData = storage.loadArchive(archive);
 		ArchiveFiles files = archive.getFiles(archiveData);
 
-		for (FSFile f : files.getFiles())
-		{
-			DBRowDefinition row = loader.load(f.getFileId(), f.getContents());
-			rows.put(f.getFileId(), row);
-		}
+		rows.putAll(files.decode(loader::load, parallel));
 	}
 
 	public Collection<DBRowDefinition> getRows()
 	{
-		return Collections.unmodifiableCollection(rows.values());
+		return rows.values();
 	}
 
 	public DBRowDefinition get(int rowId)
@@ -27,25 +27,22 @@ package net.runelite.cache;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 import net.runelite.cache.definitions.ItemDefinition;
 import net.runelite.cache.definitions.exporters.ItemExporter;
 import net.runelite.cache.definitions.loaders.ItemLoader;
 import net.runelite.cache.definitions.providers.ItemProvider;
 import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.ArchiveFiles;
-import net.runelite.cache.fs.FSFile;
 import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Storage;
 import net.runelite.cache.fs.Store;
+import net.runelite.cache.util.DefinitionTable;
 import net.runelite.cache.util.IDClass;
 
 public class ItemManager implements ItemProvider
 {
 	private final Store store;
-	private final Map<Integer, ItemDefinition> items = new HashMap<>();
+	private final DefinitionTable<ItemDefinition> items = new DefinitionTable<>();
 
 	public ItemManager(Store store)
 	{
@@ -53,6 +50,11 @@ public class ItemManager implements ItemProvider
 	}
 
 	public void load() throws IOException
+	{
+		load(true);
+	}
+
+	public void load(boolean parallel) throws IOException
 	{
 		ItemLoader loader = new ItemLoader();
 
@@ -63,16 +65,12 @@ public class ItemManager implements ItemProvider
 		byte[] archiveData = storage.loadArchive(archive);
 		ArchiveFiles files = archive.getFiles(archiveData);
 
-		for (FSFile f : files.getFiles())
-		{
-			ItemDefinition def = loader.load(f.getFileId(), f.getContents());
-			items.put(f.getFileId(), def);
-		}
+		items.putAll(files.decode(loader::load, parallel));
 	}
 
 	public void link()
 	{
-		for (ItemDefinition oc : items.values())
+		for (ItemDefinition oc : items)
 		{
 			link(oc);
 		}
@@ -96,7 +94,7 @@ public class ItemManager implements ItemProvider
 
 	public Collection<ItemDefinition> getItems()
 	{
-		return Collections.unmodifiableCollection(items.values());
+		return items.values();
 	}
 
 	public ItemDefinition getItem(int itemId)
@@ -108,7 +106,7 @@ public class ItemManager implements ItemProvider
 	{
 		out.mkdirs();
 
-		for (ItemDefinition def : items.values())
+		for (ItemDefinition def : items)
 		{
 			ItemExporter exporter = new ItemExporter(def);
 
@@ -123,7 +121,7 @@ public class ItemManager implements ItemProvider
 		try (IDClass ids = IDClass.create(java, "ItemID");
 			IDClass nulls = IDClass.create(java, "NullItemID"))
 		{
-			for (ItemDefinition def : items.values())
+			for (ItemDefinition def : items)
 			{
 				if (def.name.equalsIgnoreCase("NULL"))
 				{
@@ -32,7 +32,6 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javax.imageio.ImageIO;
@@ -61,6 +60,7 @@ import net.runelite.cache.region.Position;
 import net.runelite.cache.region.Region;
 import net.runelite.cache.region.RegionLoader;
 import net.runelite.cache.util.BigBufferedImage;
+import net.runelite.cache.util.DefinitionTable;
 import net.runelite.cache.util.KeyProvider;
 import net.runelite.cache.util.XteaKeyManager;
 import org.apache.commons.cli.CommandLine;
@@ -86,8 +86,8 @@ public class MapImageDumper
 
 	private final Store store;
 
-	private final Map<Integer, UnderlayDefinition> underlays = new HashMap<>();
-	private final Map<Integer, OverlayDefinition> overlays = new HashMap<>();
+	private final DefinitionTable<UnderlayDefinition> underlays = new DefinitionTable<>();
+	private final DefinitionTable<OverlayDefinition> overlays = new DefinitionTable<>();
 	private SpriteDefinition[] mapDecorations;
 
 	private final RegionLoader regionLoader;
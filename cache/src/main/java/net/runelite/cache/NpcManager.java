@@ -27,24 +27,21 @@ package net.runelite.cache;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 import net.runelite.cache.definitions.NpcDefinition;
 import net.runelite.cache.definitions.exporters.NpcExporter;
 import net.runelite.cache.definitions.loaders.NpcLoader;
 import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.ArchiveFiles;
-import net.runelite.cache.fs.FSFile;
 import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Storage;
 import net.runelite.cache.fs.Store;
+import net.runelite.cache.util.DefinitionTable;
 import net.runelite.cache.util.IDClass;
 
 public class NpcManager
 {
 	private final Store store;
-	private final Map<Integer, NpcDefinition> npcs = new HashMap<>();
+	private final DefinitionTable<NpcDefinition> npcs = new DefinitionTable<>();
 
 	public NpcManager(Store store)
 	{
@@ -52,6 +49,11 @@ public class NpcManager
 	}
 
 	public void load() throws IOException
+	{
+		load(true);
+	}
+
+	public void load(boolean parallel) throws IOException
 	{
 		NpcLoader loader = new NpcLoader();
 
@@ -64,16 +66,12 @@ public class NpcManager
 		byte[] archiveData = storage.loadArchive(archive);
 		ArchiveFiles files = archive.getFiles(archiveData);
 
-		for (FSFile f : files.getFiles())
-		{
-			NpcDefinition npc = loader.load(f.getFileId(), f.getContents());
-			npcs.put(f.getFileId(), npc);
-		}
+		npcs.putAll(files.decode(loader::load, parallel));
 	}
 
 	public Collection<NpcDefinition> getNpcs()
 	{
-		return Collections.unmodifiableCollection(npcs.values());
+		return npcs.values();
 	}
 
 	public NpcDefinition get(int npcId)
@@ -85,7 +83,7 @@ public class NpcManager
 	{
 		out.mkdirs();
 
-		for (NpcDefinition def : npcs.values())
+		for (NpcDefinition def : npcs)
 		{
 			NpcExporter exporter = new NpcExporter(def);
 
@@ -100,7 +98,7 @@ public class NpcManager
 		try (IDClass ids = IDClass.create(java, "NpcID");
 			IDClass nulls = IDClass.create(java, "NullNpcID"))
 		{
-			for (NpcDefinition def : npcs.values())
+			for (NpcDefinition def : npcs)
 			{
 				if (def.name.equalsIgnoreCase("NULL"))
 				{
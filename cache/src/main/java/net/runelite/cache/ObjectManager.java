@@ -27,24 +27,21 @@ package net.runelite.cache;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 import net.runelite.cache.definitions.ObjectDefinition;
 import net.runelite.cache.definitions.exporters.ObjectExporter;
 import net.runelite.cache.definitions.loaders.ObjectLoader;
 import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.ArchiveFiles;
-import net.runelite.cache.fs.FSFile;
 import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Storage;
 import net.runelite.cache.fs.Store;
+import net.runelite.cache.util.DefinitionTable;
 import net.runelite.cache.util.IDClass;
 
 public class ObjectManager
 {
 	private final Store store;
-	private final Map<Integer, ObjectDefinition> objects = new HashMap<>();
+	private final DefinitionTable<ObjectDefinition> objects = new DefinitionTable<>();
 
 	public ObjectManager(Store store)
 	{
@@ -52,6 +49,11 @@ public class ObjectManager
 	}
 
 	public void load() throws IOException
+	{
+		load(true);
+	}
+
+	public void load(boolean parallel) throws IOException
 	{
 		ObjectLoader loader = new ObjectLoader();
 
@@ -64,16 +66,12 @@ public class ObjectManager
 		byte[] archiveData = storage.loadArchive(archive);
 		ArchiveFiles files = archive.getFiles(archiveData);
 
-		for (FSFile f : files.getFiles())
-		{
-			ObjectDefinition def = loader.load(f.getFileId(), f.getContents());
-			objects.put(f.getFileId(), def);
-		}
+		objects.putAll(files.decode(loader::load, parallel));
 	}
 
 	public Collection<ObjectDefinition> getObjects()
 	{
-		return Collections.unmodifiableCollection(objects.values());
+		return objects.values();
 	}
 
 	public ObjectDefinition getObject(int id)
@@ -85,7 +83,7 @@ public class ObjectManager
 	{
 		out.mkdirs();
 
-		for (ObjectDefinition def : objects.values())
+		for (ObjectDefinition def : objects)
 		{
 			ObjectExporter exporter = new ObjectExporter(def);
 
@@ -100,7 +98,7 @@ public class ObjectManager
 		try (IDClass ids = IDClass.create(java, "ObjectID");
 			IDClass nulls = IDClass.create(java, "NullObjectID"))
 		{
-			for (ObjectDefinition def : objects.values())
+			for (ObjectDefinition def : objects)
 			{
 				if ("null".equals(def.getName()))
 				{
@@ -26,9 +26,6 @@ package net.runelite.cache;
 
 import java.io.IOException;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 import net.runelite.cache.definitions.OverlayDefinition;
 import net.runelite.cache.definitions.loaders.OverlayLoader;
 import net.runelite.cache.definitions.providers.OverlayProvider;
@@ -38,11 +35,12 @@ import net.runelite.cache.fs.FSFile;
 import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Storage;
 import net.runelite.cache.fs.Store;
+import net.runelite.cache.util.DefinitionTable;
 
 public class OverlayManager implements OverlayProvider
 {
 	private final Store store;
-	private final Map<Integer, OverlayDefinition> overlays = new HashMap<>();
+	private final DefinitionTable<OverlayDefinition> overlays = new DefinitionTable<>();
 
 	public OverlayManager(Store store)
 	{
@@ -69,7 +67,7 @@ public class OverlayManager implements OverlayProvider
 
 	public Collection<OverlayDefinition> getOverlays()
 	{
-		return Collections.unmodifiableCollection(overlays.values());
+		return overlays.values();
 	}
 
 	@Override
@@ -25,23 +25,36 @@
 package net.runelite.cache;
 
 import net.runelite.cache.definitions.ItemDefinition;
-import net.runelite.cache.definitions.ModelDefinition;
-import net.runelite.cache.definitions.loaders.ModelLoader;
 import net.runelite.cache.definitions.providers.ModelProvider;
-import net.runelite.cache.fs.Archive;
-import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Store;
+import net.runelite.cache.fs.jagex.DiskStorage;
 import net.runelite.cache.item.ItemSpriteFactory;
 import net.runelite.cache.region.Region;
 import net.runelite.cache.util.XteaKeyManager;
 import org.apache.commons.cli.*;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 
 public class SimbaCacheDumper
@@ -53,6 +66,8 @@ public class SimbaCacheDumper
 		options.addOption(Option.builder("p").longOpt("path").hasArg().required().build());
 		options.addOption(Option.builder("c").longOpt("cache").hasArg().required().build());
 		options.addOption(Option.builder("o").longOpt("output").hasArg().required().build());
+		// output directory of an earlier dump, only regions which changed since are dumped again
+		options.addOption(Option.builder("b").longOpt("base").hasArg().build());
 
 		CommandLineParser parser = new DefaultParser();
 		CommandLine cmd;
@@ -86,127 +101,450 @@ public class SimbaCacheDumper
 
 		Store store = loadStore(cacheDirectory);
 
-		dumpMap(store, outDir, xteaKeyManager);
-		dumpCollision(store, outDir, xteaKeyManager);
-		dumpHeight(store, outDir, xteaKeyManager);
-		dumpObjects(store, outDir, xteaKeyManager);
+		// regions and definitions are decoded once here and shared by every dumper below
+		SimbaWorld world = SimbaWorld.load(store, xteaKeyManager);
+
+		DumpPlan plan = DumpPlan.create(world, outDir, cmd.getOptionValue("base"));
+
+		dumpMap(world, plan);
+		dumpCollision(world, plan);
+		dumpHeight(world, plan);
+		dumpObjects(world, plan);
+
+		plan.manifest.write(new File(outDir, SimbaDumpManifest.FILE_NAME));
+	}
+
+	private interface ZipDump
+	{
+		void dump(ZipOutputStream zip, Predicate<Region> regionFilter) throws IOException;
+	}
+
+	/**
+	 * Which regions of each zip are dumped. Without a base dump, or when the world changed as a
+	 * whole since, every region is. Otherwise only the regions which changed are dumped, and the
+	 * entries of all others are copied from the base dump's zip. The two are merged by plane and
+	 * region, so the zip has the same entry order as a full dump.
+	 */
+	private static class DumpPlan
+	{
+		private final File outDir;
+		private final SimbaDumpManifest manifest;
+		private final File baseDir;
+		private final SimbaDumpManifest baseManifest;
+		private final Set<Integer> dirtyRegions;
+
+		private DumpPlan(File outDir, SimbaDumpManifest manifest, File baseDir, SimbaDumpManifest baseManifest, Set<Integer> dirtyRegions)
+		{
+			this.outDir = outDir;
+			this.manifest = manifest;
+			this.baseDir = baseDir;
+			this.baseManifest = baseManifest;
+			this.dirtyRegions = dirtyRegions;
+		}
+
+		static DumpPlan create(SimbaWorld world, File outDir, String base) throws IOException
+		{
+			SimbaDumpManifest manifest = SimbaDumpManifest.of(world);
+			if (base == null)
+			{
+				return new DumpPlan(outDir, manifest, null, null, null);
+			}
+
+			File baseDir = new File(base);
+			SimbaDumpManifest baseManifest = SimbaDumpManifest.read(new File(baseDir, SimbaDumpManifest.FILE_NAME));
+			Set<Integer> dirty = baseManifest != null ? manifest.dirtyRegions(baseManifest) : null;
+			if (dirty == null)
+			{
+				System.out.println("Base dump " + baseDir + " can't be reused, dumping every region");
+			}
+			else
+			{
+				System.out.println(dirty.size() + " regions changed since base dump " + baseDir);
+			}
+			return new DumpPlan(outDir, manifest, baseDir, baseManifest, dirty);
+		}
+
+		void zip(String name, ZipDump dump) throws IOException
+		{
+			File file = new File(outDir, name);
+			File baseFile = baseDir != null ? new File(baseDir, name) : null;
+			boolean incremental = dirtyRegions != null && baseManifest.hasOutput(name, baseFile);
+
+			if (!incremental)
+			{
+				try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file))))
+				{
+					dump.dump(zip, null);
+				}
+				manifest.putOutput(name, file);
+				return;
+			}
+
+			// the changed regions are dumped on their own first, then merged with the base dump's entries
+			File dirty = new File(outDir, name + ".dirty");
+			try
+			{
+				try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(dirty))))
+				{
+					dump.dump(zip, region -> dirtyRegions.contains(region.getRegionID()));
+				}
+
+				try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file))))
+				{
+					merge(dirty, baseFile, zip);
+				}
+			}
+			finally
+			{
+				Files.deleteIfExists(dirty.toPath());
+			}
+			manifest.putOutput(name, file);
+		}
+
+		/**
+		 * Writes the entries of the dumped zip and the unchanged regions' entries of the base zip.
+		 * Both are in plane and region order, as every dumper writes them, and so is the result.
+		 * Entries which aren't of a region are kept in place among the dumped ones.
+		 */
+		private void merge(File dumped, File from, ZipOutputStream zip) throws IOException
+		{
+			Comparator<ZipEntry> order = Comparator.comparingInt((ZipEntry entry) -> planeOf(entry.getName()))
+				.thenComparingInt(entry -> regionOf(entry.getName()));
+
+			int copied = 0;
+			try (ZipFile fresh = new ZipFile(dumped); ZipFile base = new ZipFile(from))
+			{
+				List<? extends ZipEntry> freshEntries = Collections.list(fresh.entries());
+				List<ZipEntry> baseEntries = new ArrayList<>();
+				for (ZipEntry entry : Collections.list(base.entries()))
+				{
+					int regionId = regionOf(entry.getName());
+					if (regionId != -1 && !dirtyRegions.contains(regionId))
+					{
+						baseEntries.add(entry);
+					}
+				}
+
+				int i = 0;
+				int j = 0;
+				while (i < freshEntries.size() || j < baseEntries.size())
+				{
+					if (j == baseEntries.size() || (i < freshEntries.size()
+						&& (regionOf(freshEntries.get(i).getName()) == -1 || order.compare(freshEntries.get(i), baseEntries.get(j)) < 0)))
+					{
+						copyEntry(fresh, freshEntries.get(i++), zip);
+					}
+					else
+					{
+						copyEntry(base, baseEntries.get(j++), zip);
+						++copied;
+					}
+				}
+			}
+			System.out.println("Copied " + copied + " unchanged entries from " + from);
+		}
+
+		private static void copyEntry(ZipFile from, ZipEntry entry, ZipOutputStream zip) throws IOException
+		{
+			// stored entries keep their size and crc, deflated ones are compressed again
+			ZipEntry copy = new ZipEntry(entry);
+			if (copy.getMethod() != ZipEntry.STORED)
+			{
+				copy.setCompressedSize(-1);
+			}
+
+			zip.putNextEntry(copy);
+			try (InputStream in = from.getInputStream(entry))
+			{
+				in.transferTo(zip);
+			}
+		}
+
+		/**
+		 * Gets the plane of a zip entry named like plane/x-y.ext, or 0 for entries without one
+		 */
+		private static int planeOf(String name)
+		{
+			int end = Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\'));
+			if (end == -1)
+			{
+				return 0;
+			}
+
+			try
+			{
+				return Integer.parseInt(name.substring(0, end));
+			}
+			catch (NumberFormatException ex)
+			{
+				return 0;
+			}
+		}
+
+		/**
+		 * Gets the region of a zip entry named like [plane/]x-y.ext, or -1
+		 */
+		private static int regionOf(String name)
+		{
+			int start = Math.max(name.lastIndexOf('/'), name.lastIndexOf('\\')) + 1;
+			int dash = name.indexOf('-', start);
+			int dot = name.indexOf('.', start);
+			if (dash == -1 || dot < dash)
+			{
+				return -1;
+			}
+
+			try
+			{
+				int x = Integer.parseInt(name.substring(start, dash));
+				int y = Integer.parseInt(name.substring(dash + 1, dot));
+				return x << 8 | y;
+			}
+			catch (NumberFormatException ex)
+			{
+				return -1;
+			}
+		}
 	}
 
 	private static Store loadStore(String cache) throws IOException
 	{
-		Store store = new Store(new File(cache));
+		// the dumpers only read, so map the cache and let them read it concurrently
+		Store store = new Store(new DiskStorage(new File(cache), true));
 		store.load();
 		return store;
 	}
 
-	private static void dumpMap(Store store, File outDir, XteaKeyManager xteaKeyManager) throws IOException
+	private static void dumpMap(SimbaWorld world, DumpPlan plan) throws IOException
 	{
 		System.out.println("Dumping map images in map.zip");
 		SimbaMapImageDumper.exportFullMap = false;
-		SimbaMapImageDumper dumper = new SimbaMapImageDumper(store, xteaKeyManager);
+		SimbaMapImageDumper dumper = new SimbaMapImageDumper(world);
 		dumper.load();
 
-		ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(new File(outDir, "map.zip"))));
-		for (int i = 0; i < Region.Z; ++i) dumper.drawRegions(i, zip);
-		zip.close();
+		plan.zip("map.zip", (zip, regionFilter) ->
+		{
+			dumper.setRegionFilter(regionFilter);
+			for (int i = 0; i < Region.Z; ++i) dumper.drawChunks(i, zip);
+		});
 	}
 
-	private static void dumpCollision(Store store, File outDir, XteaKeyManager xteaKeyManager) throws IOException
+	private static void dumpCollision(SimbaWorld world, DumpPlan plan) throws IOException
 	{
 		System.out.println("Dumping map images in collision.zip");
 		SimbaCollisionMapDumper.exportFullMap = false;
-		SimbaCollisionMapDumper dumper = new SimbaCollisionMapDumper(store, xteaKeyManager);
+		SimbaCollisionMapDumper dumper = new SimbaCollisionMapDumper(world);
 		dumper.load();
 
-		ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(new File(outDir, "collision.zip"))));
-		for (int i = 0; i < Region.Z; ++i) dumper.drawRegions(i, zip);
-		zip.close();
+		plan.zip("collision.zip", (zip, regionFilter) ->
+		{
+			dumper.setRegionFilter(regionFilter);
+			for (int i = 0; i < Region.Z; ++i) dumper.drawRegions(i, zip);
+		});
 	}
 
-	private static void dumpHeight(Store store, File outDir, XteaKeyManager xteaKeyManager) throws IOException
+	private static void dumpHeight(SimbaWorld world, DumpPlan plan) throws IOException
 	{
 		System.out.println("Dumping map images in heightmap.zip");
 		SimbaHeightMapDumper.exportFullMap = false;
-		SimbaHeightMapDumper dumper = new SimbaHeightMapDumper(store);
-		dumper.load(xteaKeyManager);
+		SimbaHeightMapDumper dumper = new SimbaHeightMapDumper(world);
 
-		ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(new File(outDir, "heightmap.zip"))));
-		dumper.drawRegions(0, zip);
-		zip.close();
+		plan.zip("heightmap.zip", (zip, regionFilter) ->
+		{
+			dumper.setRegionFilter(regionFilter);
+			dumper.drawRegions(0, zip);
+		});
 	}
 
-	private static void dumpObjects(Store store, File outDir, XteaKeyManager xteaKeyManager) throws IOException
+	private static void dumpObjects(SimbaWorld world, DumpPlan plan) throws IOException
 	{
 		System.out.println("Dumping map images in objects.zip");
 		SimbaObjectInfoDumper.exportFullMap = false;
-		SimbaObjectInfoDumper dumper = new SimbaObjectInfoDumper(store, xteaKeyManager);
+		SimbaObjectInfoDumper dumper = new SimbaObjectInfoDumper(world);
 		dumper.load();
 
-		ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(new File(outDir, "objects.zip"))));
-		for (int i = 0; i < Region.Z; ++i) dumper.mapRegions(i, zip);
-		zip.close();
+		plan.zip("objects.zip", (zip, regionFilter) ->
+		{
+			dumper.setRegionFilter(regionFilter);
+			for (int i = 0; i < Region.Z; ++i) dumper.mapRegions(i, zip, null);
+		});
 	}
 
-	private static MessageDigest md5;
+	private static final int ITEM_THREADS = Runtime.getRuntime().availableProcessors();
+
+	// How many rendered items may wait on the writer before rendering blocks.
+	private static final int ITEM_QUEUE_SIZE = ITEM_THREADS * 4;
 
-	private static byte[] hashImage(BufferedImage img) throws IOException {
-		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-		ImageIO.write(img, "png", outputStream);
-		md5.update(outputStream.toByteArray());
+	// Dedup key for item images: the item name plus the MD5 of the raw ARGB pixels.
+	private static final class ItemImageKey
+	{
+		private final String name;
+		private final byte[] digest;
+		private final int hash;
+
+		ItemImageKey(String name, byte[] digest)
+		{
+			this.name = name;
+			this.digest = digest;
+			this.hash = 31 * name.hashCode() + Arrays.hashCode(digest);
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (!(obj instanceof ItemImageKey))
+			{
+				return false;
+			}
+			ItemImageKey other = (ItemImageKey) obj;
+			return hash == other.hash && name.equals(other.name) && Arrays.equals(digest, other.digest);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+	}
 
-		return md5.digest();
+	private static class ItemImage
+	{
+		final int id;
+		final String name;
+		final boolean stacked;
+		BufferedImage img;
+		ItemImageKey key;
+		byte[] png;
+		Exception error;
+
+		ItemImage(int id, String name, boolean stacked)
+		{
+			this.id = id;
+			this.name = name;
+			this.stacked = stacked;
+		}
 	}
 
-	private static void dumpItemImage(ItemManager itemManager, ModelProvider modelProvider, SpriteManager spriteManager, TextureManager textureManager, Integer id, String name, ZipOutputStream zipper, FileWriter itemFile, ArrayList<byte[]> hashes, ArrayList<String> names) throws IOException {
+	private static byte[] hashPixels(BufferedImage img) throws NoSuchAlgorithmException
+	{
+		int[] pixels = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
 
-		BufferedImage img = ItemSpriteFactory.createSprite(itemManager, modelProvider, spriteManager, textureManager, id, 1, 1, 3153952, false);
-		byte[] hash = hashImage(img);
+		ByteBuffer buffer = ByteBuffer.allocate(8 + pixels.length * 4);
+		buffer.putInt(img.getWidth());
+		buffer.putInt(img.getHeight());
+		buffer.asIntBuffer().put(pixels);
 
-		for (int i = 0; i < hashes.size(); i++) {
-			if (names.get(i).equals(name) && md5.isEqual(hashes.get(i), hash)) {
-				System.out.println("Duplicate: " + name + " :: " + id);
-				return;
+		return MessageDigest.getInstance("MD5").digest(buffer.array());
+	}
+
+	// Runs on a worker. Every call renders with its own Graphics3D/SpritePixels raster, and the dedup
+	// key is taken from the raw pixels so nothing has to be png encoded before we know it is kept.
+	private static ItemImage renderItemImage(ItemManager itemManager, ModelProvider modelProvider, SpriteManager spriteManager, TextureManager textureManager, int id, String name, boolean stacked)
+	{
+		ItemImage image = new ItemImage(id, name, stacked);
+		try
+		{
+			BufferedImage img = ItemSpriteFactory.createSprite(itemManager, modelProvider, spriteManager, textureManager, id, 1, 1, 3153952, false);
+			if (img == null)
+			{
+				throw new IllegalArgumentException("image == null!");
 			}
+
+			image.img = img;
+			image.key = new ItemImageKey(name, hashPixels(img));
+		}
+		catch (Exception ex)
+		{
+			image.error = ex;
+		}
+		return image;
+	}
+
+	// Runs on a worker, only for images which survived dedup.
+	private static ItemImage encodeItemImage(ItemImage image)
+	{
+		try
+		{
+			image.png = SimbaZipWriter.encodePng(image.img);
 		}
-		hashes.add(hash);
-		names.add(name);
+		catch (Exception ex)
+		{
+			image.error = ex;
+		}
+		image.img = null;
+		return image;
+	}
 
-		zipper.putNextEntry(new ZipEntry(id + ".png"));
+	// Runs on the single writer thread, in the same order the serial dump used. Returns false for
+	// images which failed to render or are duplicates.
+	private static boolean dedupItemImage(ItemImage image, Set<ItemImageKey> seen)
+	{
+		if (image.error != null)
+		{
+			System.out.println((image.stacked ? "Error dumping noted item " : "Error dumping item ") + image.id);
+			System.out.println(image.error);
+			return false;
+		}
 
-		ImageIO.write(img, "png", zipper);
-		itemFile.write(name + "=" + id + System.lineSeparator());
+		if (!seen.add(image.key))
+		{
+			System.out.println("Duplicate: " + image.name + " :: " + image.id);
+			return false;
+		}
+		return true;
 	}
 
-	private static void dumpItemFinder(Store store, File outDir) throws IOException {
+	private static void writeItemImage(ItemImage image, SimbaZipWriter zipper, FileWriter itemFile) throws IOException
+	{
+		if (image.error != null)
+		{
+			System.out.println((image.stacked ? "Error dumping noted item " : "Error dumping item ") + image.id);
+			System.out.println(image.error);
+			return;
+		}
+
+		zipper.write(image.id + ".png", image.png);
+		itemFile.write(image.name + "=" + image.id + System.lineSeparator());
+	}
+
+	private static ItemImage awaitItemImage(Future<ItemImage> future) throws IOException
+	{
+		try
+		{
+			return future.get();
+		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while dumping item images");
+		}
+		catch (ExecutionException ex)
+		{
+			throw new IOException(ex.getCause());
+		}
+	}
+
+	private static void dumpItemFinder(SimbaWorld world, File outDir) throws IOException {
+		Store store = world.getStore();
+
 		try {
-			md5 = MessageDigest.getInstance("MD5");
-		} catch (Exception ex) {
+			MessageDigest.getInstance("MD5");
+		} catch (NoSuchAlgorithmException ex) {
 			return;
 		}
 
-		ArrayList<String> names = new ArrayList<String>();
-		ArrayList<byte[]> hashes = new ArrayList<byte[]>();
+		Set<ItemImageKey> seen = new HashSet<>();
 
-		ZipOutputStream zipper = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(new File(outDir, "item-images.zip"))));
+		ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(new File(outDir, "item-images.zip"))));
+		// images are encoded by the pool below, the writer only stores them
+		SimbaZipWriter zipper = new SimbaZipWriter(zip, 1);
 		FileWriter itemFile = new FileWriter(new File(outDir, "item-names"));
 
 		ItemManager itemManager = new ItemManager(store);
 		itemManager.load();
 		itemManager.link();
 
-		ModelProvider modelProvider = new ModelProvider()
-		{
-			@Override
-			public ModelDefinition provide(int modelId) throws IOException
-			{
-				Index models = store.getIndex(IndexType.MODELS);
-				Archive archive = models.getArchive(modelId);
-
-				byte[] data = archive.decompress(store.getStorage().loadArchive(archive));
-				ModelDefinition inventoryModel = new ModelLoader().load(modelId, data);
-				return inventoryModel;
-			}
-		};
+		ModelProvider modelProvider = world.getModelProvider();
 
 		SpriteManager spriteManager = new SpriteManager(store);
 		spriteManager.load();
@@ -214,49 +552,76 @@ public class SimbaCacheDumper
 		TextureManager textureManager = new TextureManager(store);
 		textureManager.load();
 
-		for (ItemDefinition itemDef : itemManager.getItems())
-		{
-			if ((itemDef.name == null) || (itemDef.name.isEmpty())) {
-				continue;
-			}
-			if (itemDef.name.equalsIgnoreCase("null") && (itemDef.getNotedID() == -1))  {
-				continue;
-			}
+		// Items are rendered and hashed in parallel, deduped in submission order by this thread, then the
+		// survivors are encoded in parallel and written back in the same order, so the zip and item-names
+		// are identical to a serial dump.
+		ExecutorService executor = Executors.newFixedThreadPool(ITEM_THREADS);
+		ArrayDeque<Future<ItemImage>> pending = new ArrayDeque<>();
+		ArrayDeque<Future<ItemImage>> encoding = new ArrayDeque<>();
 
-			String name = "";
-			if ((itemDef.getNotedTemplate() == -1) && (!itemDef.getName().equalsIgnoreCase("null"))) {
-				name = itemDef.getName().toLowerCase();
-			}
-			else if (itemDef.getNotedID() != -1) {
-				name = "noted " + itemManager.getItem(itemDef.getNotedID()).getName().toLowerCase();
-			}
+		try {
+			for (ItemDefinition itemDef : itemManager.getItems())
+			{
+				if ((itemDef.name == null) || (itemDef.name.isEmpty())) {
+					continue;
+				}
+				if (itemDef.name.equalsIgnoreCase("null") && (itemDef.getNotedID() == -1))  {
+					continue;
+				}
 
-			// stacked items
-			if (itemDef.getCountObj() != null) {
-				for (int i = 0; i < 10; ++i) {
-					int id = itemDef.getCountObj()[i];
+				String name = "";
+				if ((itemDef.getNotedTemplate() == -1) && (!itemDef.getName().equalsIgnoreCase("null"))) {
+					name = itemDef.getName().toLowerCase();
+				}
+				else if (itemDef.getNotedID() != -1) {
+					name = "noted " + itemManager.getItem(itemDef.getNotedID()).getName().toLowerCase();
+				}
 
-					if (id > 0) {
-						try {
-							dumpItemImage(itemManager, modelProvider, spriteManager, textureManager, id, name, zipper, itemFile, hashes, names);
-						}
-						catch (Exception ex) {
-							System.out.println("Error dumping noted item " + id);
-							System.out.println(ex);
+				// stacked items
+				if (itemDef.getCountObj() != null) {
+					for (int i = 0; i < 10; ++i) {
+						int id = itemDef.getCountObj()[i];
+
+						if (id > 0) {
+							final String stackedName = name;
+							pending.add(executor.submit(() -> renderItemImage(itemManager, modelProvider, spriteManager, textureManager, id, stackedName, true)));
 						}
 					}
 				}
+
+				final String itemName = name;
+				pending.add(executor.submit(() -> renderItemImage(itemManager, modelProvider, spriteManager, textureManager, itemDef.id, itemName, false)));
+
+				while (pending.size() >= ITEM_QUEUE_SIZE) {
+					ItemImage image = awaitItemImage(pending.poll());
+					if (dedupItemImage(image, seen)) {
+						encoding.add(executor.submit(() -> encodeItemImage(image)));
+					}
+
+					while (!encoding.isEmpty() && (encoding.peek().isDone() || encoding.size() >= ITEM_QUEUE_SIZE)) {
+						writeItemImage(awaitItemImage(encoding.poll()), zipper, itemFile);
+					}
+				}
 			}
 
-			try {
-				dumpItemImage(itemManager, modelProvider, spriteManager, textureManager, itemDef.id, name, zipper, itemFile, hashes, names);
-			} catch (Exception ex) {
-				System.out.println("Error dumping item " + itemDef.id);
-				System.out.println(ex);
+			while (!pending.isEmpty()) {
+				ItemImage image = awaitItemImage(pending.poll());
+				if (dedupItemImage(image, seen)) {
+					encoding.add(executor.submit(() -> encodeItemImage(image)));
+				}
+			}
+
+			while (!encoding.isEmpty()) {
+				writeItemImage(awaitItemImage(encoding.poll()), zipper, itemFile);
 			}
+
+			zipper.finish();
+		} finally {
+			executor.shutdownNow();
+			zipper.close();
 		}
 
-		zipper.close();
+		zip.close();
 		itemFile.close();
 	}
 }
@@ -29,18 +29,17 @@ import lombok.Setter;
 import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.cache.definitions.*;
-import net.runelite.cache.definitions.loaders.OverlayLoader;
-import net.runelite.cache.definitions.loaders.SpriteLoader;
-import net.runelite.cache.definitions.loaders.UnderlayLoader;
 import net.runelite.cache.fs.*;
 import net.runelite.cache.item.RSTextureProvider;
 import net.runelite.cache.models.JagexColor;
 import net.runelite.cache.region.Location;
-import net.runelite.cache.region.Position;
 import net.runelite.cache.region.Region;
 import net.runelite.cache.region.RegionLoader;
 import net.runelite.cache.util.BigBufferedImage;
+import net.runelite.cache.util.DefinitionTable;
+import net.runelite.cache.util.IntRaster;
 import net.runelite.cache.util.KeyProvider;
+import net.runelite.cache.util.PngEncoder;
 import net.runelite.cache.util.XteaKeyManager;
 import org.apache.commons.cli.*;
 
@@ -49,7 +48,8 @@ import java.awt.image.BufferedImage;
 import java.io.*;
 import java.util.List;
 import java.util.*;
-import java.util.zip.ZipEntry;
+import java.util.function.Predicate;
+import java.util.zip.Deflater;
 import java.util.zip.ZipOutputStream;
 
 @Slf4j
@@ -68,14 +68,15 @@ public class SimbaCollisionMapDumper
 
 	private final Store store;
 
-	private final Map<Integer, UnderlayDefinition> underlays = new HashMap<>();
-	private final Map<Integer, OverlayDefinition> overlays = new HashMap<>();
+	private DefinitionTable<UnderlayDefinition> underlays;
+	private DefinitionTable<OverlayDefinition> overlays;
 
 	private final RegionLoader regionLoader;
-	private final AreaManager areas;
-	private final SpriteManager sprites;
+	private SimbaWorld world;
+	private AreaManager areas;
+	private SpriteManager sprites;
 	private RSTextureProvider rsTextureProvider;
-	private final ObjectManager objectManager;
+	private ObjectManager objectManager;
 	public static boolean exportFullMap = false;
 	private static boolean exportChunks = true;
 	private static final boolean exportEmptyImages = true;
@@ -97,6 +98,28 @@ public class SimbaCollisionMapDumper
 	@Setter
 	private boolean lowMemory = false;
 
+	/**
+	 * regions whose chunks are written, or null for all of them. Their neighbours are drawn too, as
+	 * objects can reach over a region's border.
+	 */
+	@Getter
+	@Setter
+	private Predicate<Region> regionFilter;
+
+	/**
+	 * threads chunks are encoded on while the map is drawn
+	 */
+	@Getter
+	@Setter
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * deflate level of the chunk PNGs. They hold only a few colours and are written with a palette.
+	 */
+	@Getter
+	@Setter
+	private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
 	public SimbaCollisionMapDumper(Store store, KeyProvider keyProvider)
 	{
 		this(store, new RegionLoader(store, keyProvider));
@@ -106,9 +129,13 @@ public class SimbaCollisionMapDumper
 	{
 		this.store = store;
 		this.regionLoader = regionLoader;
-		this.areas = new AreaManager(store);
-		this.sprites = new SpriteManager(store);
-		this.objectManager = new ObjectManager(store);
+	}
+
+	public SimbaCollisionMapDumper(SimbaWorld world)
+	{
+		this.store = world.getStore();
+		this.regionLoader = world.getRegionLoader();
+		this.world = world;
 	}
 
 	protected double random()
@@ -194,18 +221,18 @@ public class SimbaCollisionMapDumper
 
 	public SimbaCollisionMapDumper load() throws IOException
 	{
-		loadUnderlays(store);
-		loadOverlays(store);
-		objectManager.load();
-
-		TextureManager textureManager = new TextureManager(store);
-		textureManager.load();
-		rsTextureProvider = new RSTextureProvider(textureManager, sprites);
-
-		loadRegions();
-		areas.load();
-		sprites.load();
-		loadSprites();
+		if (world == null)
+		{
+			world = SimbaWorld.load(store, regionLoader);
+		}
+
+		underlays = world.getUnderlays();
+		overlays = world.getOverlays();
+		objectManager = world.getObjectManager();
+		rsTextureProvider = world.getRsTextureProvider();
+		areas = world.getAreas();
+		sprites = world.getSprites();
+
 		return this;
 	}
 
@@ -240,17 +267,33 @@ public class SimbaCollisionMapDumper
 	public static boolean isImageEmpty(BufferedImage img) {
 		if (exportEmptyImages) return false;
 
-		int color = img.getRGB(0,0);
-		for (int y = 1; y < img.getHeight(); y++)
-			for (int x = 0; x < img.getWidth(); x++)
-				if (img.getRGB(x, y) != color)
-					return false;
-		return true;
+		IntRaster raster = IntRaster.of(img);
+		return raster.isFilled(0, 0, raster.getWidth(), raster.getHeight(), raster.getRGB(0, 0));
 	}
 
 	private void drawRegions(BufferedImage image, int z, ZipOutputStream zip) throws IOException {
+		IntRaster raster = IntRaster.of(image);
+		TileScratch scratch = TileScratch.get(MAP_SCALE, BLEND);
+
+		try (SimbaZipWriter writer = exportChunks ? new SimbaZipWriter(zip, threads) : null)
+		{
+			drawRegions(image, raster, scratch, z, writer, new PngEncoder(compressionLevel));
+			if (writer != null)
+			{
+				writer.finish();
+			}
+		}
+	}
+
+	private void drawRegions(BufferedImage image, IntRaster raster, TileScratch scratch, int z, SimbaZipWriter writer, PngEncoder encoder) throws IOException
+	{
 		for (Region region : regionLoader.getRegions())
 		{
+			if (regionFilter != null && !isNeighbourSelected(region))
+			{
+				continue;
+			}
+
 			int baseX = region.getBaseX();
 			int baseY = region.getBaseY();
 
@@ -261,24 +304,50 @@ public class SimbaCollisionMapDumper
 			// region has the greatest y, so invert
 			int drawBaseY = regionLoader.getHighestY().getBaseY() - baseY;
 
-			drawRegions(image, drawBaseX, drawBaseY, z, region);
-			drawObjects(image, drawBaseX, drawBaseY, region, z);
+			drawRegions(raster, scratch, drawBaseX, drawBaseY, z, region);
+			drawObjects(raster, drawBaseX, drawBaseY, region, z);
 
-			if (exportChunks) {
+			if (writer != null && (regionFilter == null || regionFilter.test(region))) {
 				BufferedImage chunk = image.getSubimage(drawBaseX * MAP_SCALE, drawBaseY * MAP_SCALE, Region.X * MAP_SCALE, Region.Y * MAP_SCALE);
 				if (!isImageEmpty(chunk)) {
-					zip.putNextEntry(new ZipEntry(z + "/" + region.getRegionX() + "-" + region.getRegionY() + ".png"));
-					ImageIO.write(chunk, "png", zip);
+					// the next regions' objects can reach into this chunk, so it is encoded from a copy of its pixels
+					int[] pixels = raster.getRGB(drawBaseX * MAP_SCALE, drawBaseY * MAP_SCALE, chunk.getWidth(), chunk.getHeight(), null);
+					writer.submit(z + "/" + region.getRegionX() + "-" + region.getRegionY() + ".png",
+						() -> encoder.encode(pixels, chunk.getWidth(), chunk.getHeight()));
 				}
 			}
 		}
 	}
 
-	private void drawRegions(BufferedImage image, int drawBaseX, int drawBaseY, int z, Region region)
+	/**
+	 * Checks if the region or one of the regions around it passes the region filter
+	 */
+	private boolean isNeighbourSelected(Region region)
+	{
+		for (int x = region.getRegionX() - 1; x <= region.getRegionX() + 1; ++x)
+		{
+			for (int y = region.getRegionY() - 1; y <= region.getRegionY() + 1; ++y)
+			{
+				if (x < 0 || y < 0 || x > 0xFF || y > 0xFF)
+				{
+					continue;
+				}
+
+				Region r = regionLoader.findRegionForRegionCoordinates(x, y);
+				if (r != null && regionFilter.test(r))
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private void drawRegions(IntRaster raster, TileScratch scratch, int drawBaseX, int drawBaseY, int z, Region region)
 	{
 		if (!renderMap) return;
 
-		int[][][] map = new int[4][][];
+		scratch.reset();
 
 		for (int x = 0; x < Region.X; ++x)
 		{
@@ -294,61 +363,60 @@ public class SimbaCollisionMapDumper
 				int tileSetting = region.getTileSetting(z, x, Region.Y - y - 1);
 				if ((tileSetting & 24) == 0)
 				{
-					if (z == 0 && isBridge) drawTile(image, map, region, drawBaseX, drawBaseY, 0, x, y);
-					drawTile(image, map, region, drawBaseX, drawBaseY, tileZ, x, y);
+					if (z == 0 && isBridge) drawTile(raster, scratch, region, drawBaseX, drawBaseY, 0, x, y);
+					drawTile(raster, scratch, region, drawBaseX, drawBaseY, tileZ, x, y);
 				}
 
 				if (tileZ < 3)
 				{
 					int upTileSetting = region.getTileSetting(z + 1, x, Region.Y - y - 1);
-					if ((upTileSetting & 8) != 0) drawTile(image, map, region, drawBaseX, drawBaseY, tileZ + 1, x, y);
+					if ((upTileSetting & 8) != 0) drawTile(raster, scratch, region, drawBaseX, drawBaseY, tileZ + 1, x, y);
 				}
 			}
 		}
 	}
 
-	private void drawTile(BufferedImage to, int[][][] planes, Region region, int drawBaseX, int drawBaseY, int z, int x, int y)
+	private void drawTile(IntRaster to, TileScratch scratch, Region region, int drawBaseX, int drawBaseY, int z, int x, int y)
 	{
 		int tileSetting = region.getTileSetting(z, x, Region.Y - y - 1);
 		boolean unWalkable = ((tileSetting & 1) != 0);
 
-		int[][] pixels = planes[z];
+		int tempX = (drawBaseX + x) * MAP_SCALE;
+		int tempY = (drawBaseY + y) * MAP_SCALE;
 
-		if ((pixels == null))
+		if (unWalkable)
 		{
-			pixels = planes[z] = new int[Region.X * MAP_SCALE][Region.Y * MAP_SCALE];
-			if (debugMap) //MAYBE CAN REMOVE?
-				drawRegions(pixels, region, z);
+			to.fillRect(tempX, tempY, MAP_SCALE, MAP_SCALE, collisionColor);
 		}
-
-		for (int i = 0; i < MAP_SCALE; ++i)
+		else if (debugMap)
 		{
-			for (int j = 0; j < MAP_SCALE; ++j)
+			// only the debug view shows the ground colours, so only it needs the plane drawn
+			int[] pixels = scratch.plane(z);
+			if (pixels == null)
 			{
-				int argb;
-				if (debugMap) argb = pixels[x * MAP_SCALE + i][y * MAP_SCALE + j];
-				else  argb = walkableColor;
-
-				int tempX = drawBaseX * MAP_SCALE + x * MAP_SCALE + i;
-				int tempY = drawBaseY * MAP_SCALE + y * MAP_SCALE + j;
-
-				if (unWalkable) to.setRGB(tempX, tempY, collisionColor);
-				else if (argb != 0) to.setRGB(tempX,tempY, argb);
+				pixels = scratch.newPlane(z);
+				drawRegions(pixels, scratch, region, z);
 			}
+
+			to.copyOpaque(pixels, y * MAP_SCALE * scratch.width + x * MAP_SCALE, scratch.width, tempX, tempY, MAP_SCALE, MAP_SCALE);
+		}
+		else
+		{
+			to.fillRect(tempX, tempY, MAP_SCALE, MAP_SCALE, walkableColor);
 		}
 	}
 
-	private void drawRegions(int[][] pixels, Region region, int z)
+	private void drawRegions(int[] pixels, TileScratch scratch, Region region, int z)
 	{
 		int baseX = region.getBaseX();
 		int baseY = region.getBaseY();
 
-		int len = Region.X + BLEND * 2;
-		int[] hues = new int[len];
-		int[] sats = new int[len];
-		int[] light = new int[len];
-		int[] mul = new int[len];
-		int[] num = new int[len];
+		scratch.clearBlend();
+		int[] hues = scratch.hues;
+		int[] sats = scratch.sats;
+		int[] light = scratch.light;
+		int[] mul = scratch.mul;
+		int[] num = scratch.num;
 
 		boolean hasLeftRegion = regionLoader.findRegionForWorldCoordinates(baseX - 1, baseY) != null;
 		boolean hasRightRegion = regionLoader.findRegionForWorldCoordinates(baseX + Region.X, baseY) != null;
@@ -502,11 +570,11 @@ public class SimbaCollisionMapDumper
 
 								if (shape == 0)
 								{
-									if (underlayRgb != 0) drawMapSquare(pixels, xi, Region.Y - 1 - yi, underlayRgb);
+									if (underlayRgb != 0) drawMapSquare(pixels, scratch.width, xi, Region.Y - 1 - yi, underlayRgb);
 								}
 								else if (shape == 1)
 								{
-									drawMapSquare(pixels, xi, Region.Y - 1 - yi, overlayRgb);
+									drawMapSquare(pixels, scratch.width, xi, Region.Y - 1 - yi, overlayRgb);
 								}
 								else
 								{
@@ -519,7 +587,7 @@ public class SimbaCollisionMapDumper
 										int rotIdx = 0;
 										for (int i = 0; i < MAP_SCALE; ++i)
 											for (int j = 0; j < MAP_SCALE; j++)
-												pixels[drawX + j][drawY + i] = tileShapes[tileRotations[rotIdx++]] == 0 ? underlayRgb : overlayRgb;
+												pixels[(drawY + i) * scratch.width + drawX + j] = tileShapes[tileRotations[rotIdx++]] == 0 ? underlayRgb : overlayRgb;
 									}
 									else
 									{
@@ -527,7 +595,7 @@ public class SimbaCollisionMapDumper
 										for (int i = 0; i < MAP_SCALE; ++i)
 											for (int j = 0; j < MAP_SCALE; j++)
 												if (tileShapes[tileRotations[rotIdx++]] != 0)
-													pixels[drawX + j][drawY + i] = overlayRgb;
+													pixels[(drawY + i) * scratch.width + drawX + j] = overlayRgb;
 									}
 								}
 							}
@@ -544,15 +612,11 @@ public class SimbaCollisionMapDumper
 		return 64 - -(d % 64) - 1;
 	}
 
-	private void paintTile(BufferedImage image, int x, int y){
-		for (int i = 0; i < MAP_SCALE; i++) {
-			for (int j = 0; j < MAP_SCALE; j++) {
-				image.setRGB(x + i, y + j, SimbaCollisionMapDumper.collisionColor);
-			}
-		}
+	private void paintTile(IntRaster raster, int x, int y){
+		raster.fillRect(x, y, MAP_SCALE, MAP_SCALE, SimbaCollisionMapDumper.collisionColor);
 	}
 
-	private void drawObjects(BufferedImage image, int drawBaseX, int drawBaseY, Region region, int z)
+	private void drawObjects(IntRaster raster, int drawBaseX, int drawBaseY, Region region, int z)
 	{
 		if (!renderObjects) return;
 		Set<Integer> gates = new HashSet<Integer>();
@@ -564,27 +628,18 @@ public class SimbaCollisionMapDumper
 		List<List<Location>> layers = Arrays.asList(planeLocs, pushDownLocs);
 		for (int localX = 0; localX < Region.X; localX++)
 		{
-			int regionX = localX + region.getBaseX();
 			for (int localY = 0; localY < Region.Y; localY++)
 			{
-				int regionY = localY + region.getBaseY();
-
 				planeLocs.clear();
 				pushDownLocs.clear();
 				boolean isBridge = (region.getTileSetting(1, localX, localY) & 2) != 0;
 
 				int tileZ = z + (isBridge ? 1 : 0);
 
-				for (Location loc : region.getLocations())
-				{
-					Position pos = loc.getPosition();
-					if (pos.getX() != regionX || pos.getY() != regionY) continue;
-
-					if (pos.getZ() == tileZ && (region.getTileSetting(z, localX, localY) & 24) == 0)
-						planeLocs.add(loc);
-					else if (z < 3 && pos.getZ() == tileZ + 1 && (region.getTileSetting(z + 1, localX, localY) & 8) != 0)
-						pushDownLocs.add(loc);
-				}
+				if ((region.getTileSetting(z, localX, localY) & 24) == 0)
+					planeLocs.addAll(region.getLocations(tileZ, localX, localY));
+				if (z < 3 && (region.getTileSetting(z + 1, localX, localY) & 8) != 0)
+					pushDownLocs.addAll(region.getLocations(tileZ + 1, localX, localY));
 
 				for (List<Location> locs : layers)
 				{
@@ -618,33 +673,33 @@ public class SimbaCollisionMapDumper
 
 							if (object.getMapSceneID() != -1) continue;
 
-							if (drawX >= 0 && drawY >= 0 && drawX < image.getWidth() && drawY < image.getHeight())
+							if (drawX >= 0 && drawY >= 0 && drawX < raster.getWidth() && drawY < raster.getHeight())
 							{
 								if (type == 0 || type == 2)
 								{
 									for (int i = 0; i < MAP_SCALE; i++) {
-										if (rotation == 0)      image.setRGB(drawX, drawY + i, rgb);
-										else if (rotation == 1) image.setRGB(drawX + i, drawY, rgb);
-										else if (rotation == 2) image.setRGB(drawX + MAP_SCALE-1, drawY + i, rgb);
-										else if (rotation == 3) image.setRGB(drawX + i, drawY + MAP_SCALE-1, rgb);
+										if (rotation == 0)      raster.setRGB(drawX, drawY + i, rgb);
+										else if (rotation == 1) raster.setRGB(drawX + i, drawY, rgb);
+										else if (rotation == 2) raster.setRGB(drawX + MAP_SCALE-1, drawY + i, rgb);
+										else if (rotation == 3) raster.setRGB(drawX + i, drawY + MAP_SCALE-1, rgb);
 									}
 								}
 
 								if (type == 3)
 								{
-									if (rotation == 0)      image.setRGB(drawX, drawY, rgb);
-									else if (rotation == 1) image.setRGB(drawX + MAP_SCALE - 1, drawY, rgb);
-									else if (rotation == 2) image.setRGB(drawX + MAP_SCALE - 1, drawY + MAP_SCALE - 1, rgb);
-									else if (rotation == 3) image.setRGB(drawX, drawY + MAP_SCALE - 1, rgb);
+									if (rotation == 0)      raster.setRGB(drawX, drawY, rgb);
+									else if (rotation == 1) raster.setRGB(drawX + MAP_SCALE - 1, drawY, rgb);
+									else if (rotation == 2) raster.setRGB(drawX + MAP_SCALE - 1, drawY + MAP_SCALE - 1, rgb);
+									else if (rotation == 3) raster.setRGB(drawX, drawY + MAP_SCALE - 1, rgb);
 								}
 
 								if (type == 2)
 								{
 									for (int i = 0; i < MAP_SCALE; i++) {
-										if (rotation == 0)      image.setRGB(drawX + i, drawY, rgb);
-										else if (rotation == 1) image.setRGB(drawX + MAP_SCALE-1, drawY + i, rgb);
-										else if (rotation == 2) image.setRGB(drawX + i, drawY + MAP_SCALE-1, rgb);
-										else if (rotation == 3) image.setRGB(drawX, drawY + i, rgb);
+										if (rotation == 0)      raster.setRGB(drawX + i, drawY, rgb);
+										else if (rotation == 1) raster.setRGB(drawX + MAP_SCALE-1, drawY + i, rgb);
+										else if (rotation == 2) raster.setRGB(drawX + i, drawY + MAP_SCALE-1, rgb);
+										else if (rotation == 3) raster.setRGB(drawX, drawY + i, rgb);
 									}
 								}
 							}
@@ -654,11 +709,11 @@ public class SimbaCollisionMapDumper
 							int drawX = (drawBaseX + localX) * MAP_SCALE;
 							int drawY = (drawBaseY + (Region.Y - object.getSizeY() - localY)) * MAP_SCALE;
 
-							if (drawX >= 0 && drawY >= 0 && drawX < image.getWidth() && drawY < image.getHeight())
+							if (drawX >= 0 && drawY >= 0 && drawX < raster.getWidth() && drawY < raster.getHeight())
 							{
 								for (int x = 0; x < MAP_SCALE; x++) {
 									for (int y = 0; y < MAP_SCALE; y++) {
-										image.setRGB(drawX + x, drawY + y, collisionColor);
+										raster.setRGB(drawX + x, drawY + y, collisionColor);
 									}
 								}
 							}
@@ -670,11 +725,11 @@ public class SimbaCollisionMapDumper
 							int drawX = (drawBaseX + localX) * MAP_SCALE;
 							int drawY = (drawBaseY + (Region.Y - object.getSizeY() - localY)) * MAP_SCALE;
 
-							if (drawX >= 0 && drawY >= 0 && drawX < image.getWidth() && drawY < image.getHeight())
+							if (drawX >= 0 && drawY >= 0 && drawX < raster.getWidth() && drawY < raster.getHeight())
 							{
 								for (int x = 0; x < MAP_SCALE; x++) {
 									for (int y = 0; y < MAP_SCALE; y++) {
-										image.setRGB(drawX + x, drawY + y, collisionColor);
+										raster.setRGB(drawX + x, drawY + y, collisionColor);
 									}
 								}
 							}
@@ -695,7 +750,7 @@ public class SimbaCollisionMapDumper
 									for (int sY = 0; sY < object.getSizeY(); sY++) {
 										for (int n = 0; n < MAP_SCALE; n++) {
 											for (int l = 0; l < MAP_SCALE; l++) {
-												image.setRGB(drawX + n + sX * MAP_SCALE, drawY + l + sY * MAP_SCALE, collisionColor);
+												raster.setRGB(drawX + n + sX * MAP_SCALE, drawY + l + sY * MAP_SCALE, collisionColor);
 											}
 										}
 									}
@@ -706,7 +761,7 @@ public class SimbaCollisionMapDumper
 							if (rotation == 0 || rotation == 2) {
 								for (int sX = 0; sX < object.getSizeX(); sX++) {
 									for (int sY = 0; sY < object.getSizeY(); sY++) {
-										paintTile(image, drawX + sX * MAP_SCALE, drawY + sY * MAP_SCALE);
+										paintTile(raster, drawX + sX * MAP_SCALE, drawY + sY * MAP_SCALE);
 									}
 								}
 							}
@@ -716,7 +771,7 @@ public class SimbaCollisionMapDumper
 								if (object.getSizeX() < object.getSizeY()) {
 									for (int sX = 0; sX < object.getSizeX(); sX++) {
 										for (int sY = 0; sY < object.getSizeY(); sY++) {
-											paintTile(image, drawX + sX * MAP_SCALE, drawY + sY * MAP_SCALE + MAP_SCALE);
+											paintTile(raster, drawX + sX * MAP_SCALE, drawY + sY * MAP_SCALE + MAP_SCALE);
 										}
 									}
 								}
@@ -728,8 +783,8 @@ public class SimbaCollisionMapDumper
 
 									for (int sX = 0; sX < object.getSizeY(); sX++) {
 										for (int sY = 0; sY < object.getSizeX() / 2; sY++) {
-											paintTile(image, drawX + sX * MAP_SCALE, centerY + sY * MAP_SCALE);
-											paintTile(image, drawX + sX * MAP_SCALE, centerY - sY * MAP_SCALE - MAP_SCALE);
+											paintTile(raster, drawX + sX * MAP_SCALE, centerY + sY * MAP_SCALE);
+											paintTile(raster, drawX + sX * MAP_SCALE, centerY - sY * MAP_SCALE - MAP_SCALE);
 										}
 									}
 									//image.setRGB(drawX + object.getSizeY() * MAP_SCALE/2, drawY - MAP_SCALE, 0xFFFFFF);
@@ -789,43 +844,13 @@ public class SimbaCollisionMapDumper
 		return (var0 & 65408) + var1;
 	}
 
-	private void drawMapSquare(int[][] pixels, int x, int y, int rgb)
-	{
-		x *= MAP_SCALE;
-		y *= MAP_SCALE;
-
-		for (int i = 0; i < MAP_SCALE; ++i)
-			for (int j = 0; j < MAP_SCALE; ++j)
-				pixels[x + i][y + j] = rgb;
-	}
-
-	private void loadRegions() throws IOException
-	{
-		regionLoader.loadRegions();
-		regionLoader.calculateBounds();
-
-		log.debug("North most region: {}", regionLoader.getLowestY().getBaseY());
-		log.debug("South most region: {}", regionLoader.getHighestY().getBaseY());
-		log.debug("West most region:  {}", regionLoader.getLowestX().getBaseX());
-		log.debug("East most region:  {}", regionLoader.getHighestX().getBaseX());
-	}
-
-	private void loadUnderlays(Store store) throws IOException
+	private void drawMapSquare(int[] pixels, int stride, int x, int y, int rgb)
 	{
-		Storage storage = store.getStorage();
-		Index index = store.getIndex(IndexType.CONFIGS);
-		Archive archive = index.getArchive(ConfigType.UNDERLAY.getId());
-
-		byte[] archiveData = storage.loadArchive(archive);
-		ArchiveFiles files = archive.getFiles(archiveData);
-
-		for (FSFile file : files.getFiles())
-		{
-			UnderlayLoader loader = new UnderlayLoader();
-			UnderlayDefinition underlay = loader.load(file.getFileId(), file.getContents());
+		int row = y * MAP_SCALE * stride + x * MAP_SCALE;
 
-			underlays.put(underlay.getId(), underlay);
-		}
+		for (int j = 0; j < MAP_SCALE; ++j, row += stride)
+			for (int i = 0; i < MAP_SCALE; ++i)
+				pixels[row + i] = rgb;
 	}
 
 	private UnderlayDefinition findUnderlay(int id)
@@ -833,36 +858,8 @@ public class SimbaCollisionMapDumper
 		return underlays.get(id);
 	}
 
-	private void loadOverlays(Store store) throws IOException
-	{
-		Storage storage = store.getStorage();
-		Index index = store.getIndex(IndexType.CONFIGS);
-		Archive archive = index.getArchive(ConfigType.OVERLAY.getId());
-
-		byte[] archiveData = storage.loadArchive(archive);
-		ArchiveFiles files = archive.getFiles(archiveData);
-
-		for (FSFile file : files.getFiles())
-		{
-			OverlayLoader loader = new OverlayLoader();
-			OverlayDefinition overlay = loader.load(file.getFileId(), file.getContents());
-
-			overlays.put(overlay.getId(), overlay);
-		}
-	}
-
 	private OverlayDefinition findOverlay(int id)
 	{
 		return overlays.get(id);
 	}
-
-	private void loadSprites() throws IOException
-	{
-		Storage storage = store.getStorage();
-		Index index = store.getIndex(IndexType.SPRITES);
-		Archive a = index.findArchiveByName("mapscene");
-		byte[] contents = a.decompress(storage.loadArchive(a));
-
-		SpriteLoader loader = new SpriteLoader();
-	}
 }
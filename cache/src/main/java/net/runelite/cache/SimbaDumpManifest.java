@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache;
+
+import com.google.gson.Gson;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.cache.definitions.AreaDefinition;
+import net.runelite.cache.definitions.ObjectDefinition;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.ArchiveFiles;
+import net.runelite.cache.fs.FSFile;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Store;
+import net.runelite.cache.region.Location;
+import net.runelite.cache.region.Region;
+import net.runelite.cache.region.RegionLoader;
+
+/**
+ * Describes what a Simba dump was made from, so the next dump can tell which regions changed.
+ * Each region gets a fingerprint of its map and location archives and of the definitions and
+ * models of the objects placed in it. Inputs shared by every region, like the underlays,
+ * overlays, textures and map sprites, go into a single world fingerprint. The CRCs of the
+ * written zips are kept too, so a dump is only reused if it is still the one described here.
+ */
+@Slf4j
+public class SimbaDumpManifest
+{
+	public static final String FILE_NAME = "manifest.json";
+
+	// bump whenever a dumper renders the same cache differently
+	private static final int VERSION = 1;
+
+	private int version = VERSION;
+	private int world;
+	private int[] bounds;
+	private Map<Integer, Integer> regions = new TreeMap<>();
+	private Map<String, Long> outputs = new TreeMap<>();
+
+	public static SimbaDumpManifest of(SimbaWorld world) throws IOException
+	{
+		long start = System.currentTimeMillis();
+
+		Store store = world.getStore();
+		RegionLoader regionLoader = world.getRegionLoader();
+		Index maps = store.getIndex(IndexType.MAPS);
+		Index models = store.getIndex(IndexType.MODELS);
+
+		SimbaDumpManifest manifest = new SimbaDumpManifest();
+		manifest.world = worldFingerprint(world);
+		manifest.bounds = new int[]{
+			regionLoader.getLowestX().getBaseX(), regionLoader.getLowestY().getBaseY(),
+			regionLoader.getHighestX().getBaseX(), regionLoader.getHighestY().getBaseY()
+		};
+
+		Map<Integer, Integer> objectConfigs = fileCrcs(store, ConfigType.OBJECT);
+		Map<Integer, Integer> objects = new HashMap<>();
+		for (Region region : regionLoader.getRegions())
+		{
+			CRC32 crc = new CRC32();
+			update(crc, archiveCrc(maps.findArchiveByName("m" + region.getRegionX() + "_" + region.getRegionY())));
+			update(crc, archiveCrc(maps.findArchiveByName("l" + region.getRegionX() + "_" + region.getRegionY())));
+			for (Location location : region.getLocations())
+			{
+				update(crc, objects.computeIfAbsent(location.getId(),
+					id -> objectFingerprint(world.findObject(id), objectConfigs.get(id), models)));
+			}
+			manifest.regions.put(region.getRegionID(), (int) crc.getValue());
+		}
+
+		log.info("Fingerprinted {} regions and {} objects in {}ms", manifest.regions.size(), objects.size(),
+			System.currentTimeMillis() - start);
+		return manifest;
+	}
+
+	/**
+	 * Reads a manifest, or returns null if there is none
+	 */
+	public static SimbaDumpManifest read(File file) throws IOException
+	{
+		if (!file.exists())
+		{
+			return null;
+		}
+
+		try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))
+		{
+			return new Gson().fromJson(reader, SimbaDumpManifest.class);
+		}
+	}
+
+	public void write(File file) throws IOException
+	{
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))
+		{
+			new Gson().toJson(this, writer);
+		}
+	}
+
+	/**
+	 * Gets the ids of the regions whose chunks differ between a dump described by previous and
+	 * one described by this manifest: the changed, added and removed regions and the regions
+	 * around them, whose chunks show their edges. Returns null if every region has to be dumped
+	 * again.
+	 */
+	public Set<Integer> dirtyRegions(SimbaDumpManifest previous)
+	{
+		if (previous.version != version || previous.world != world || !Arrays.equals(previous.bounds, bounds))
+		{
+			return null;
+		}
+
+		Set<Integer> changed = new HashSet<>();
+		for (Map.Entry<Integer, Integer> entry : regions.entrySet())
+		{
+			if (!entry.getValue().equals(previous.regions.get(entry.getKey())))
+			{
+				changed.add(entry.getKey());
+			}
+		}
+		for (Integer id : previous.regions.keySet())
+		{
+			if (!regions.containsKey(id))
+			{
+				changed.add(id);
+			}
+		}
+
+		Set<Integer> dirty = new HashSet<>();
+		for (int id : changed)
+		{
+			int regionX = id >> 8;
+			int regionY = id & 0xFF;
+			for (int x = Math.max(regionX - 1, 0); x <= Math.min(regionX + 1, 0xFF); ++x)
+			{
+				for (int y = Math.max(regionY - 1, 0); y <= Math.min(regionY + 1, 0xFF); ++y)
+				{
+					dirty.add(x << 8 | y);
+				}
+			}
+		}
+		return dirty;
+	}
+
+	/**
+	 * Checks if file is the output this manifest recorded under name
+	 */
+	public boolean hasOutput(String name, File file) throws IOException
+	{
+		Long crc = outputs.get(name);
+		return crc != null && file.exists() && crc == fileCrc(file);
+	}
+
+	public void putOutput(String name, File file) throws IOException
+	{
+		outputs.put(name, fileCrc(file));
+	}
+
+	private static int worldFingerprint(SimbaWorld world) throws IOException
+	{
+		Store store = world.getStore();
+		Index configs = store.getIndex(IndexType.CONFIGS);
+		Index sprites = store.getIndex(IndexType.SPRITES);
+
+		CRC32 crc = new CRC32();
+		update(crc, archiveCrc(configs.getArchive(ConfigType.UNDERLAY.getId())));
+		update(crc, archiveCrc(configs.getArchive(ConfigType.OVERLAY.getId())));
+		update(crc, archiveCrc(configs.getArchive(ConfigType.AREA.getId())));
+		update(crc, store.getIndex(IndexType.TEXTURES).getCrc());
+		update(crc, archiveCrc(sprites.findArchiveByName("mapscene")));
+		for (AreaDefinition area : world.getAreas().getAreas())
+		{
+			update(crc, archiveCrc(sprites.getArchive(area.spriteId)));
+		}
+		return (int) crc.getValue();
+	}
+
+	private static int objectFingerprint(ObjectDefinition object, Integer config, Index models)
+	{
+		CRC32 crc = new CRC32();
+		update(crc, config != null ? config : 0);
+		if (object != null && object.getObjectModels() != null)
+		{
+			for (int model : object.getObjectModels())
+			{
+				update(crc, archiveCrc(models.getArchive(model)));
+			}
+		}
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Gets the CRC of every file of a config archive, by file id
+	 */
+	private static Map<Integer, Integer> fileCrcs(Store store, ConfigType type) throws IOException
+	{
+		Archive archive = store.getIndex(IndexType.CONFIGS).getArchive(type.getId());
+		ArchiveFiles files = archive.getFiles(store.getStorage().loadArchive(archive));
+
+		Map<Integer, Integer> crcs = new HashMap<>();
+		for (FSFile file : files.getFiles())
+		{
+			CRC32 crc = new CRC32();
+			crc.update(file.getContents());
+			crcs.put(file.getFileId(), (int) crc.getValue());
+		}
+		return crcs;
+	}
+
+	private static int archiveCrc(Archive archive)
+	{
+		return archive != null ? archive.getCrc() : 0;
+	}
+
+	private static long fileCrc(File file) throws IOException
+	{
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[65536];
+		try (InputStream in = new FileInputStream(file))
+		{
+			for (int n; (n = in.read(buffer)) != -1; )
+			{
+				crc.update(buffer, 0, n);
+			}
+		}
+		return crc.getValue();
+	}
+
+	private static void update(CRC32 crc, int value)
+	{
+		crc.update(value >>> 24);
+		crc.update(value >>> 16);
+		crc.update(value >>> 8);
+		crc.update(value);
+	}
+}
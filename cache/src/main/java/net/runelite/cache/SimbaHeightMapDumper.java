@@ -24,11 +24,15 @@
  */
 package net.runelite.cache;
 
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.cache.fs.Store;
 import net.runelite.cache.region.Region;
 import net.runelite.cache.region.RegionLoader;
+import net.runelite.cache.util.IntRaster;
 import net.runelite.cache.util.KeyProvider;
+import net.runelite.cache.util.PngEncoder;
 import net.runelite.cache.util.XteaKeyManager;
 import org.apache.commons.cli.*;
 import org.slf4j.Logger;
@@ -38,7 +42,8 @@ import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.*;
-import java.util.zip.ZipEntry;
+import java.util.function.Predicate;
+import java.util.zip.Deflater;
 import java.util.zip.ZipOutputStream;
 
 @Slf4j
@@ -53,11 +58,38 @@ public class SimbaHeightMapDumper
 	private final Store store;
 	private RegionLoader regionLoader;
 
+	/**
+	 * regions whose chunks are written, or null for all of them
+	 */
+	@Getter
+	@Setter
+	private Predicate<Region> regionFilter;
+
+	/**
+	 * threads chunks are encoded on while the map is drawn
+	 */
+	@Getter
+	@Setter
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * deflate level of the chunk PNGs, which are written as greyscale
+	 */
+	@Getter
+	@Setter
+	private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
 	public SimbaHeightMapDumper(Store store)
 	{
 		this.store = store;
 	}
 
+	public SimbaHeightMapDumper(SimbaWorld world)
+	{
+		this.store = world.getStore();
+		this.regionLoader = world.getRegionLoader();
+	}
+
 	public void load(KeyProvider keyProvider) throws IOException
 	{
 		regionLoader = new RegionLoader(store, keyProvider);
@@ -84,59 +116,80 @@ public class SimbaHeightMapDumper
 
 	public static boolean isImageEmpty(BufferedImage img) {
 		if (exportEmptyImages) return false;
-		for (int y = 0; y < img.getHeight(); y++)
-			for (int x = 0; x < img.getWidth(); x++)
-				if (img.getRGB(x, y) != 0xFF000000)
-					return false;
-		return true;
+		IntRaster raster = IntRaster.of(img);
+		return raster.isFilled(0, 0, raster.getWidth(), raster.getHeight(), 0xFF000000);
 	}
 
 	private void drawRegions(BufferedImage image, int z, ZipOutputStream zip) throws IOException {
 		int max = Integer.MIN_VALUE;
 		int min = Integer.MAX_VALUE;
 
-		for (Region region : regionLoader.getRegions())
+		IntRaster raster = IntRaster.of(image);
+		SimbaZipWriter writer = exportChunks ? new SimbaZipWriter(zip, threads) : null;
+		PngEncoder encoder = new PngEncoder(compressionLevel);
+
+		try
 		{
-			int baseX = region.getBaseX();
-			int baseY = region.getBaseY();
+			for (Region region : regionLoader.getRegions())
+			{
+				if (regionFilter != null && !regionFilter.test(region))
+				{
+					continue;
+				}
 
-			// to pixel X
-			int drawBaseX = baseX - regionLoader.getLowestX().getBaseX();
+				int baseX = region.getBaseX();
+				int baseY = region.getBaseY();
 
-			// to pixel Y. top most y is 0, but the top most
-			// region has the greatest y, so invert
-			int drawBaseY = regionLoader.getHighestY().getBaseY() - baseY;
+				// to pixel X
+				int drawBaseX = baseX - regionLoader.getLowestX().getBaseX();
 
-			for (int x = 0; x < Region.X; ++x)
-			{
-				int drawX = drawBaseX + x;
-				for (int y = 0; y < Region.Y; ++y)
-				{
-					int drawY = drawBaseY + (Region.Y - 1 - y);
+				// to pixel Y. top most y is 0, but the top most
+				// region has the greatest y, so invert
+				int drawBaseY = regionLoader.getHighestY().getBaseY() - baseY;
 
-					int height = region.getTileHeight(z, x, y);
-					if (height > max)
-					{
-						max = height;
-					}
-					if (height < min)
+				for (int x = 0; x < Region.X; ++x)
+				{
+					int drawX = drawBaseX + x;
+					for (int y = 0; y < Region.Y; ++y)
 					{
-						min = height;
-					}
+						int drawY = drawBaseY + (Region.Y - 1 - y);
+
+						int height = region.getTileHeight(z, x, y);
+						if (height > max)
+						{
+							max = height;
+						}
+						if (height < min)
+						{
+							min = height;
+						}
 
-					int rgb = toColor(height);
+						int rgb = toColor(height);
 
-					drawMapSquare(image, drawX, drawY, rgb);
+						drawMapSquare(raster, drawX, drawY, rgb);
+					}
 				}
-			}
 
-			if (exportChunks) {
-				BufferedImage chunk = image.getSubimage(drawBaseX * MAP_SCALE, drawBaseY * MAP_SCALE, Region.X * MAP_SCALE, Region.Y * MAP_SCALE);
-				if (!isImageEmpty(chunk)) {
-					zip.putNextEntry(new ZipEntry(region.getRegionX() + "-" + region.getRegionY() + ".png"));
-					ImageIO.write(chunk, "png", zip);
+				if (writer != null) {
+					// regions don't overlap, so nothing draws over the chunk while it is encoded
+					BufferedImage chunk = image.getSubimage(drawBaseX * MAP_SCALE, drawBaseY * MAP_SCALE, Region.X * MAP_SCALE, Region.Y * MAP_SCALE);
+					if (!isImageEmpty(chunk)) {
+						writer.submit(region.getRegionX() + "-" + region.getRegionY() + ".png", () -> encoder.encode(chunk));
+					}
 				}
 			}
+
+			if (writer != null)
+			{
+				writer.finish();
+			}
+		}
+		finally
+		{
+			if (writer != null)
+			{
+				writer.close();
+			}
 		}
 
 		System.out.println("max " + max);
@@ -155,14 +208,9 @@ public class SimbaHeightMapDumper
 		return new Color(color, color, color).getRGB();
 	}
 
-	private void drawMapSquare(BufferedImage image, int x, int y, int rgb)
+	private void drawMapSquare(IntRaster raster, int x, int y, int rgb)
 	{
-		x *= MAP_SCALE;
-		y *= MAP_SCALE;
-
-		for (int i = 0; i < MAP_SCALE; ++i)
-			for (int j = 0; j < MAP_SCALE; ++j)
-				image.setRGB(x + i, y + j, rgb);
+		raster.fillRect(x * MAP_SCALE, y * MAP_SCALE, MAP_SCALE, MAP_SCALE, rgb);
 	}
 
 	public static void main(String[] args) throws IOException
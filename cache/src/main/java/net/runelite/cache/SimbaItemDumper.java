@@ -29,20 +29,18 @@ import net.runelite.cache.definitions.exporters.ItemExporter;
 import net.runelite.cache.definitions.loaders.ItemLoader;
 import net.runelite.cache.definitions.providers.ItemProvider;
 import net.runelite.cache.fs.*;
+import net.runelite.cache.util.DefinitionTable;
 import net.runelite.cache.util.IDClass;
 import org.apache.commons.cli.*;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 
 public class SimbaItemDumper implements ItemProvider
 {
 	private final Store store;
-	private final Map<Integer, ItemDefinition> items = new HashMap<>();
+	private final DefinitionTable<ItemDefinition> items = new DefinitionTable<>();
 
 	public SimbaItemDumper(Store store)
 	{
@@ -50,6 +48,11 @@ public class SimbaItemDumper implements ItemProvider
 	}
 
 	public void load() throws IOException
+	{
+		load(true);
+	}
+
+	public void load(boolean parallel) throws IOException
 	{
 		ItemLoader loader = new ItemLoader();
 
@@ -60,16 +63,12 @@ public class SimbaItemDumper implements ItemProvider
 		byte[] archiveData = storage.loadArchive(archive);
 		ArchiveFiles files = archive.getFiles(archiveData);
 
-		for (FSFile f : files.getFiles())
-		{
-			ItemDefinition def = loader.load(f.getFileId(), f.getContents());
-			items.put(f.getFileId(), def);
-		}
+		items.putAll(files.decode(loader::load, parallel));
 	}
 
 	public void link()
 	{
-		for (ItemDefinition oc : items.values())
+		for (ItemDefinition oc : items)
 		{
 			link(oc);
 		}
@@ -93,7 +92,7 @@ public class SimbaItemDumper implements ItemProvider
 
 	public Collection<ItemDefinition> getItems()
 	{
-		return Collections.unmodifiableCollection(items.values());
+		return items.values();
 	}
 
 	public ItemDefinition getItem(int itemId)
@@ -105,7 +104,7 @@ public class SimbaItemDumper implements ItemProvider
 	{
 		out.mkdirs();
 
-		for (ItemDefinition def : items.values())
+		for (ItemDefinition def : items)
 		{
 			ItemExporter exporter = new ItemExporter(def);
 
@@ -120,7 +119,7 @@ public class SimbaItemDumper implements ItemProvider
 		try (IDClass ids = IDClass.create(java, "ItemID");
 			IDClass nulls = IDClass.create(java, "NullItemID"))
 		{
-			for (ItemDefinition def : items.values())
+			for (ItemDefinition def : items)
 			{
 				if (def.name.equalsIgnoreCase("NULL"))
 				{
@@ -24,14 +24,12 @@
  */
 package net.runelite.cache;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.cache.definitions.*;
-import net.runelite.cache.definitions.loaders.OverlayLoader;
-import net.runelite.cache.definitions.loaders.SpriteLoader;
-import net.runelite.cache.definitions.loaders.UnderlayLoader;
 import net.runelite.cache.fs.*;
 import net.runelite.cache.item.RSTextureProvider;
 import net.runelite.cache.models.JagexColor;
@@ -40,6 +38,8 @@ import net.runelite.cache.region.Position;
 import net.runelite.cache.region.Region;
 import net.runelite.cache.region.RegionLoader;
 import net.runelite.cache.util.BigBufferedImage;
+import net.runelite.cache.util.DefinitionTable;
+import net.runelite.cache.util.IntRaster;
 import net.runelite.cache.util.KeyProvider;
 import net.runelite.cache.util.XteaKeyManager;
 import org.apache.commons.cli.*;
@@ -50,7 +50,12 @@ import java.awt.image.BufferedImage;
 import java.io.*;
 import java.util.List;
 import java.util.*;
-import java.util.zip.ZipEntry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.zip.ZipOutputStream;
 
 @Slf4j
@@ -60,6 +65,11 @@ public class SimbaMapImageDumper
 	private static final int MAP_SCALE = 4; // this squared is the number of pixels per map square
 	private static final int BLEND = 5; // number of surrounding tiles for ground blending
 	private static int[] colorPalette = JagexColor.createPalette(JagexColor.BRIGHTNESS_MAX);
+	// tiles drawn around a region when it is rendered on its own, so walls, map scenes, icons
+	// and labels of neighbouring regions that spill over its border still show up in it. Anything
+	// anchored further out than this, such as a large object, map scene sprite or region label, is
+	// cut off at the halo.
+	private static final int HALO = 16;
 
 	private static final int[][] TILE_SHAPE_2D = new int[][]{{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0}, {1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1}, {1, 0, 0, 0, 1, 1, 0, 0, 1, 1, 1, 0, 1, 1, 1, 1}, {1, 1, 0, 0, 1, 1, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0}, {0, 0, 1, 1, 0, 0, 1, 1, 0, 0, 0, 1, 0, 0, 0, 1}, {0, 1, 1, 1, 0, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1}, {1, 1, 1, 0, 1, 1, 1, 0, 1, 1, 1, 1, 1, 1, 1, 1}, {1, 1, 0, 0, 1, 1, 0, 0, 1, 1, 0, 0, 1, 1, 0, 0}, {0, 0, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 1, 1, 0, 0}, {1, 1, 1, 1, 1, 1, 1, 1, 0, 1, 1, 1, 0, 0, 1, 1}, {1, 1, 1, 1, 1, 1, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0}, {0, 0, 0, 0, 0, 0, 1, 1, 0, 1, 1, 1, 0, 1, 1, 1}, {0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 0, 1, 1, 1, 1}};
 	private static final int[][] TILE_ROTATION_2D = new int[][]{{0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15}, {12, 8, 4, 0, 13, 9, 5, 1, 14, 10, 6, 2, 15, 11, 7, 3}, {15, 14, 13, 12, 11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1, 0}, {3, 7, 11, 15, 2, 6, 10, 14, 1, 5, 9, 13, 0, 4, 8, 12}};
@@ -69,15 +79,16 @@ public class SimbaMapImageDumper
 
 	private final Store store;
 
-	private final Map<Integer, UnderlayDefinition> underlays = new HashMap<>();
-	private final Map<Integer, OverlayDefinition> overlays = new HashMap<>();
+	private DefinitionTable<UnderlayDefinition> underlays;
+	private DefinitionTable<OverlayDefinition> overlays;
 	private SpriteDefinition[] mapDecorations;
 
 	private final RegionLoader regionLoader;
-	private final AreaManager areas;
-	private final SpriteManager sprites;
+	private SimbaWorld world;
+	private AreaManager areas;
+	private SpriteManager sprites;
 	private RSTextureProvider rsTextureProvider;
-	private final ObjectManager objectManager;
+	private ObjectManager objectManager;
 
 	@Getter
 	@Setter
@@ -111,6 +122,49 @@ public class SimbaMapImageDumper
 	@Setter
 	private boolean lowMemory = false;
 
+	/**
+	 * threads regions are rendered and encoded on
+	 */
+	@Getter
+	@Setter
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * draw the full map from chunks rendered on {@link #getThreads()} threads instead of serially.
+	 * Spill over into space with no region at all is lost, and regions only match the serial image
+	 * up to the limit described at {@link #drawChunks(int, ZipOutputStream)}.
+	 */
+	@Getter
+	@Setter
+	private boolean chunkedFullMap = false;
+
+	/**
+	 * regions {@link #drawChunks(int, ZipOutputStream)} draws, or null to draw all of them. Regions
+	 * left out are still drawn into the border of their neighbours' chunks.
+	 */
+	@Getter
+	@Setter
+	private Predicate<Region> regionFilter;
+
+	/**
+	 * A region rendered on its own
+	 */
+	private static class Chunk
+	{
+		final Region region;
+		final int drawBaseX;
+		final int drawBaseY;
+		byte[] png;
+		int[] pixels;
+
+		Chunk(Region region, int drawBaseX, int drawBaseY)
+		{
+			this.region = region;
+			this.drawBaseX = drawBaseX;
+			this.drawBaseY = drawBaseY;
+		}
+	}
+
 	public SimbaMapImageDumper(Store store, KeyProvider keyProvider)
 	{
 		this(store, new RegionLoader(store, keyProvider));
@@ -120,9 +174,13 @@ public class SimbaMapImageDumper
 	{
 		this.store = store;
 		this.regionLoader = regionLoader;
-		this.areas = new AreaManager(store);
-		this.sprites = new SpriteManager(store);
-		this.objectManager = new ObjectManager(store);
+	}
+
+	public SimbaMapImageDumper(SimbaWorld world)
+	{
+		this.store = world.getStore();
+		this.regionLoader = world.getRegionLoader();
+		this.world = world;
 	}
 
 	public static void main(String[] args) throws IOException
@@ -182,12 +240,15 @@ public class SimbaMapImageDumper
 
 			for (int i = 0; i < Region.Z; ++i)
 			{
-				BufferedImage image = dumper.drawRegions(i, zip);
-				if (exportFullMap) {
-					File imageFile = new File(outDir, "img-" + i + ".png");
-					ImageIO.write(image, "png", imageFile);
-					log.info("Wrote image {}", imageFile);
+				if (!exportFullMap) {
+					dumper.drawChunks(i, zip);
+					continue;
 				}
+
+				BufferedImage image = dumper.drawRegions(i, zip);
+				File imageFile = new File(outDir, "img-" + i + ".png");
+				ImageIO.write(image, "png", imageFile);
+				log.info("Wrote image {}", imageFile);
 			}
 
 			if (zip != null) zip.close();
@@ -207,18 +268,18 @@ public class SimbaMapImageDumper
 
 	public SimbaMapImageDumper load() throws IOException
 	{
-		loadUnderlays(store);
-		loadOverlays(store);
-		objectManager.load();
-
-		TextureManager textureManager = new TextureManager(store);
-		textureManager.load();
-		rsTextureProvider = new RSTextureProvider(textureManager, sprites);
+		if (world == null)
+		{
+			world = SimbaWorld.load(store, regionLoader);
+		}
 
-		loadRegions();
-		areas.load();
-		sprites.load();
-		loadSprites();
+		underlays = world.getUnderlays();
+		overlays = world.getOverlays();
+		objectManager = world.getObjectManager();
+		rsTextureProvider = world.getRsTextureProvider();
+		areas = world.getAreas();
+		sprites = world.getSprites();
+		mapDecorations = world.getMapDecorations();
 
 		return this;
 	}
@@ -251,14 +312,36 @@ public class SimbaMapImageDumper
 	}
 
 	public static boolean isImageEmpty(BufferedImage img) {
-		int color = img.getRGB(0,0);
-		for (int y = 1; y < img.getHeight(); y++)
-			for (int x = 0; x < img.getWidth(); x++)
-				if (img.getRGB(x, y) != color)
-					return false;
-		return true;
+		IntRaster raster = IntRaster.of(img);
+		return raster.isFilled(0, 0, raster.getWidth(), raster.getHeight(), raster.getRGB(0, 0));
 	}
+
+	/**
+	 * Renders every region of plane z into its own chunk and writes the chunks to zip, in the
+	 * same order as {@link #drawRegions(int, ZipOutputStream)}, but without allocating an image of
+	 * the whole map. Regions are rendered and encoded on {@link #getThreads()} threads.
+	 * <p>
+	 * Each region is drawn with the objects, icons and labels of its neighbours within 16 tiles of
+	 * it. Its pixels are the same as in the full map as long as nothing anchored further away
+	 * reaches into it.
+	 */
+	public void drawChunks(int z, ZipOutputStream zip) throws IOException
+	{
+		drawChunks(null, z, zip);
+	}
+
 	private void drawRegions(BufferedImage image, int z, ZipOutputStream zip) throws IOException {
+		if (chunkedFullMap && threads > 1)
+		{
+			// each chunk is also copied into the image. Spill over into space with no region
+			// at all is lost compared to drawing the whole map at once.
+			drawChunks(IntRaster.of(image), z, exportChunks ? zip : null);
+			return;
+		}
+
+		IntRaster raster = IntRaster.of(image);
+		TileScratch scratch = TileScratch.get(MAP_SCALE, BLEND);
+
 		for (Region region : regionLoader.getRegions())
 		{
 			int baseX = region.getBaseX();
@@ -271,35 +354,219 @@ public class SimbaMapImageDumper
 			// region has the greatest y, so invert
 			int drawBaseY = regionLoader.getHighestY().getBaseY() - baseY;
 
-			drawRegions(image, drawBaseX, drawBaseY, z, region);
-			drawObjects(image, drawBaseX, drawBaseY, region, z);
-			drawMapIcons(image, drawBaseX, drawBaseY, region, z);
+			drawRegions(raster, scratch, drawBaseX, drawBaseY, z, region);
+			drawObjects(raster, drawBaseX, drawBaseY, region, z);
+			drawMapIcons(raster, drawBaseX, drawBaseY, region, z);
 		}
 
 		if (exportChunks) {
-			for (Region region : regionLoader.getRegions()) {
-				int baseX = region.getBaseX();
-				int baseY = region.getBaseY();
-				int drawBaseX = baseX - regionLoader.getLowestX().getBaseX();
-				int drawBaseY = regionLoader.getHighestY().getBaseY() - baseY;
-
-				BufferedImage chunk = image.getSubimage(drawBaseX * MAP_SCALE, drawBaseY * MAP_SCALE, Region.X * MAP_SCALE, Region.Y * MAP_SCALE);
-				if (exportEmptyImages || !isImageEmpty(chunk)) {
-					zip.putNextEntry(new ZipEntry(z + "/" + region.getRegionX() + "-" + region.getRegionY() + ".png"));
-					ImageIO.write(chunk, "png", zip);
+			try (SimbaZipWriter writer = new SimbaZipWriter(zip, threads))
+			{
+				for (Region region : regionLoader.getRegions()) {
+					int baseX = region.getBaseX();
+					int baseY = region.getBaseY();
+					int drawBaseX = baseX - regionLoader.getLowestX().getBaseX();
+					int drawBaseY = regionLoader.getHighestY().getBaseY() - baseY;
+
+					BufferedImage chunk = image.getSubimage(drawBaseX * MAP_SCALE, drawBaseY * MAP_SCALE, Region.X * MAP_SCALE, Region.Y * MAP_SCALE);
+					if (exportEmptyImages || !isImageEmpty(chunk)) {
+						writer.submitPng(z + "/" + region.getRegionX() + "-" + region.getRegionY() + ".png", chunk);
+					}
+				}
+				writer.finish();
+			}
+		}
+	}
+
+	private void drawChunks(IntRaster image, int z, ZipOutputStream zip) throws IOException
+	{
+		long start = System.nanoTime();
+
+		List<Region> regions = new ArrayList<>(regionLoader.getRegions());
+		Map<Region, Integer> drawOrder = new IdentityHashMap<>();
+		for (Region region : regions)
+		{
+			drawOrder.put(region, drawOrder.size());
+		}
+
+		ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads) : MoreExecutors.newDirectExecutorService();
+		// chunks are encoded by the tasks drawing them, so the writer needs no threads of its own
+		SimbaZipWriter writer = zip != null ? new SimbaZipWriter(zip, 1) : null;
+		int maxPending = Math.max(threads, 1) * 4;
+		ArrayDeque<Future<Chunk>> pending = new ArrayDeque<>();
+		int drawn = 0;
+		int written = 0;
+		try
+		{
+			// chunks are submitted and written in region order, so the zip is the same for any number of threads
+			for (Region region : regions)
+			{
+				// the full map image needs every region
+				if (image == null && regionFilter != null && !regionFilter.test(region))
+				{
+					continue;
+				}
+
+				++drawn;
+				pending.add(executor.submit(() -> drawChunk(region, z, drawOrder, image != null, zip != null)));
+
+				while (pending.size() >= maxPending || (!pending.isEmpty() && pending.peek().isDone()))
+				{
+					written += writeChunk(awaitChunk(pending.poll()), z, image, writer);
 				}
 			}
+
+			while (!pending.isEmpty())
+			{
+				written += writeChunk(awaitChunk(pending.poll()), z, image, writer);
+			}
+
+			if (writer != null)
+			{
+				writer.finish();
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+			if (writer != null)
+			{
+				writer.close();
+			}
 		}
+
+		log.info("Drew {} chunks of plane {} ({} written) on {} threads in {}ms", drawn, z, written,
+			Math.max(threads, 1), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
 	}
 
-	private void drawRegions(BufferedImage image, int drawBaseX, int drawBaseY, int z, Region region)
+	/**
+	 * Renders a region into a canvas covering it and {@link #HALO} tiles around it. The region is
+	 * drawn with the objects and icons of its neighbours near its border, each in the same order as
+	 * the full map is drawn in. The region's own pixels come out as they would in the full map,
+	 * except where something anchored more than {@link #HALO} tiles outside the region reaches
+	 * into it.
+	 */
+	private Chunk drawChunk(Region region, int z, Map<Region, Integer> drawOrder, boolean keepPixels, boolean encode) throws IOException
+	{
+		TileScratch scratch = TileScratch.get(MAP_SCALE, BLEND);
+		BufferedImage canvas = scratch.canvas(transparency ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB,
+			(Region.X + HALO * 2) * MAP_SCALE, (Region.Y + HALO * 2) * MAP_SCALE);
+		IntRaster raster = IntRaster.of(canvas);
+
+		int lowestX = regionLoader.getLowestX().getBaseX();
+		int highestY = regionLoader.getHighestY().getBaseY();
+
+		Chunk chunk = new Chunk(region, region.getBaseX() - lowestX, highestY - region.getBaseY());
+
+		for (Region r : neighbours(region, drawOrder))
+		{
+			// relative to the canvas, which starts HALO tiles left of and above the region
+			int drawBaseX = r.getBaseX() - lowestX - chunk.drawBaseX + HALO;
+			int drawBaseY = highestY - r.getBaseY() - chunk.drawBaseY + HALO;
+
+			if (r == region)
+			{
+				drawRegions(raster, scratch, drawBaseX, drawBaseY, z, r);
+				drawObjects(raster, drawBaseX, drawBaseY, r, z);
+				drawMapIcons(raster, drawBaseX, drawBaseY, r, z);
+				continue;
+			}
+
+			// only the neighbour's tiles within HALO of this region, in its local coordinates
+			int minX = Math.max(region.getBaseX() - HALO - r.getBaseX(), 0);
+			int minY = Math.max(region.getBaseY() - HALO - r.getBaseY(), 0);
+			int maxX = Math.min(region.getBaseX() + Region.X + HALO - r.getBaseX(), Region.X);
+			int maxY = Math.min(region.getBaseY() + Region.Y + HALO - r.getBaseY(), Region.Y);
+			Rectangle tiles = new Rectangle(minX, minY, maxX - minX, maxY - minY);
+
+			drawObjects(raster, drawBaseX, drawBaseY, r, z, tiles);
+			drawMapIcons(raster, drawBaseX, drawBaseY, r, z, tiles);
+		}
+
+		BufferedImage image = canvas.getSubimage(HALO * MAP_SCALE, HALO * MAP_SCALE, Region.X * MAP_SCALE, Region.Y * MAP_SCALE);
+		if (encode && (exportEmptyImages || !isImageEmpty(image)))
+		{
+			chunk.png = SimbaZipWriter.encodePng(image);
+		}
+		if (keepPixels)
+		{
+			chunk.pixels = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+		}
+		return chunk;
+	}
+
+	/**
+	 * Gets the region and the regions around it, in the order they are drawn in
+	 */
+	private List<Region> neighbours(Region region, Map<Region, Integer> drawOrder)
+	{
+		List<Region> neighbours = new ArrayList<>(9);
+		for (int x = region.getRegionX() - 1; x <= region.getRegionX() + 1; ++x)
+		{
+			for (int y = region.getRegionY() - 1; y <= region.getRegionY() + 1; ++y)
+			{
+				if (x < 0 || y < 0 || x > 0xFF || y > 0xFF)
+				{
+					continue;
+				}
+
+				Region r = regionLoader.findRegionForRegionCoordinates(x, y);
+				if (r != null)
+				{
+					neighbours.add(r);
+				}
+			}
+		}
+		neighbours.sort(Comparator.comparing(drawOrder::get));
+		return neighbours;
+	}
+
+	private int writeChunk(Chunk chunk, int z, IntRaster image, SimbaZipWriter writer) throws IOException
+	{
+		if (image != null)
+		{
+			int width = Region.X * MAP_SCALE;
+			image.copyOpaque(chunk.pixels, 0, width, chunk.drawBaseX * MAP_SCALE, chunk.drawBaseY * MAP_SCALE, width, Region.Y * MAP_SCALE);
+		}
+
+		if (writer == null || chunk.png == null)
+		{
+			return 0;
+		}
+
+		writer.write(z + "/" + chunk.region.getRegionX() + "-" + chunk.region.getRegionY() + ".png", chunk.png);
+		return 1;
+	}
+
+	private static Chunk awaitChunk(Future<Chunk> future) throws IOException
+	{
+		try
+		{
+			return future.get();
+		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while drawing map chunks");
+		}
+		catch (ExecutionException ex)
+		{
+			if (ex.getCause() instanceof RuntimeException)
+			{
+				throw (RuntimeException) ex.getCause();
+			}
+			throw new IOException(ex.getCause());
+		}
+	}
+
+	private void drawRegions(IntRaster raster, TileScratch scratch, int drawBaseX, int drawBaseY, int z, Region region)
 	{
 		if (!renderMap)
 		{
 			return;
 		}
 
-		int[][][] map = new int[4][][];
+		scratch.reset();
 
 		for (int x = 0; x < Region.X; ++x)
 		{
@@ -317,9 +584,9 @@ public class SimbaMapImageDumper
 				{
 					if (z == 0 && isBridge)
 					{
-						drawTile(image, map, region, drawBaseX, drawBaseY, 0, x, y);
+						drawTile(raster, scratch, region, drawBaseX, drawBaseY, 0, x, y);
 					}
-					drawTile(image, map, region, drawBaseX, drawBaseY, tileZ, x, y);
+					drawTile(raster, scratch, region, drawBaseX, drawBaseY, tileZ, x, y);
 				}
 
 				if (tileZ < 3)
@@ -327,49 +594,40 @@ public class SimbaMapImageDumper
 					int upTileSetting = region.getTileSetting(z + 1, x, Region.Y - y - 1);
 					if ((upTileSetting & 8) != 0)
 					{
-						drawTile(image, map, region, drawBaseX, drawBaseY, tileZ + 1, x, y);
+						drawTile(raster, scratch, region, drawBaseX, drawBaseY, tileZ + 1, x, y);
 					}
 				}
 			}
 		}
 	}
 
-	private void drawTile(BufferedImage to, int[][][] planes, Region region, int drawBaseX, int drawBaseY, int z, int x, int y)
+	private void drawTile(IntRaster to, TileScratch scratch, Region region, int drawBaseX, int drawBaseY, int z, int x, int y)
 	{
-		int[][] pixels = planes[z];
+		int[] pixels = scratch.plane(z);
 
 		if (pixels == null)
 		{
-			pixels = planes[z] = new int[Region.X * MAP_SCALE][Region.Y * MAP_SCALE];
-			drawRegions(pixels, region, z);
+			pixels = scratch.newPlane(z);
+			drawRegions(pixels, scratch, region, z);
 		}
 
-		for (int i = 0; i < MAP_SCALE; ++i)
-		{
-			for (int j = 0; j < MAP_SCALE; ++j)
-			{
-				int argb = pixels[x * MAP_SCALE + i][y * MAP_SCALE + j];
-				if (argb != 0)
-				{
-					to.setRGB(drawBaseX * MAP_SCALE + x * MAP_SCALE + i,
-						drawBaseY * MAP_SCALE + y * MAP_SCALE + j,
-						argb);
-				}
-			}
-		}
+		to.copyOpaque(pixels, y * MAP_SCALE * scratch.width + x * MAP_SCALE, scratch.width,
+			(drawBaseX + x) * MAP_SCALE,
+			(drawBaseY + y) * MAP_SCALE,
+			MAP_SCALE, MAP_SCALE);
 	}
 
-	private void drawRegions(int[][] pixels, Region region, int z)
+	private void drawRegions(int[] pixels, TileScratch scratch, Region region, int z)
 	{
 		int baseX = region.getBaseX();
 		int baseY = region.getBaseY();
 
-		int len = Region.X + BLEND * 2;
-		int[] hues = new int[len];
-		int[] sats = new int[len];
-		int[] light = new int[len];
-		int[] mul = new int[len];
-		int[] num = new int[len];
+		scratch.clearBlend();
+		int[] hues = scratch.hues;
+		int[] sats = scratch.sats;
+		int[] light = scratch.light;
+		int[] mul = scratch.mul;
+		int[] num = scratch.num;
 
 		boolean hasLeftRegion = regionLoader.findRegionForWorldCoordinates(baseX - 1, baseY) != null;
 		boolean hasRightRegion = regionLoader.findRegionForWorldCoordinates(baseX + Region.X, baseY) != null;
@@ -539,14 +797,14 @@ public class SimbaMapImageDumper
 									int drawY = Region.Y - 1 - yi;
 									if (underlayRgb != 0)
 									{
-										drawMapSquare(pixels, drawX, drawY, underlayRgb);
+										drawMapSquare(pixels, scratch.width, drawX, drawY, underlayRgb);
 									}
 								}
 								else if (shape == 1)
 								{
 									int drawX = xi;
 									int drawY = Region.Y - 1 - yi;
-									drawMapSquare(pixels, drawX, drawY, overlayRgb);
+									drawMapSquare(pixels, scratch.width, drawX, drawY, overlayRgb);
 								}
 								else
 								{
@@ -559,7 +817,7 @@ public class SimbaMapImageDumper
 										int rotIdx = 0;
 										for (int i = 0; i < MAP_SCALE; ++i)
 											for (int j = 0; j < MAP_SCALE; j++)
-												pixels[drawX + j][drawY + i] = tileShapes[tileRotations[rotIdx++]] == 0 ? underlayRgb : overlayRgb;
+												pixels[(drawY + i) * scratch.width + drawX + j] = tileShapes[tileRotations[rotIdx++]] == 0 ? underlayRgb : overlayRgb;
 									}
 									else
 									{
@@ -567,7 +825,7 @@ public class SimbaMapImageDumper
 										for (int i = 0; i < MAP_SCALE; ++i)
 											for (int j = 0; j < MAP_SCALE; j++)
 												if (tileShapes[tileRotations[rotIdx++]] != 0)
-													pixels[drawX + j][drawY + i] = overlayRgb;
+													pixels[(drawY + i) * scratch.width + drawX + j] = overlayRgb;
 									}
 								}
 							}
@@ -584,7 +842,15 @@ public class SimbaMapImageDumper
 		return 64 - -(d % 64) - 1;
 	}
 
-	private void drawObjects(BufferedImage image, int drawBaseX, int drawBaseY, Region region, int z)
+	private void drawObjects(IntRaster raster, int drawBaseX, int drawBaseY, Region region, int z)
+	{
+		drawObjects(raster, drawBaseX, drawBaseY, region, z, new Rectangle(0, 0, Region.X, Region.Y));
+	}
+
+	/**
+	 * Draws the objects on the given local tiles of a region
+	 */
+	private void drawObjects(IntRaster raster, int drawBaseX, int drawBaseY, Region region, int z, Rectangle tiles)
 	{
 		if (!renderObjects)
 		{
@@ -594,28 +860,19 @@ public class SimbaMapImageDumper
 		List<Location> planeLocs = new ArrayList<>();
 		List<Location> pushDownLocs = new ArrayList<>();
 		List<List<Location>> layers = Arrays.asList(planeLocs, pushDownLocs);
-		for (int localX = 0; localX < Region.X; localX++)
+		for (int localX = tiles.x; localX < tiles.x + tiles.width; localX++)
 		{
-			int regionX = localX + region.getBaseX();
-			for (int localY = 0; localY < Region.Y; localY++)
+			for (int localY = tiles.y; localY < tiles.y + tiles.height; localY++)
 			{
-				int regionY = localY + region.getBaseY();
-
 				planeLocs.clear();
 				pushDownLocs.clear();
 				boolean isBridge = (region.getTileSetting(1, localX, localY) & 2) != 0;
 				int tileZ = z + (isBridge ? 1 : 0);
 
-				for (Location loc : region.getLocations())
-				{
-					Position pos = loc.getPosition();
-					if (pos.getX() != regionX || pos.getY() != regionY) continue;
-
-					if (pos.getZ() == tileZ && (region.getTileSetting(z, localX, localY) & 24) == 0)
-						planeLocs.add(loc);
-					else if (z < 3 && pos.getZ() == tileZ + 1 && (region.getTileSetting(z + 1, localX, localY) & 8) != 0)
-						pushDownLocs.add(loc);
-				}
+				if ((region.getTileSetting(z, localX, localY) & 24) == 0)
+					planeLocs.addAll(region.getLocations(tileZ, localX, localY));
+				if (z < 3 && (region.getTileSetting(z + 1, localX, localY) & 8) != 0)
+					pushDownLocs.addAll(region.getLocations(tileZ + 1, localX, localY));
 
 				for (List<Location> locs : layers)
 				{
@@ -640,44 +897,44 @@ public class SimbaMapImageDumper
 
 							if (object.getMapSceneID() != -1)
 							{
-								blitMapDecoration(image, drawX, drawY, object);
+								blitMapDecoration(raster, drawX, drawY, object);
 							}
-							else if (drawX >= 0 && drawY >= 0 && drawX < image.getWidth() && drawY < image.getHeight())
+							else if (drawX >= 0 && drawY >= 0 && drawX < raster.getWidth() && drawY < raster.getHeight())
 							{
 								if (type == 0 || type == 2)
 								{
 									if (rotation == 0)
 									{
 										for (int i = 0; i < MAP_SCALE; i++) {
-											image.setRGB(drawX, drawY + i, rgb);
+											raster.setRGB(drawX, drawY + i, rgb);
 										}
 									}
 									else if (rotation == 1)
 									{
 										for (int i = 0; i < MAP_SCALE; i++) {
-											image.setRGB(drawX + i, drawY, rgb);
+											raster.setRGB(drawX + i, drawY, rgb);
 										}
 									}
 									else if (rotation == 2)
 									{
 										for (int i = 0; i < MAP_SCALE; i++) {
-											image.setRGB(drawX + MAP_SCALE-1, drawY + i, rgb);
+											raster.setRGB(drawX + MAP_SCALE-1, drawY + i, rgb);
 										}
 									}
 									else if (rotation == 3)
 									{
 										for (int i = 0; i < MAP_SCALE; i++) {
-											image.setRGB(drawX + i, drawY + MAP_SCALE-1, rgb);
+											raster.setRGB(drawX + i, drawY + MAP_SCALE-1, rgb);
 										}
 									}
 								}
 
 								if (type == 3)
 								{
-									if (rotation == 0) image.setRGB(drawX, drawY, rgb);
-									else if (rotation == 1)image.setRGB(drawX + MAP_SCALE-1, drawY, rgb);
-									else if (rotation == 2) image.setRGB(drawX + MAP_SCALE-1, drawY + MAP_SCALE-1, rgb);
-									else if (rotation == 3) image.setRGB(drawX , drawY + MAP_SCALE-1, rgb);
+									if (rotation == 0) raster.setRGB(drawX, drawY, rgb);
+									else if (rotation == 1)raster.setRGB(drawX + MAP_SCALE-1, drawY, rgb);
+									else if (rotation == 2) raster.setRGB(drawX + MAP_SCALE-1, drawY + MAP_SCALE-1, rgb);
+									else if (rotation == 3) raster.setRGB(drawX , drawY + MAP_SCALE-1, rgb);
 								}
 
 								if (type == 2)
@@ -685,25 +942,25 @@ public class SimbaMapImageDumper
 									if (rotation == 0)
 									{
 										for (int i = 0; i < MAP_SCALE; i++) {
-											image.setRGB(drawX + i, drawY, rgb);
+											raster.setRGB(drawX + i, drawY, rgb);
 										}
 									}
 									else if (rotation == 1)
 									{
 										for (int i = 0; i < MAP_SCALE; i++) {
-											image.setRGB(drawX + MAP_SCALE-1, drawY + i, rgb);
+											raster.setRGB(drawX + MAP_SCALE-1, drawY + i, rgb);
 										}
 									}
 									else if (rotation == 2)
 									{
 										for (int i = 0; i < MAP_SCALE; i++) {
-											image.setRGB(drawX + i, drawY + MAP_SCALE-1, rgb);
+											raster.setRGB(drawX + i, drawY + MAP_SCALE-1, rgb);
 										}
 									}
 									else if (rotation == 3)
 									{
 										for (int i = 0; i < MAP_SCALE; i++) {
-											image.setRGB(drawX, drawY + i, rgb);
+											raster.setRGB(drawX, drawY + i, rgb);
 										}
 									}
 								}
@@ -721,11 +978,11 @@ public class SimbaMapImageDumper
 
 							if (object.getMapSceneID() != -1)
 							{
-								blitMapDecoration(image, drawX, drawY, object);
+								blitMapDecoration(raster, drawX, drawY, object);
 								continue;
 							}
 
-							if (drawX >= 0 && drawY >= 0 && drawX < image.getWidth() && drawY < image.getHeight())
+							if (drawX >= 0 && drawY >= 0 && drawX < raster.getWidth() && drawY < raster.getHeight())
 							{
 								int rgb = 0xFFEE_EEEE;
 								if (object.getWallOrDoor() != 0)
@@ -736,13 +993,13 @@ public class SimbaMapImageDumper
 								if (rotation != 0 && rotation != 2)
 								{
 									for (int i = 0; i < MAP_SCALE; i++) {
-										image.setRGB(drawX + i, drawY + i, rgb);
+										raster.setRGB(drawX + i, drawY + i, rgb);
 									}
 								}
 								else
 								{
 									for (int i = 0; i < MAP_SCALE; i++) {
-										image.setRGB(drawX + i, drawY + (MAP_SCALE - 1 - i), rgb);
+										raster.setRGB(drawX + i, drawY + (MAP_SCALE - 1 - i), rgb);
 									}
 								}
 							}
@@ -757,7 +1014,7 @@ public class SimbaMapImageDumper
 
 							if (object.getMapSceneID() != -1)
 							{
-								blitMapDecoration(image, drawX, drawY, object);
+								blitMapDecoration(raster, drawX, drawY, object);
 							}
 						}
 					}
@@ -766,14 +1023,19 @@ public class SimbaMapImageDumper
 		}
 	}
 
-	private void drawMapIcons(BufferedImage image, int drawBaseX, int drawBaseY, Region region, int z)
+	private void drawMapIcons(IntRaster raster, int drawBaseX, int drawBaseY, Region region, int z)
+	{
+		drawMapIcons(raster, drawBaseX, drawBaseY, region, z, new Rectangle(0, 0, Region.X, Region.Y));
+	}
+
+	private void drawMapIcons(IntRaster raster, int drawBaseX, int drawBaseY, Region region, int z, Rectangle tiles)
 	{
 		int baseX = region.getBaseX();
 		int baseY = region.getBaseY();
 
-		Graphics2D graphics = image.createGraphics();
+		Graphics2D graphics = raster.getImage().createGraphics();
 
-		drawMapIcons(image, region, z, drawBaseX, drawBaseY);
+		drawMapIcons(raster, region, z, drawBaseX, drawBaseY, tiles);
 
 		if (labelRegions)
 		{
@@ -837,17 +1099,16 @@ public class SimbaMapImageDumper
 		return (var0 & 65408) + var1;
 	}
 
-	private void drawMapSquare(int[][] pixels, int x, int y, int rgb)
+	private void drawMapSquare(int[] pixels, int stride, int x, int y, int rgb)
 	{
-		x *= MAP_SCALE;
-		y *= MAP_SCALE;
+		int row = y * MAP_SCALE * stride + x * MAP_SCALE;
 
-		for (int i = 0; i < MAP_SCALE; ++i)
-			for (int j = 0; j < MAP_SCALE; ++j)
-				pixels[x + i][y + j] = rgb;
+		for (int j = 0; j < MAP_SCALE; ++j, row += stride)
+			for (int i = 0; i < MAP_SCALE; ++i)
+				pixels[row + i] = rgb;
 	}
 
-	private void drawMapIcons(BufferedImage img, Region region, int z, int drawBaseX, int drawBaseY)
+	private void drawMapIcons(IntRaster img, Region region, int z, int drawBaseX, int drawBaseY, Rectangle tiles)
 	{
 		if (!renderIcons) return;
 
@@ -855,6 +1116,8 @@ public class SimbaMapImageDumper
 		{
 			int localX = location.getPosition().getX() - region.getBaseX();
 			int localY = location.getPosition().getY() - region.getBaseY();
+			if (!tiles.contains(localX, localY)) continue;
+
 			boolean isBridge = (region.getTileSetting(1, localX, localY) & 2) != 0;
 
 			int tileZ = z + (isBridge ? 1 : 0);
@@ -885,75 +1148,17 @@ public class SimbaMapImageDumper
 		}
 	}
 
-	private void loadRegions() throws IOException
-	{
-		regionLoader.loadRegions();
-		regionLoader.calculateBounds();
-
-		log.debug("North most region: {}", regionLoader.getLowestY().getBaseY());
-		log.debug("South most region: {}", regionLoader.getHighestY().getBaseY());
-		log.debug("West most region:  {}", regionLoader.getLowestX().getBaseX());
-		log.debug("East most region:  {}", regionLoader.getHighestX().getBaseX());
-	}
-
-	private void loadUnderlays(Store store) throws IOException
-	{
-		Storage storage = store.getStorage();
-		Index index = store.getIndex(IndexType.CONFIGS);
-		Archive archive = index.getArchive(ConfigType.UNDERLAY.getId());
-
-		byte[] archiveData = storage.loadArchive(archive);
-		ArchiveFiles files = archive.getFiles(archiveData);
-
-		for (FSFile file : files.getFiles())
-		{
-			UnderlayLoader loader = new UnderlayLoader();
-			UnderlayDefinition underlay = loader.load(file.getFileId(), file.getContents());
-
-			underlays.put(underlay.getId(), underlay);
-		}
-	}
-
 	private UnderlayDefinition findUnderlay(int id)
 	{
 		return underlays.get(id);
 	}
 
-	private void loadOverlays(Store store) throws IOException
-	{
-		Storage storage = store.getStorage();
-		Index index = store.getIndex(IndexType.CONFIGS);
-		Archive archive = index.getArchive(ConfigType.OVERLAY.getId());
-
-		byte[] archiveData = storage.loadArchive(archive);
-		ArchiveFiles files = archive.getFiles(archiveData);
-
-		for (FSFile file : files.getFiles())
-		{
-			OverlayLoader loader = new OverlayLoader();
-			OverlayDefinition overlay = loader.load(file.getFileId(), file.getContents());
-
-			overlays.put(overlay.getId(), overlay);
-		}
-	}
-
 	private OverlayDefinition findOverlay(int id)
 	{
 		return overlays.get(id);
 	}
 
-	private void loadSprites() throws IOException
-	{
-		Storage storage = store.getStorage();
-		Index index = store.getIndex(IndexType.SPRITES);
-		Archive a = index.findArchiveByName("mapscene");
-		byte[] contents = a.decompress(storage.loadArchive(a));
-
-		SpriteLoader loader = new SpriteLoader();
-		mapDecorations = loader.load(a.getArchiveId(), contents);
-	}
-
-	private void blitMapDecoration(BufferedImage dst, int x, int y, ObjectDefinition object)
+	private void blitMapDecoration(IntRaster dst, int x, int y, ObjectDefinition object)
 	{
 		SpriteDefinition sprite = mapDecorations[object.getMapSceneID()];
 		int ox = (object.getSizeX() * MAP_SCALE - sprite.getWidth()) / 2;
@@ -961,7 +1166,7 @@ public class SimbaMapImageDumper
 		blitIcon(dst, x + ox, y + oy, sprite);
 	}
 
-	private void blitIcon(BufferedImage dst, int x, int y, SpriteDefinition sprite)
+	private void blitIcon(IntRaster dst, int x, int y, SpriteDefinition sprite)
 	{
 		x += sprite.getOffsetX();
 		y += sprite.getOffsetY();
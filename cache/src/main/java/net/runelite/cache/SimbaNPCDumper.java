@@ -25,13 +25,15 @@
 package net.runelite.cache;
 
 import com.google.gson.JsonObject;
-import net.runelite.cache.definitions.ModelDefinition;
+import com.google.common.primitives.Ints;
 import net.runelite.cache.definitions.NpcDefinition;
 import net.runelite.cache.definitions.exporters.NpcExporter;
-import net.runelite.cache.definitions.loaders.ModelLoader;
 import net.runelite.cache.definitions.loaders.NpcLoader;
+import net.runelite.cache.definitions.providers.CachingModelProvider;
 import net.runelite.cache.fs.*;
-import net.runelite.cache.models.ObjExporter;
+import net.runelite.cache.models.ModelSummaries;
+import net.runelite.cache.models.ModelSummary;
+import net.runelite.cache.util.DefinitionTable;
 import net.runelite.cache.util.IDClass;
 import org.apache.commons.cli.*;
 
@@ -42,14 +44,20 @@ import java.util.*;
 public class SimbaNPCDumper
 {
 	private final Store store;
-	private static Index index;
-	private static TextureManager textureManager;
-	private final ModelLoader modelLoader;
-	private final Map<Integer, NpcDefinition> npcs = new HashMap<>();
+	private ModelSummaries modelSummaries;
+	private final DefinitionTable<NpcDefinition> npcs = new DefinitionTable<>();
 
 	public SimbaNPCDumper(Store store) throws IOException {
 		this.store = store;
-		this.modelLoader = new ModelLoader();
+	}
+
+	/**
+	 * Creates a dumper which shares its model summaries with other dumpers, such as the
+	 * ones of a {@link SimbaWorld}
+	 */
+	public SimbaNPCDumper(Store store, ModelSummaries modelSummaries) {
+		this.store = store;
+		this.modelSummaries = modelSummaries;
 	}
 
 	public void load() throws IOException
@@ -60,9 +68,12 @@ public class SimbaNPCDumper
 		Index configsIndex = store.getIndex(IndexType.CONFIGS);
 		Archive archive = configsIndex.getArchive(ConfigType.NPC.getId());
 
-		index = store.getIndex(IndexType.MODELS);
-		textureManager = new TextureManager(store);
-		textureManager.load();
+		if (modelSummaries == null)
+		{
+			TextureManager textureManager = new TextureManager(store);
+			textureManager.load();
+			modelSummaries = new ModelSummaries(new CachingModelProvider(store), textureManager);
+		}
 
 		byte[] archiveData = storage.loadArchive(archive);
 		ArchiveFiles files = archive.getFiles(archiveData);
@@ -76,7 +87,7 @@ public class SimbaNPCDumper
 
 	public Collection<NpcDefinition> getNPCs()
 	{
-		return Collections.unmodifiableCollection(npcs.values());
+		return npcs.values();
 	}
 
 	public NpcDefinition getNPC(int npcID)
@@ -88,27 +99,16 @@ public class SimbaNPCDumper
 	{
 		out.mkdirs();
 
-		for (NpcDefinition def : npcs.values())
+		for (NpcDefinition def : npcs)
 		{
-			int height = 0;
-			List<Integer> colors = new ArrayList<>();
-
 			if (def.getModels() == null) continue;
 
-			for (int i = 0; i < def.getModels().length; i++) {
-				Archive archive = index.getArchive(def.getModels()[i]);
-				byte[] contents = archive.decompress(store.getStorage().loadArchive(archive));
-				ModelDefinition model = modelLoader.load(archive.getArchiveId(), contents);
-
-				ObjExporter exporter = new ObjExporter(textureManager, model);
-				if (height == 0) height = exporter.getSimbaHeight();
-				colors.addAll(exporter.getSimbaColors());
-			}
+			ModelSummary models = modelSummaries.get(def.getModels());
 
 			NpcExporter exporter = new NpcExporter(def);
 
 			File targ = new File(out, def.id + ".json");
-			exporter.simbaExportTo(targ, height, colors);
+			exporter.simbaExportTo(targ, models.getHeight(), Ints.asList(models.getColors()));
 		}
 	}
 
@@ -118,7 +118,7 @@ public class SimbaNPCDumper
 		try (IDClass ids = IDClass.create(java, "NPCID");
 			IDClass nulls = IDClass.create(java, "NullNPCID"))
 		{
-			for (NpcDefinition def : npcs.values())
+			for (NpcDefinition def : npcs)
 			{
 				if (def.name.equalsIgnoreCase("NULL"))
 				{
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import net.runelite.cache.definitions.ObjectDefinition;
+import net.runelite.cache.models.ModelSummary;
+
+/**
+ * Object placements of the Simba object export, merged by object id. Each id keeps the
+ * details of its first placement and the coordinates and rotations of all of them, in
+ * primitive arrays. Ids are written in the order they were first placed.
+ */
+class SimbaObjectIndex
+{
+	// the one object the export lists at an extra, fixed spot once it has been placed three times
+	private static final int EXTRA_OBJECT = 10060;
+	private static final int EXTRA_X = 8554;
+	private static final int EXTRA_Y = 36468;
+
+	private final Map<Integer, Entry> entries = new LinkedHashMap<>();
+
+	private static class Entry
+	{
+		final ObjectDefinition object;
+		final int type;
+		final ModelSummary models;
+
+		// x, y pairs
+		int[] coordinates = new int[2];
+		int[] rotations = new int[1];
+		int count;
+
+		Entry(ObjectDefinition object, int type, ModelSummary models)
+		{
+			this.object = object;
+			this.type = type;
+			this.models = models;
+		}
+
+		Entry(Entry other)
+		{
+			this.object = other.object;
+			this.type = other.type;
+			this.models = other.models;
+			this.coordinates = Arrays.copyOf(other.coordinates, other.count * 2);
+			this.rotations = Arrays.copyOf(other.rotations, other.count);
+			this.count = other.count;
+		}
+
+		void add(int x, int y, int rotation)
+		{
+			if (count == rotations.length)
+			{
+				rotations = Arrays.copyOf(rotations, Math.max(count * 2, 1));
+				coordinates = Arrays.copyOf(coordinates, rotations.length * 2);
+			}
+			coordinates[count * 2] = x;
+			coordinates[count * 2 + 1] = y;
+			rotations[count++] = rotation;
+		}
+
+		void write(JsonWriter out) throws IOException
+		{
+			out.beginObject();
+			out.name("id").value(object.getId());
+			out.name("name").value(object.getName());
+			out.name("type").value(type);
+			out.name("category").value(object.getCategory());
+
+			out.name("actions").beginArray();
+			for (String action : object.getActions())
+			{
+				if (action != null)
+				{
+					out.value(action);
+				}
+			}
+			out.endArray();
+
+			out.name("coordinates").beginArray();
+			for (int i = 0; i < count; ++i)
+			{
+				out.beginArray().value(coordinates[i * 2]).value(coordinates[i * 2 + 1]).endArray();
+			}
+			out.endArray();
+
+			out.name("size").beginArray()
+				.value(object.getSizeX())
+				.value(object.getSizeY())
+				.value(models.getHeight())
+				.endArray();
+
+			out.name("rotations").beginArray();
+			for (int i = 0; i < count; ++i)
+			{
+				out.value(rotations[i]);
+			}
+			out.endArray();
+
+			out.name("colors").beginArray();
+			for (int i = 0; i < models.getColorCount(); ++i)
+			{
+				out.value(models.getColor(i));
+			}
+			out.endArray();
+			out.endObject();
+		}
+	}
+
+	/**
+	 * Adds a placement of an object
+	 *
+	 * @param type     location type of the placement, kept if this is the first one
+	 * @param models   summary of the object's models
+	 * @param x        x of the placement's centre, in pixels
+	 * @param y        y of the placement's centre, in pixels
+	 * @param rotation rotation of the placement
+	 */
+	void add(ObjectDefinition object, int type, ModelSummary models, int x, int y, int rotation)
+	{
+		Entry entry = entries.get(object.getId());
+		if (entry == null)
+		{
+			entry = new Entry(object, type, models);
+			entries.put(object.getId(), entry);
+			entry.add(x, y, rotation);
+			return;
+		}
+
+		merge(entry, x, y, rotation);
+	}
+
+	/**
+	 * Merges the objects of a region into this index. Ids new to this index are copied with
+	 * all their placements. Of ids already here only the first placement is added, as the
+	 * full map export always has.
+	 */
+	void addAll(SimbaObjectIndex region)
+	{
+		for (Entry other : region.entries.values())
+		{
+			Entry entry = entries.get(other.object.getId());
+			if (entry == null)
+			{
+				entries.put(other.object.getId(), new Entry(other));
+			}
+			else
+			{
+				merge(entry, other.coordinates[0], other.coordinates[1], other.rotations[0]);
+			}
+		}
+	}
+
+	private static void merge(Entry entry, int x, int y, int rotation)
+	{
+		entry.add(x, y, rotation);
+		if (entry.object.getId() == EXTRA_OBJECT && entry.count == 3)
+		{
+			entry.add(EXTRA_X, EXTRA_Y, 0);
+		}
+	}
+
+	boolean isEmpty()
+	{
+		return entries.isEmpty();
+	}
+
+	int size()
+	{
+		return entries.size();
+	}
+
+	/**
+	 * Writes the objects as a json array. The output is the same as Gson's for the
+	 * equivalent {@link com.google.gson.JsonArray}.
+	 */
+	void write(JsonWriter out) throws IOException
+	{
+		out.beginArray();
+		for (Entry entry : entries.values())
+		{
+			entry.write(out);
+		}
+		out.endArray();
+	}
+}
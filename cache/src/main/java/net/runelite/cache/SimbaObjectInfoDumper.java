@@ -25,18 +25,17 @@
 package net.runelite.cache;
 
 import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.experimental.Accessors;
 import lombok.extern.slf4j.Slf4j;
-import net.runelite.cache.definitions.ModelDefinition;
 import net.runelite.cache.definitions.ObjectDefinition;
-import net.runelite.cache.definitions.loaders.ModelLoader;
-import net.runelite.cache.fs.Archive;
-import net.runelite.cache.fs.Index;
 import net.runelite.cache.fs.Store;
-import net.runelite.cache.models.ObjExporter;
+import net.runelite.cache.models.ModelSummaries;
+import net.runelite.cache.models.ModelSummary;
 import net.runelite.cache.region.Location;
-import net.runelite.cache.region.Position;
 import net.runelite.cache.region.Region;
 import net.runelite.cache.region.RegionLoader;
 import net.runelite.cache.util.KeyProvider;
@@ -45,6 +44,7 @@ import org.apache.commons.cli.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -54,19 +54,25 @@ public class SimbaObjectInfoDumper
 {
 	private static final int MAP_SCALE = 4; // this squared is the number of pixels per map square
 	private final Store store;
-	private static Index index;
-	private static TextureManager textureManager;
+	private ModelSummaries modelSummaries;
 
 	private final RegionLoader regionLoader;
-	private final ObjectManager objectManager;
+	private SimbaWorld world;
+	private ObjectManager objectManager;
 
-	private final ModelLoader modelLoader;
 	public static boolean exportFullMap = false;
 
 	private static boolean exportChunks = true;
 
 	private static final boolean exportEmptyJSONs = false;
 
+	/**
+	 * regions which are mapped, or null for all of them
+	 */
+	@Getter
+	@Setter
+	private Predicate<Region> regionFilter;
+
 
 	public SimbaObjectInfoDumper(Store store, KeyProvider keyProvider)
 	{
@@ -77,8 +83,13 @@ public class SimbaObjectInfoDumper
 	{
 		this.store = store;
 		this.regionLoader = regionLoader;
-		this.objectManager = new ObjectManager(store);
-		this.modelLoader = new ModelLoader();
+	}
+
+	public SimbaObjectInfoDumper(SimbaWorld world)
+	{
+		this.store = world.getStore();
+		this.regionLoader = world.getRegionLoader();
+		this.world = world;
 	}
 
 	public static void main(String[] args) throws IOException
@@ -139,16 +150,17 @@ public class SimbaObjectInfoDumper
 
 			for (int i = 0; i < Region.Z; ++i)
 			{
-				JsonArray objects = dumper.mapRegions(i, zip);
-				if (exportFullMap) {
-					File jsonFile = new File(outDir, "objects-" + i + ".json");
-					if (jsonFile.createNewFile()) {
-						FileWriter fileWriter = new FileWriter(jsonFile);
-						fileWriter.write(objects.toString());
-						fileWriter.flush();
-						fileWriter.close();
-						log.info("Wrote json {}", jsonFile);
+				File jsonFile = new File(outDir, "objects-" + i + ".json");
+				if (exportFullMap && jsonFile.createNewFile()) {
+					try (Writer fileWriter = new BufferedWriter(new FileWriter(jsonFile)))
+					{
+						dumper.mapRegions(i, zip, fileWriter);
 					}
+					log.info("Wrote json {}", jsonFile);
+				}
+				else
+				{
+					dumper.mapRegions(i, zip, null);
 				}
 			}
 
@@ -158,16 +170,32 @@ public class SimbaObjectInfoDumper
 
 	public SimbaObjectInfoDumper load() throws IOException
 	{
-		objectManager.load();
-		index = store.getIndex(IndexType.MODELS);
-		textureManager = new TextureManager(store);
-		textureManager.load();
+		if (world == null)
+		{
+			world = SimbaWorld.load(store, regionLoader);
+		}
 
-		loadRegions();
+		objectManager = world.getObjectManager();
+		modelSummaries = world.getModelSummaries();
 		return this;
 	}
 
-	public JsonArray mapRegions(int z, ZipOutputStream zip)
+	public JsonArray mapRegions(int z, ZipOutputStream zip) throws IOException
+	{
+		StringWriter out = new StringWriter();
+		mapRegions(z, zip, out);
+		return new JsonParser().parse(out.toString()).getAsJsonArray();
+	}
+
+	/**
+	 * Maps the objects of every region on a plane. Each region is written to its own zip
+	 * entry as soon as it is mapped, and the objects of the whole plane, merged by id, are
+	 * streamed to out.
+	 *
+	 * @param zip zip to write the region files to, may be null if chunks are not exported
+	 * @param out writer for the full map json, or null to not build it
+	 */
+	public void mapRegions(int z, ZipOutputStream zip, Writer out) throws IOException
 	{
 		int minX = regionLoader.getLowestX().getBaseX();
 		int minY = regionLoader.getLowestY().getBaseY();
@@ -185,68 +213,36 @@ public class SimbaObjectInfoDumper
 			MAP_SCALE, (pixelsX * pixelsY * 3 / 1024 / 1024),
 			Runtime.getRuntime().maxMemory() / 1024L / 1024L);
 
-		JsonArray json = new JsonArray();
-
-		mapRegions(json, z, zip);
-		return cleanJSON(json);
-	}
+		SimbaObjectIndex objects = out != null ? new SimbaObjectIndex() : null;
+		mapRegions(objects, z, zip);
 
-	private JsonArray cleanJSON(JsonArray json) {
-		JsonArray result = new JsonArray();
-
-		outter:
-		for (int i = 0; i < json.size(); i++) {
-			JsonObject obj = json.get(i).getAsJsonObject();
-			int id = obj.get("id").getAsInt();
-
-			for (int j = 0; j < result.size(); j++) {
-				JsonObject res = result.get(j).getAsJsonObject();
-
-				if (id == res.get("id").getAsInt()){
-					res.get("coordinates").getAsJsonArray().add(obj.get("coordinates").getAsJsonArray().get(0));
-					res.get("rotations").getAsJsonArray().add(obj.get("rotations").getAsJsonArray().get(0));
-					if (id == 10060 && res.get("coordinates").getAsJsonArray().size() == 3) {
-						JsonArray coords = new JsonArray();
-						coords.add(8554);
-						coords.add(36468);
-						res.get("coordinates").getAsJsonArray().add(coords);
-						res.get("rotations").getAsJsonArray().add(0);
-					}
-					continue outter;
-				}
-			}
-			result.add(obj);
+		if (objects != null)
+		{
+			JsonWriter writer = new JsonWriter(out);
+			writer.setLenient(true);
+			objects.write(writer);
+			writer.flush();
 		}
-		return result;
 	}
 
-	private void mapObjects(JsonArray json, int drawBaseX, int drawBaseY, Region region, int z) throws IOException {
+	private void mapObjects(SimbaObjectIndex objects, int drawBaseX, int drawBaseY, Region region, int z) {
 		List<Location> planeLocs = new ArrayList<>();
 		List<Location> pushDownLocs = new ArrayList<>();
 		List<List<Location>> layers = Arrays.asList(planeLocs, pushDownLocs);
 		for (int localX = 0; localX < Region.X; localX++)
 		{
-			int regionX = localX + region.getBaseX();
 			for (int localY = 0; localY < Region.Y; localY++)
 			{
-				int regionY = localY + region.getBaseY();
-
 				planeLocs.clear();
 				pushDownLocs.clear();
 				boolean isBridge = (region.getTileSetting(1, localX, localY) & 2) != 0;
 
 				int tileZ = z + (isBridge ? 1 : 0);
 
-				for (Location loc : region.getLocations())
-				{
-					Position pos = loc.getPosition();
-					if (pos.getX() != regionX || pos.getY() != regionY) continue;
-
-					if (pos.getZ() == tileZ && (region.getTileSetting(z, localX, localY) & 24) == 0)
-						planeLocs.add(loc);
-					else if (z < 3 && pos.getZ() == tileZ + 1 && (region.getTileSetting(z + 1, localX, localY) & 8) != 0)
-						pushDownLocs.add(loc);
-				}
+				if ((region.getTileSetting(z, localX, localY) & 24) == 0)
+					planeLocs.addAll(region.getLocations(tileZ, localX, localY));
+				if (z < 3 && (region.getTileSetting(z + 1, localX, localY) & 8) != 0)
+					pushDownLocs.addAll(region.getLocations(tileZ + 1, localX, localY));
 
 				for (List<Location> locs : layers)
 				{
@@ -272,19 +268,9 @@ public class SimbaObjectInfoDumper
 
 						if (object.getInteractType() == 0) continue;
 
-						int height = 0;
-						List<Integer> colors = new ArrayList<>();
-
-						if (object.getObjectModels() != null)
-							for (int i = 0; i < object.getObjectModels().length; i++) {
-								Archive archive = index.getArchive(object.getObjectModels()[i]);
-								byte[] contents = archive.decompress(store.getStorage().loadArchive(archive));
-								ModelDefinition model = modelLoader.load(archive.getArchiveId(), contents);
-
-								ObjExporter exporter = new ObjExporter(textureManager, model);
-								if (height == 0) height = exporter.getSimbaHeight();
-								colors.addAll(exporter.getSimbaColors());
-							}
+						// every placement of an object shares its models, which are only summarised once
+						ModelSummary models = ModelSummary.EMPTY;
+						if (object.getObjectModels() != null) models = modelSummaries.get(object.getObjectModels());
 
 						int x = (drawBaseX + localX) * MAP_SCALE;
 						int y = (drawBaseY + (Region.Y - object.getSizeY() - localY)) * MAP_SCALE;
@@ -292,55 +278,26 @@ public class SimbaObjectInfoDumper
 						int centerX = x + object.getSizeX() * MAP_SCALE/2;
 						int centerY = y + object.getSizeY() * MAP_SCALE/2;
 
-						JsonObject obj = new JsonObject();
-
-						obj.addProperty("id",  object.getId());
-						obj.addProperty("name", object.getName());
-						obj.addProperty("type", type);
-
-						obj.addProperty("category", object.getCategory());
-
-						JsonArray jsonActions = new JsonArray();
-						String[] actions = object.getActions();
-						for (String action : actions) {
-							if (action != null) jsonActions.add(action);
-						}
-						obj.add("actions", jsonActions);
-
-						JsonArray coords = new JsonArray();
-						JsonArray p = new JsonArray();
-						p.add(centerX);
-						p.add(centerY);
-						coords.add(p);
-						obj.add("coordinates", coords);
-
-						JsonArray size = new JsonArray();
-						size.add(object.getSizeX());
-						size.add(object.getSizeY());
-						size.add(height);
-						obj.add("size", size);
-
-						JsonArray rotations = new JsonArray();
-						if (object.getSizeX() == object.getSizeY()) rotations.add(0);
-						else rotations.add(location.getOrientation());
-						obj.add("rotations", rotations);
-
-						JsonArray jsonColors = new JsonArray();
-						for (int i = 0; i < colors.size(); i++) {
-							jsonColors.add(colors.get(i));
-						}
-						obj.add("colors", jsonColors);
-						json.add(obj);
+						int rotation = object.getSizeX() == object.getSizeY() ? 0 : location.getOrientation();
+						objects.add(object, type, models, centerX, centerY, rotation);
 					}
 				}
 			}
 		}
 	}
 
-	private void mapRegions(JsonArray json, int z, ZipOutputStream zip)
+	private void mapRegions(SimbaObjectIndex objects, int z, ZipOutputStream zip) throws IOException
 	{
+		// the region files share one writer; it is only flushed, closing it would close the zip
+		Writer zipWriter = zip != null ? new OutputStreamWriter(zip) : null;
+
 		for (Region region : regionLoader.getRegions())
 		{
+			if (regionFilter != null && !regionFilter.test(region))
+			{
+				continue;
+			}
+
 			int baseX = region.getBaseX();
 			int baseY = region.getBaseY();
 
@@ -351,22 +308,16 @@ public class SimbaObjectInfoDumper
 			// region has the greatest y, so invert
 			int drawBaseY = regionLoader.getHighestY().getBaseY() - baseY;
 
-			JsonArray regionJSON = new JsonArray();
-			try {
-				mapObjects(regionJSON, drawBaseX, drawBaseY, region, z);
-			} catch (IOException e) {
-				throw new RuntimeException(e);
-			}
-			regionJSON = cleanJSON(regionJSON);
-
-			if (regionJSON.size() > 0) json.addAll(regionJSON);
-			if (exportChunks && (exportEmptyJSONs || regionJSON.size() > 0)) {
-				try {
-					zip.putNextEntry(new ZipEntry(z + File.separator + region.getRegionX() + "-" + region.getRegionY() + ".json"));
-					zip.write(regionJSON.toString().getBytes());
-				} catch (IOException e) {
-					throw new RuntimeException(e);
-				}
+			SimbaObjectIndex regionObjects = new SimbaObjectIndex();
+			mapObjects(regionObjects, drawBaseX, drawBaseY, region, z);
+
+			if (objects != null) objects.addAll(regionObjects);
+			if (exportChunks && (exportEmptyJSONs || !regionObjects.isEmpty())) {
+				zip.putNextEntry(new ZipEntry(z + File.separator + region.getRegionX() + "-" + region.getRegionY() + ".json"));
+				JsonWriter writer = new JsonWriter(zipWriter);
+				writer.setLenient(true);
+				regionObjects.write(writer);
+				writer.flush();
 			}
 		}
 	}
@@ -375,16 +326,6 @@ public class SimbaObjectInfoDumper
 	{
 		return objectManager.getObject(id);
 	}
-	private void loadRegions() throws IOException
-	{
-		regionLoader.loadRegions();
-		regionLoader.calculateBounds();
-
-		log.debug("North most region: {}", regionLoader.getLowestY().getBaseY());
-		log.debug("South most region: {}", regionLoader.getHighestY().getBaseY());
-		log.debug("West most region:  {}", regionLoader.getLowestX().getBaseX());
-		log.debug("East most region:  {}", regionLoader.getHighestX().getBaseX());
-	}
 
 
 }
\ No newline at end of file
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.cache.definitions.ObjectDefinition;
+import net.runelite.cache.definitions.OverlayDefinition;
+import net.runelite.cache.definitions.SpriteDefinition;
+import net.runelite.cache.definitions.UnderlayDefinition;
+import net.runelite.cache.definitions.loaders.OverlayLoader;
+import net.runelite.cache.definitions.loaders.SpriteLoader;
+import net.runelite.cache.definitions.loaders.UnderlayLoader;
+import net.runelite.cache.definitions.providers.CachingModelProvider;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.ArchiveFiles;
+import net.runelite.cache.fs.FSFile;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Storage;
+import net.runelite.cache.fs.Store;
+import net.runelite.cache.item.RSTextureProvider;
+import net.runelite.cache.models.ModelSummaries;
+import net.runelite.cache.region.RegionLoader;
+import net.runelite.cache.util.DefinitionTable;
+import net.runelite.cache.util.KeyProvider;
+
+import java.io.IOException;
+
+/**
+ * Everything the Simba dumpers read from the cache: regions, object, underlay and
+ * overlay definitions, areas, sprites, textures, models and model summaries. It is loaded once and then only
+ * read, so a single instance can be handed to every dumper of a run.
+ */
+@Slf4j
+@Getter
+public class SimbaWorld
+{
+	private final Store store;
+	private final RegionLoader regionLoader;
+	private final ObjectManager objectManager;
+	private final AreaManager areas;
+	private final SpriteManager sprites;
+	private final TextureManager textureManager;
+	private final RSTextureProvider rsTextureProvider;
+	private final CachingModelProvider modelProvider;
+	private final ModelSummaries modelSummaries;
+	private final DefinitionTable<UnderlayDefinition> underlays;
+	private final DefinitionTable<OverlayDefinition> overlays;
+	private final SpriteDefinition[] mapDecorations;
+
+	private SimbaWorld(Store store, RegionLoader regionLoader) throws IOException
+	{
+		this.store = store;
+		this.regionLoader = regionLoader;
+
+		underlays = loadUnderlays(store);
+		overlays = loadOverlays(store);
+
+		objectManager = new ObjectManager(store);
+		objectManager.load();
+
+		sprites = new SpriteManager(store);
+		textureManager = new TextureManager(store);
+		textureManager.load();
+		rsTextureProvider = new RSTextureProvider(textureManager, sprites);
+		modelProvider = new CachingModelProvider(store);
+		modelSummaries = new ModelSummaries(modelProvider, textureManager);
+
+		loadRegions(regionLoader);
+
+		areas = new AreaManager(store);
+		areas.load();
+		sprites.load();
+		mapDecorations = loadMapDecorations(store);
+	}
+
+	public static SimbaWorld load(Store store, KeyProvider keyProvider) throws IOException
+	{
+		return load(store, new RegionLoader(store, keyProvider));
+	}
+
+	public static SimbaWorld load(Store store, RegionLoader regionLoader) throws IOException
+	{
+		long start = System.currentTimeMillis();
+		SimbaWorld world = new SimbaWorld(store, regionLoader);
+		log.info("Loaded world with {} regions in {}ms", regionLoader.getRegions().size(), System.currentTimeMillis() - start);
+		return world;
+	}
+
+	public UnderlayDefinition findUnderlay(int id)
+	{
+		return underlays.get(id);
+	}
+
+	public OverlayDefinition findOverlay(int id)
+	{
+		return overlays.get(id);
+	}
+
+	public ObjectDefinition findObject(int id)
+	{
+		return objectManager.getObject(id);
+	}
+
+	private static void loadRegions(RegionLoader regionLoader) throws IOException
+	{
+		regionLoader.loadRegions();
+		regionLoader.calculateBounds();
+
+		log.debug("North most region: {}", regionLoader.getLowestY().getBaseY());
+		log.debug("South most region: {}", regionLoader.getHighestY().getBaseY());
+		log.debug("West most region:  {}", regionLoader.getLowestX().getBaseX());
+		log.debug("East most region:  {}", regionLoader.getHighestX().getBaseX());
+	}
+
+	private static DefinitionTable<UnderlayDefinition> loadUnderlays(Store store) throws IOException
+	{
+		DefinitionTable<UnderlayDefinition> underlays = new DefinitionTable<>();
+
+		Storage storage = store.getStorage();
+		Index index = store.getIndex(IndexType.CONFIGS);
+		Archive archive = index.getArchive(ConfigType.UNDERLAY.getId());
+
+		byte[] archiveData = storage.loadArchive(archive);
+		ArchiveFiles files = archive.getFiles(archiveData);
+
+		for (FSFile file : files.getFiles())
+		{
+			UnderlayLoader loader = new UnderlayLoader();
+			UnderlayDefinition underlay = loader.load(file.getFileId(), file.getContents());
+
+			underlays.put(underlay.getId(), underlay);
+		}
+
+		return underlays;
+	}
+
+	private static DefinitionTable<OverlayDefinition> loadOverlays(Store store) throws IOException
+	{
+		DefinitionTable<OverlayDefinition> overlays = new DefinitionTable<>();
+
+		Storage storage = store.getStorage();
+		Index index = store.getIndex(IndexType.CONFIGS);
+		Archive archive = index.getArchive(ConfigType.OVERLAY.getId());
+
+		byte[] archiveData = storage.loadArchive(archive);
+		ArchiveFiles files = archive.getFiles(archiveData);
+
+		for (FSFile file : files.getFiles())
+		{
+			OverlayLoader loader = new OverlayLoader();
+			OverlayDefinition overlay = loader.load(file.getFileId(), file.getContents());
+
+			overlays.put(overlay.getId(), overlay);
+		}
+
+		return overlays;
+	}
+
+	private static SpriteDefinition[] loadMapDecorations(Store store) throws IOException
+	{
+		Storage storage = store.getStorage();
+		Index index = store.getIndex(IndexType.SPRITES);
+		Archive a = index.findArchiveByName("mapscene");
+		byte[] contents = storage.decompressArchive(a, null);
+
+		SpriteLoader loader = new SpriteLoader();
+		return loader.load(a.getArchiveId(), contents);
+	}
+}
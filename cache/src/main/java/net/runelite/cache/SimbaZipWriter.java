@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import javax.imageio.ImageIO;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes the entries of a Simba dump zip. Entry contents are produced on a thread pool and
+ * written in the order they were submitted, so the zip is the same for any number of threads.
+ * Entries are stored rather than deflated: they are PNGs, which are compressed already, so
+ * writing one is only a copy. The zip itself is not closed by this writer.
+ */
+@Slf4j
+public class SimbaZipWriter implements Closeable
+{
+	private final ZipOutputStream zip;
+	private final ExecutorService executor;
+	private final int maxPending;
+	private final ArrayDeque<Future<Entry>> pending = new ArrayDeque<>();
+
+	private final long start = System.nanoTime();
+	private int entries;
+	private long bytes;
+
+	private static class Entry
+	{
+		final String name;
+		final byte[] content;
+		final long crc;
+
+		Entry(String name, byte[] content)
+		{
+			this.name = name;
+			this.content = content;
+
+			CRC32 crc = new CRC32();
+			crc.update(content);
+			this.crc = crc.getValue();
+		}
+	}
+
+	/**
+	 * @param threads threads entry contents are produced on. With 1 or fewer they are produced
+	 *                by the submitting thread.
+	 */
+	public SimbaZipWriter(ZipOutputStream zip, int threads)
+	{
+		this.zip = zip;
+		this.executor = threads > 1 ? Executors.newFixedThreadPool(threads) : MoreExecutors.newDirectExecutorService();
+		this.maxPending = Math.max(threads, 1) * 4;
+	}
+
+	/**
+	 * Submits an entry whose content is produced on the pool. Blocks while too many entries
+	 * are waiting to be written.
+	 */
+	public void submit(String name, Callable<byte[]> content) throws IOException
+	{
+		pending.add(executor.submit(() -> new Entry(name, content.call())));
+
+		while (pending.size() >= maxPending || (!pending.isEmpty() && pending.peek().isDone()))
+		{
+			writeEntry(await(pending.poll()));
+		}
+	}
+
+	/**
+	 * Submits an entry with an image, which is encoded as a PNG on the pool. The image must
+	 * not be changed until it is written.
+	 */
+	public void submitPng(String name, BufferedImage image) throws IOException
+	{
+		submit(name, () -> encodePng(image));
+	}
+
+	/**
+	 * Writes an entry after all submitted ones
+	 */
+	public void write(String name, byte[] content) throws IOException
+	{
+		flush();
+		writeEntry(new Entry(name, content));
+	}
+
+	/**
+	 * Writes every submitted entry
+	 */
+	public void flush() throws IOException
+	{
+		while (!pending.isEmpty())
+		{
+			writeEntry(await(pending.poll()));
+		}
+	}
+
+	/**
+	 * Writes every submitted entry and logs how fast the zip was written
+	 */
+	public void finish() throws IOException
+	{
+		flush();
+
+		long ms = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 1);
+		log.info("Wrote {} entries, {} KB in {}ms ({} KB/s)", entries, bytes / 1024, ms, bytes * 1000 / 1024 / ms);
+	}
+
+	/**
+	 * Stops the pool, dropping entries which were not written yet
+	 */
+	@Override
+	public void close()
+	{
+		executor.shutdownNow();
+	}
+
+	public static byte[] encodePng(BufferedImage image) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return out.toByteArray();
+	}
+
+	private void writeEntry(Entry entry) throws IOException
+	{
+		ZipEntry zipEntry = new ZipEntry(entry.name);
+		zipEntry.setMethod(ZipEntry.STORED);
+		zipEntry.setSize(entry.content.length);
+		zipEntry.setCompressedSize(entry.content.length);
+		zipEntry.setCrc(entry.crc);
+
+		zip.putNextEntry(zipEntry);
+		zip.write(entry.content);
+		zip.closeEntry();
+
+		++entries;
+		bytes += entry.content.length;
+	}
+
+	private static Entry await(Future<Entry> future) throws IOException
+	{
+		try
+		{
+			return future.get();
+		}
+		catch (InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while writing zip entries");
+		}
+		catch (ExecutionException ex)
+		{
+			if (ex.getCause() instanceof RuntimeException)
+			{
+				throw (RuntimeException) ex.getCause();
+			}
+			throw new IOException(ex.getCause());
+		}
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import net.runelite.cache.region.Region;
+
+/**
+ * Buffers the Simba map dumpers reuse from one region to the next: a row major pixel
+ * plane per level, the running underlay sums used for ground blending, and an image to
+ * render a region into. One instance is kept per thread.
+ */
+final class TileScratch
+{
+	private static final ThreadLocal<TileScratch> SCRATCH = new ThreadLocal<>();
+
+	final int scale;
+	final int blend;
+	/**
+	 * pixels per plane row, which is also the distance between rows
+	 */
+	final int width;
+	final int height;
+
+	private final int[][] planes = new int[Region.Z][];
+	private final boolean[] drawn = new boolean[Region.Z];
+
+	final int[] hues;
+	final int[] sats;
+	final int[] light;
+	final int[] mul;
+	final int[] num;
+
+	private BufferedImage canvas;
+
+	private TileScratch(int scale, int blend)
+	{
+		this.scale = scale;
+		this.blend = blend;
+		this.width = Region.X * scale;
+		this.height = Region.Y * scale;
+
+		int len = Region.X + blend * 2;
+		hues = new int[len];
+		sats = new int[len];
+		light = new int[len];
+		mul = new int[len];
+		num = new int[len];
+	}
+
+	/**
+	 * Gets this thread's scratch space, with no planes drawn
+	 */
+	static TileScratch get(int scale, int blend)
+	{
+		TileScratch scratch = SCRATCH.get();
+		if (scratch == null || scratch.scale != scale || scratch.blend != blend)
+		{
+			scratch = new TileScratch(scale, blend);
+			SCRATCH.set(scratch);
+		}
+		scratch.reset();
+		return scratch;
+	}
+
+	/**
+	 * Marks every plane as not drawn, ready for the next region
+	 */
+	void reset()
+	{
+		Arrays.fill(drawn, false);
+	}
+
+	/**
+	 * Gets the plane for level z, or null if it hasn't been drawn since the last reset
+	 */
+	int[] plane(int z)
+	{
+		return drawn[z] ? planes[z] : null;
+	}
+
+	/**
+	 * Gets a cleared plane for level z and marks it drawn
+	 */
+	int[] newPlane(int z)
+	{
+		int[] pixels = planes[z];
+		if (pixels == null)
+		{
+			pixels = planes[z] = new int[width * height];
+		}
+		else
+		{
+			Arrays.fill(pixels, 0);
+		}
+		drawn[z] = true;
+		return pixels;
+	}
+
+	/**
+	 * Gets a cleared image of the given size. type must be one of the TYPE_INT_* types.
+	 */
+	BufferedImage canvas(int type, int width, int height)
+	{
+		if (canvas == null || canvas.getType() != type || canvas.getWidth() != width || canvas.getHeight() != height)
+		{
+			canvas = new BufferedImage(width, height, type);
+		}
+		else
+		{
+			Arrays.fill(((DataBufferInt) canvas.getRaster().getDataBuffer()).getData(), 0);
+		}
+		return canvas;
+	}
+
+	/**
+	 * Zeroes the blending sums
+	 */
+	void clearBlend()
+	{
+		Arrays.fill(hues, 0);
+		Arrays.fill(sats, 0);
+		Arrays.fill(light, 0);
+		Arrays.fill(mul, 0);
+		Arrays.fill(num, 0);
+	}
+}
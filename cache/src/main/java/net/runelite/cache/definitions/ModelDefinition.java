@@ -55,6 +55,149 @@ public class ModelDefinition
 
 	public static transient int animOffsetX, animOffsetY, animOffsetZ;
 
+	/**
+	 * Creates a deep copy of this model, as it was after loading. Callers
+	 * which resize, recolor or light a model can work on the copy without
+	 * affecting a shared instance.
+	 */
+	public ModelDefinition copy()
+	{
+		ModelDefinition def = new ModelDefinition();
+		def.id = id;
+
+		def.vertexCount = vertexCount;
+		def.vertexX = copyOf(vertexX);
+		def.vertexY = copyOf(vertexY);
+		def.vertexZ = copyOf(vertexZ);
+
+		def.faceCount = faceCount;
+		def.faceIndices1 = copyOf(faceIndices1);
+		def.faceIndices2 = copyOf(faceIndices2);
+		def.faceIndices3 = copyOf(faceIndices3);
+		def.faceTransparencies = copyOf(faceTransparencies);
+		def.faceColors = copyOf(faceColors);
+		def.faceRenderPriorities = copyOf(faceRenderPriorities);
+		def.faceRenderTypes = copyOf(faceRenderTypes);
+
+		def.numTextureFaces = numTextureFaces;
+		def.texIndices1 = copyOf(texIndices1);
+		def.texIndices2 = copyOf(texIndices2);
+		def.texIndices3 = copyOf(texIndices3);
+		def.texturePrimaryColors = copyOf(texturePrimaryColors);
+		def.faceTextures = copyOf(faceTextures);
+		def.textureCoords = copyOf(textureCoords);
+		def.textureRenderTypes = copyOf(textureRenderTypes);
+
+		def.packedVertexGroups = copyOf(packedVertexGroups);
+		def.packedTransparencyVertexGroups = copyOf(packedTransparencyVertexGroups);
+
+		def.priority = priority;
+
+		def.vertexGroups = copyOf(vertexGroups);
+		def.animayaGroups = copyOf(animayaGroups);
+		def.animayaScales = copyOf(animayaScales);
+
+		def.maxPriority = maxPriority;
+
+		// normals and uvs are derived, copy them rather than recomputing them
+		// or sharing the mutable normal objects
+		def.vertexNormals = copyOf(vertexNormals);
+		def.faceNormals = copyOf(faceNormals);
+		def.faceTextureUCoordinates = copyOf(faceTextureUCoordinates);
+		def.faceTextureVCoordinates = copyOf(faceTextureVCoordinates);
+		return def;
+	}
+
+	private static int[] copyOf(int[] a)
+	{
+		return a == null ? null : a.clone();
+	}
+
+	private static short[] copyOf(short[] a)
+	{
+		return a == null ? null : a.clone();
+	}
+
+	private static byte[] copyOf(byte[] a)
+	{
+		return a == null ? null : a.clone();
+	}
+
+	private static int[][] copyOf(int[][] a)
+	{
+		if (a == null)
+		{
+			return null;
+		}
+
+		int[][] copy = new int[a.length][];
+		for (int i = 0; i < a.length; ++i)
+		{
+			copy[i] = copyOf(a[i]);
+		}
+		return copy;
+	}
+
+	private static VertexNormal[] copyOf(VertexNormal[] a)
+	{
+		if (a == null)
+		{
+			return null;
+		}
+
+		VertexNormal[] copy = new VertexNormal[a.length];
+		for (int i = 0; i < a.length; ++i)
+		{
+			if (a[i] != null)
+			{
+				VertexNormal n = new VertexNormal();
+				n.x = a[i].x;
+				n.y = a[i].y;
+				n.z = a[i].z;
+				n.magnitude = a[i].magnitude;
+				copy[i] = n;
+			}
+		}
+		return copy;
+	}
+
+	private static FaceNormal[] copyOf(FaceNormal[] a)
+	{
+		if (a == null)
+		{
+			return null;
+		}
+
+		FaceNormal[] copy = new FaceNormal[a.length];
+		for (int i = 0; i < a.length; ++i)
+		{
+			if (a[i] != null)
+			{
+				FaceNormal n = new FaceNormal();
+				n.x = a[i].x;
+				n.y = a[i].y;
+				n.z = a[i].z;
+				copy[i] = n;
+			}
+		}
+		return copy;
+	}
+
+	private static float[][] copyOf(float[][] a)
+	{
+		if (a == null)
+		{
+			return null;
+		}
+
+		float[][] copy = new float[a.length][];
+		for (int i = 0; i < a.length; ++i)
+		{
+			copy[i] = a[i] == null ? null : a[i].clone();
+		}
+		return copy;
+	}
+
 	public void computeNormals()
 	{
 		if (this.vertexNormals != null)
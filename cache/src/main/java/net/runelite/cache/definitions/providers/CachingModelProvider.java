@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.definitions.providers;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.cache.IndexType;
+import net.runelite.cache.definitions.ModelDefinition;
+import net.runelite.cache.definitions.loaders.ModelLoader;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Store;
+
+/**
+ * A thread safe {@link ModelProvider} which keeps recently used decoded
+ * models in a size weighted LRU cache. Every call returns a fresh copy,
+ * so callers are free to resize, recolor or light the model. A model is
+ * decoded once even if several threads ask for it at the same time.
+ * Missing models are logged once and then provided as null.
+ */
+@Slf4j
+public class CachingModelProvider implements ModelProvider
+{
+	public static final long DEFAULT_MAXIMUM_WEIGHT = 64L * 1024L * 1024L;
+
+	private final Store store;
+	private final Index index;
+	// Guava caches can't hold null, so missing models are cached as empty
+	private final Cache<Integer, Optional<ModelDefinition>> models;
+
+	public CachingModelProvider(Store store)
+	{
+		this(store, DEFAULT_MAXIMUM_WEIGHT);
+	}
+
+	/**
+	 * @param store         store to load models from
+	 * @param maximumWeight approximate maximum size of the cached models, in bytes
+	 */
+	public CachingModelProvider(Store store, long maximumWeight)
+	{
+		this.store = store;
+		this.index = store.getIndex(IndexType.MODELS);
+		this.models = CacheBuilder.newBuilder()
+			.maximumWeight(maximumWeight)
+			.weigher((Integer modelId, Optional<ModelDefinition> model) -> model.map(CachingModelProvider::weigh).orElse(16))
+			.recordStats()
+			.build();
+	}
+
+	@Override
+	public ModelDefinition provide(int modelId) throws IOException
+	{
+		Optional<ModelDefinition> model;
+		try
+		{
+			model = models.get(modelId, () -> load(modelId));
+		}
+		catch (ExecutionException ex)
+		{
+			if (ex.getCause() instanceof IOException)
+			{
+				throw (IOException) ex.getCause();
+			}
+			throw new IOException(ex.getCause());
+		}
+		return model.isPresent() ? model.get().copy() : null;
+	}
+
+	private Optional<ModelDefinition> load(int modelId) throws IOException
+	{
+		Archive archive = index.getArchive(modelId);
+		byte[] data = archive == null ? null : store.getStorage().decompressArchive(archive, null);
+		if (data == null)
+		{
+			log.warn("Model {} is missing, skipping it", modelId);
+			return Optional.empty();
+		}
+
+		return Optional.of(new ModelLoader().load(modelId, data));
+	}
+
+	public long getHitCount()
+	{
+		return models.stats().hitCount();
+	}
+
+	public long getMissCount()
+	{
+		return models.stats().missCount();
+	}
+
+	public long getSize()
+	{
+		return models.size();
+	}
+
+	@Override
+	public String toString()
+	{
+		CacheStats stats = models.stats();
+		return "CachingModelProvider{size=" + models.size()
+			+ ", hits=" + stats.hitCount()
+			+ ", misses=" + stats.missCount()
+			+ ", evictions=" + stats.evictionCount() + "}";
+	}
+
+	private static int weigh(ModelDefinition model)
+	{
+		// rough size of the decoded arrays, the normals are about as big again
+		return 64
+			+ model.vertexCount * 3 * 4 * 2
+			+ model.faceCount * (3 * 4 + 4 + 2)
+			+ model.numTextureFaces * 3 * 2;
+	}
+}
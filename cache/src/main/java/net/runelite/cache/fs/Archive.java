@@ -102,9 +102,20 @@ public class Archive
 			return null;
 		}
 
-		byte[] encryptedData = data;
+		return decompressed(Container.decompress(data, keys));
+	}
+
+	/**
+	 * Decompresses archive data held in {@code data[off, off + len)}. With
+	 * keys, the data is decrypted in place.
+	 */
+	public byte[] decompress(byte[] data, int off, int len, int[] keys) throws IOException
+	{
+		return decompressed(Container.decompress(data, off, len, keys));
+	}
 
-		Container container = Container.decompress(encryptedData, keys);
+	private byte[] decompressed(Container container) throws IOException
+	{
 		if (container == null)
 		{
 			logger.warn("Unable to decrypt archive {}", this);
@@ -152,7 +163,8 @@ public class Archive
 			file.setNameHash(fileEntry.getNameHash());
 			files.addFile(file);
 		}
-		files.loadContents(decompressedData);
+		// decompressedData is ours, so files can be views into it
+		files.loadContents(decompressedData, true);
 		return files;
 	}
 
@@ -168,7 +180,11 @@ public class Archive
 
 	public void setNameHash(int nameHash)
 	{
-		this.nameHash = nameHash;
+		if (this.nameHash != nameHash)
+		{
+			this.nameHash = nameHash;
+			index.nameHashChanged();
+		}
 	}
 
 	public int getCrc()
@@ -28,9 +28,11 @@ import com.google.common.base.Preconditions;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.stream.IntStream;
 import net.runelite.cache.io.InputStream;
 import net.runelite.cache.io.OutputStream;
 import org.slf4j.Logger;
@@ -40,6 +42,12 @@ public class ArchiveFiles
 {
 	private static final Logger logger = LoggerFactory.getLogger(ArchiveFiles.class);
 
+	@FunctionalInterface
+	public interface FileDecoder<T>
+	{
+		T decode(int fileId, byte[] contents);
+	}
+
 	private final List<FSFile> files = new ArrayList<>();
 	private final Map<Integer, FSFile> fileMap = new HashMap<>();
 
@@ -93,6 +101,41 @@ public class ArchiveFiles
 		return fileMap.get(fileId);
 	}
 
+	/**
+	 * Decodes the contents of every file. In parallel mode the files are
+	 * spread over the common fork join pool, so the decoder must be safe
+	 * to call concurrently.
+	 *
+	 * @param decoder file decoder, eg. a definition loader
+	 * @param parallel decode files in parallel
+	 * @return map of file id to decoded file, in file order
+	 */
+	public <T> Map<Integer, T> decode(FileDecoder<T> decoder, boolean parallel)
+	{
+		Object[] results = new Object[files.size()];
+
+		IntStream range = IntStream.range(0, results.length);
+		if (parallel)
+		{
+			range = range.parallel();
+		}
+		range.forEach(i ->
+		{
+			FSFile file = files.get(i);
+			results[i] = decoder.decode(file.getFileId(), file.getContents());
+		});
+
+		// insert serially so the result is the same in either mode
+		Map<Integer, T> decoded = new LinkedHashMap<>(results.length * 4 / 3 + 1);
+		for (int i = 0; i < results.length; ++i)
+		{
+			@SuppressWarnings("unchecked")
+			T result = (T) results[i];
+			decoded.put(files.get(i).getFileId(), result);
+		}
+		return decoded;
+	}
+
 	public void clear()
 	{
 		files.clear();
@@ -100,6 +143,19 @@ public class ArchiveFiles
 	}
 
 	public void loadContents(byte[] data)
+	{
+		loadContents(data, false);
+	}
+
+	/**
+	 * Split the contents of an archive into its files.
+	 *
+	 * @param data archive contents
+	 * @param lazy if true the files are views into data, and are only copied
+	 * out when their contents are requested. data must not be modified
+	 * afterwards.
+	 */
+	public void loadContents(byte[] data, boolean lazy)
 	{
 		logger.trace("Loading contents of archive ({} files)", files.size());
 
@@ -137,6 +193,12 @@ public class ArchiveFiles
 			}
 		}
 
+		if (lazy)
+		{
+			loadLazyContents(data, chunks, chunkSizes, filesSize, stream.getLength() - 1 - chunks * filesCount * 4);
+			return;
+		}
+
 		byte[][] fileContents = new byte[filesCount][];
 		int[] fileOffsets = new int[filesCount];
 
@@ -167,6 +229,46 @@ public class ArchiveFiles
 		}
 	}
 
+	private void loadLazyContents(byte[] data, int chunks, int[][] chunkSizes, int[] filesSize, int end)
+	{
+		int filesCount = filesSize.length;
+		int[][] chunkOffsets = new int[filesCount][chunks];
+
+		// chunks are stored in order, each with a piece of every file
+		int offset = 0;
+		for (int chunk = 0; chunk < chunks; ++chunk)
+		{
+			for (int id = 0; id < filesCount; ++id)
+			{
+				if (chunkSizes[id][chunk] < 0)
+				{
+					throw new IllegalArgumentException("negative chunk size");
+				}
+
+				chunkOffsets[id][chunk] = offset;
+				offset += chunkSizes[id][chunk];
+			}
+		}
+
+		if (offset > end)
+		{
+			throw new IllegalArgumentException("archive contents overrun: " + offset + " > " + end);
+		}
+
+		for (int i = 0; i < filesCount; ++i)
+		{
+			FSFile f = this.getFiles().get(i);
+			if (chunks == 1)
+			{
+				f.setContents(data, chunkOffsets[i][0], filesSize[i]);
+			}
+			else
+			{
+				f.setContents(data, chunkOffsets[i], chunkSizes[i], filesSize[i]);
+			}
+		}
+	}
+
 	public byte[] saveContents()
 	{
 		OutputStream stream = new OutputStream();
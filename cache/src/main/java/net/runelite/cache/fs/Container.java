@@ -27,10 +27,11 @@ package net.runelite.cache.fs;
 import static com.google.common.primitives.Bytes.concat;
 import com.google.common.primitives.Ints;
 import java.io.IOException;
+import java.util.Arrays;
 import net.runelite.cache.fs.jagex.CompressionType;
-import net.runelite.cache.io.InputStream;
 import net.runelite.cache.io.OutputStream;
 import net.runelite.cache.util.BZip2;
+import net.runelite.cache.util.Decompressor;
 import net.runelite.cache.util.Crc32;
 import net.runelite.cache.util.GZip;
 import net.runelite.cache.util.Xtea;
@@ -41,6 +42,12 @@ public class Container
 {
 	private static final Logger logger = LoggerFactory.getLogger(Container.class);
 
+	// per thread buffer keyed containers are decrypted in
+	private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[0]);
+
+	private static volatile Decompressor bzip2Decompressor = BZip2::decompress;
+	private static volatile Decompressor gzipDecompressor = GZip::decompress;
+
 	public byte[] data;
 	public int compression; // compression
 	public int revision;
@@ -52,6 +59,28 @@ public class Container
 		this.revision = revision;
 	}
 
+	/**
+	 * Replaces the decompressor used for containers of the given compression
+	 * type, eg. with one backed by a native library.
+	 *
+	 * @param compression {@link CompressionType#BZ2} or {@link CompressionType#GZ}
+	 * @param decompressor the decompressor
+	 */
+	public static void setDecompressor(int compression, Decompressor decompressor)
+	{
+		switch (compression)
+		{
+			case CompressionType.BZ2:
+				bzip2Decompressor = decompressor;
+				break;
+			case CompressionType.GZ:
+				gzipDecompressor = decompressor;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown compression type " + compression);
+		}
+	}
+
 	public void compress(byte[] data, int[] keys) throws IOException
 	{
 		OutputStream stream = new OutputStream();
@@ -96,86 +125,104 @@ public class Container
 
 	public static Container decompress(byte[] b, int[] keys) throws IOException
 	{
-		InputStream stream = new InputStream(b);
+		if (keys == null)
+		{
+			// nothing is written to b when there is nothing to decrypt
+			return decompress(b, 0, b.length, null);
+		}
 
-		int compression = stream.readUnsignedByte();
-		int compressedLength = stream.readInt();
-		if (compressedLength < 0 || compressedLength > 1000000)
+		// decrypt a copy so the caller's data is left untouched
+		byte[] scratch = SCRATCH.get();
+		if (scratch.length < b.length)
+		{
+			scratch = new byte[b.length];
+			SCRATCH.set(scratch);
+		}
+		System.arraycopy(b, 0, scratch, 0, b.length);
+		return decompress(scratch, 0, b.length, keys);
+	}
+
+	/**
+	 * Decompresses the container held in {@code b[off, off + len)}. The
+	 * compressed data is decrypted in place and decompressed straight out of
+	 * {@code b}, so with keys the contents of {@code b} are overwritten.
+	 *
+	 * @param b buffer holding the container
+	 * @param off offset of the container in b
+	 * @param len length of the container
+	 * @param keys xtea keys, or null
+	 * @return the decompressed container
+	 * @throws IOException
+	 */
+	public static Container decompress(byte[] b, int off, int len, int[] keys) throws IOException
+	{
+		if (len < 5)
 		{
 			throw new RuntimeException("Invalid data");
 		}
 
-		Crc32 crc32 = new Crc32();
-		crc32.update(b, 0, 5); // compression + length
+		int compression = b[off] & 0xFF;
+		int compressedLength = Ints.fromBytes(b[off + 1], b[off + 2], b[off + 3], b[off + 4]);
+		if (compressedLength < 0 || compressedLength > 1000000)
+		{
+			throw new RuntimeException("Invalid data");
+		}
 
-		byte[] data;
-		int revision = -1;
+		// compressed containers are prefixed with their decompressed length
+		int payload = off + 5;
+		int payloadLength;
 		switch (compression)
 		{
 			case CompressionType.NONE:
-			{
-				byte[] encryptedData = new byte[compressedLength];
-				stream.readBytes(encryptedData, 0, compressedLength);
-
-				crc32.update(encryptedData, 0, compressedLength);
-				byte[] decryptedData = decrypt(encryptedData, encryptedData.length, keys);
-
-				if (stream.remaining() >= 2)
-				{
-					revision = stream.readUnsignedShort();
-					assert revision != -1;
-				}
-
-				data = decryptedData;
-
+				payloadLength = compressedLength;
 				break;
-			}
 			case CompressionType.BZ2:
-			{
-				byte[] encryptedData = new byte[compressedLength + 4];
-				stream.readBytes(encryptedData);
+			case CompressionType.GZ:
+				payloadLength = compressedLength + 4;
+				break;
+			default:
+				throw new RuntimeException("Unknown decompression type");
+		}
 
-				crc32.update(encryptedData, 0, encryptedData.length);
-				byte[] decryptedData = decrypt(encryptedData, encryptedData.length, keys);
+		int end = payload + payloadLength;
+		if (end > off + len)
+		{
+			throw new RuntimeException("Invalid data");
+		}
 
-				if (stream.remaining() >= 2)
-				{
-					revision = stream.readUnsignedShort();
-					assert revision != -1;
-				}
+		Crc32 crc32 = new Crc32();
+		crc32.update(b, off, 5 + payloadLength); // compression + length + encrypted data
 
-				stream = new InputStream(decryptedData);
+		if (keys != null)
+		{
+			Xtea xtea = new Xtea(keys);
+			xtea.decrypt(b, payload, payloadLength);
+		}
 
-				int decompressedLength = stream.readInt();
-				data = BZip2.decompress(stream.getRemaining(), compressedLength);
-				assert data.length == decompressedLength;
+		int revision = -1;
+		if (off + len - end >= 2)
+		{
+			revision = ((b[end] & 0xFF) << 8) | (b[end + 1] & 0xFF);
+		}
 
+		byte[] data;
+		switch (compression)
+		{
+			case CompressionType.NONE:
+				data = Arrays.copyOfRange(b, payload, end);
 				break;
-			}
-			case CompressionType.GZ:
+			default:
 			{
-				byte[] encryptedData = new byte[compressedLength + 4];
-				stream.readBytes(encryptedData);
-
-				crc32.update(encryptedData, 0, encryptedData.length);
-				byte[] decryptedData = decrypt(encryptedData, encryptedData.length, keys);
-
-				if (stream.remaining() >= 2)
+				int decompressedLength = Ints.fromBytes(b[payload], b[payload + 1], b[payload + 2], b[payload + 3]);
+				if (decompressedLength < 0)
 				{
-					revision = stream.readUnsignedShort();
-					assert revision != -1;
+					throw new RuntimeException("Invalid data");
 				}
 
-				stream = new InputStream(decryptedData);
-
-				int decompressedLength = stream.readInt();
-				data = GZip.decompress(stream.getRemaining(), compressedLength);
-				assert data.length == decompressedLength;
-
+				Decompressor decompressor = compression == CompressionType.BZ2 ? bzip2Decompressor : gzipDecompressor;
+				data = decompressor.decompress(b, payload + 4, compressedLength, decompressedLength);
 				break;
 			}
-			default:
-				throw new RuntimeException("Unknown decompression type");
 		}
 
 		Container container = new Container(compression, revision);
@@ -184,17 +231,6 @@ public class Container
 		return container;
 	}
 
-	private static byte[] decrypt(byte[] data, int length, int[] keys)
-	{
-		if (keys == null)
-		{
-			return data;
-		}
-
-		Xtea xtea = new Xtea(keys);
-		return xtea.decrypt(data, length);
-	}
-
 	private static byte[] encrypt(byte[] data, int length, int[] keys)
 	{
 		if (keys == null)
@@ -32,6 +32,11 @@ public class FSFile
 	private final int fileId;
 	private int nameHash;
 	private byte[] contents;
+	// lazily loaded contents, made up of chunks of a shared archive buffer
+	private byte[] data;
+	private int[] chunkOffsets;
+	private int[] chunkSizes;
+	private int size;
 
 	public FSFile(int fileId)
 	{
@@ -44,7 +49,7 @@ public class FSFile
 		int hash = 7;
 		hash = 97 * hash + this.fileId;
 		hash = 97 * hash + this.nameHash;
-		hash = 97 * hash + Arrays.hashCode(this.contents);
+		hash = 97 * hash + Arrays.hashCode(this.getContents());
 		return hash;
 	}
 
@@ -68,7 +73,7 @@ public class FSFile
 		{
 			return false;
 		}
-		if (!Arrays.equals(this.contents, other.contents))
+		if (!Arrays.equals(this.getContents(), other.getContents()))
 		{
 			return false;
 		}
@@ -90,18 +95,59 @@ public class FSFile
 		this.nameHash = nameHash;
 	}
 
+	/**
+	 * Get the contents of this file. Lazily loaded files are copied out of
+	 * the archive on each call, unless they span the whole archive buffer.
+	 */
 	public byte[] getContents()
 	{
-		return contents;
+		if (data == null)
+		{
+			return contents;
+		}
+
+		if (chunkOffsets.length == 1 && chunkOffsets[0] == 0 && size == data.length)
+		{
+			return data;
+		}
+
+		byte[] b = new byte[size];
+		int pos = 0;
+		for (int i = 0; i < chunkOffsets.length; ++i)
+		{
+			System.arraycopy(data, chunkOffsets[i], b, pos, chunkSizes[i]);
+			pos += chunkSizes[i];
+		}
+		return b;
 	}
 
 	public void setContents(byte[] contents)
 	{
 		this.contents = contents;
+		this.data = null;
+		this.chunkOffsets = null;
+		this.chunkSizes = null;
+	}
+
+	/**
+	 * Set the contents of this file to a view of {@code data[offset, offset + length)}.
+	 */
+	public void setContents(byte[] data, int offset, int length)
+	{
+		setContents(data, new int[]{offset}, new int[]{length}, length);
+	}
+
+	void setContents(byte[] data, int[] chunkOffsets, int[] chunkSizes, int size)
+	{
+		this.contents = null;
+		this.data = data;
+		this.chunkOffsets = chunkOffsets;
+		this.chunkSizes = chunkSizes;
+		this.size = size;
 	}
 
 	public int getSize()
 	{
-		return contents.length;
+		return data != null ? size : contents.length;
 	}
 }
@@ -46,6 +46,15 @@ public interface Storage extends AutoCloseable
 		return load(archive.getIndex().getId(), archive.getArchiveId());
 	}
 
+	/**
+	 * Loads and decompresses an archive. Storages may stage the compressed
+	 * archive in a reused buffer, so only the decompressed data is allocated.
+	 */
+	default byte[] decompressArchive(Archive archive, int[] keys) throws IOException
+	{
+		return archive.decompress(loadArchive(archive), keys);
+	}
+
 	default void saveArchive(Archive archive, byte[] data) throws IOException
 	{
 		store(archive.getIndex().getId(), archive.getArchiveId(), data);
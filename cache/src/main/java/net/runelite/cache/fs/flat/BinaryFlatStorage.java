@@ -0,0 +1,381 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.fs.flat;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Storage;
+import net.runelite.cache.fs.Store;
+import net.runelite.cache.index.FileData;
+
+/**
+ * A Storage that stores the cache as one binary file per index. Each file is
+ * a header and an archive table sorted by id, followed by the raw archive
+ * contents. Files are memory mapped on load and contents are only copied
+ * out when an archive is loaded.
+ * <p>
+ * All values are big endian. The header is
+ * <pre>
+ * int magic, int version
+ * int protocol, int revision, int compression, int crc, byte named
+ * int archive count
+ * </pre>
+ * followed by a fixed size record per archive
+ * <pre>
+ * int id, int name hash, int revision, int crc, int compression,
+ * int file count (-1 for no file data), long contents offset, int contents length (-1 for no contents)
+ * </pre>
+ * then the file id and name hash of every file, in archive order, and then
+ * the contents.
+ * <p>
+ * The mappings are only released once they are garbage collected, even after
+ * {@link #close()}. Windows does not allow a mapped file to be replaced, so
+ * saving into a directory that a BinaryFlatStorage has loaded from, including
+ * saving a store back into its own storage, is unsupported there. Save into
+ * another directory instead.
+ */
+public class BinaryFlatStorage implements Storage
+{
+	protected static final String EXTENSION = ".flatbin";
+
+	private static final int MAGIC = 0x464c4154; // FLAT
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 4 + 4 + 4 * 4 + 1 + 4;
+	private static final int ARCHIVE_SIZE = 4 * 6 + 8 + 4;
+	private static final int FILE_SIZE = 4 + 4;
+
+	private final File directory;
+	private final Map<Integer, MappedIndex> indexes = new HashMap<>();
+	private final Map<Long, byte[]> data = new HashMap<>();
+
+	private static class MappedIndex
+	{
+		private final ByteBuffer buffer;
+		private final int[] ids;
+		private final long[] offsets;
+		private final int[] lengths;
+
+		MappedIndex(ByteBuffer buffer, int count)
+		{
+			this.buffer = buffer;
+			this.ids = new int[count];
+			this.offsets = new long[count];
+			this.lengths = new int[count];
+		}
+	}
+
+	public BinaryFlatStorage(File directory)
+	{
+		this.directory = directory;
+	}
+
+	/**
+	 * Copies every index and archive of one storage into another, eg. to
+	 * convert between {@link FlatStorage} and BinaryFlatStorage. The source
+	 * storage is closed.
+	 */
+	public static void convert(Storage from, Storage to) throws IOException
+	{
+		try (Store store = new Store(from))
+		{
+			store.load();
+			to.save(store);
+		}
+	}
+
+	@Override
+	public void init(Store store) throws IOException
+	{
+		String[] idxs = directory.list((dir, name) -> name.endsWith(EXTENSION));
+		if (idxs == null)
+		{
+			throw new IOException("unable to list " + directory);
+		}
+
+		for (String idx : idxs)
+		{
+			int id = Integer.parseInt(idx.substring(0, idx.length() - EXTENSION.length()));
+			store.addIndex(id);
+		}
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		// the mappings are released once they are unreachable
+		indexes.clear();
+	}
+
+	@Override
+	public void load(Store store) throws IOException
+	{
+		for (Index idx : store.getIndexes())
+		{
+			File file = new File(directory, idx.getId() + EXTENSION);
+			try
+			{
+				indexes.put(idx.getId(), load(idx, map(file)));
+			}
+			catch (IOException | RuntimeException e)
+			{
+				throw new IOException("error reading flatcache " + file, e);
+			}
+		}
+	}
+
+	private static ByteBuffer map(File file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE)
+			{
+				throw new IOException("flatcache file is too large: " + size);
+			}
+
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+	}
+
+	private static MappedIndex load(Index idx, ByteBuffer buf) throws IOException
+	{
+		if (buf.getInt(0) != MAGIC)
+		{
+			throw new IOException("bad magic");
+		}
+		if (buf.getInt(4) != VERSION)
+		{
+			throw new IOException("unsupported version " + buf.getInt(4));
+		}
+
+		idx.setProtocol(buf.getInt(8));
+		idx.setRevision(buf.getInt(12));
+		idx.setCompression(buf.getInt(16));
+		idx.setCrc(buf.getInt(20));
+		idx.setNamed(buf.get(24) != 0);
+
+		int count = buf.getInt(25);
+		MappedIndex mapped = new MappedIndex(buf, count);
+
+		int pos = HEADER_SIZE;
+		int filePos = HEADER_SIZE + count * ARCHIVE_SIZE;
+		for (int i = 0; i < count; ++i, pos += ARCHIVE_SIZE)
+		{
+			int id = buf.getInt(pos);
+			if (i > 0 && id <= mapped.ids[i - 1])
+			{
+				throw new IOException("archive table is not sorted at archive " + id);
+			}
+
+			Archive archive = idx.addArchive(id);
+			archive.setNameHash(buf.getInt(pos + 4));
+			archive.setRevision(buf.getInt(pos + 8));
+			archive.setCrc(buf.getInt(pos + 12));
+			archive.setCompression(buf.getInt(pos + 16));
+
+			int fileCount = buf.getInt(pos + 20);
+			if (fileCount >= 0)
+			{
+				FileData[] fileData = new FileData[fileCount];
+				for (int j = 0; j < fileCount; ++j, filePos += FILE_SIZE)
+				{
+					FileData fd = new FileData();
+					fd.setId(buf.getInt(filePos));
+					fd.setNameHash(buf.getInt(filePos + 4));
+					fileData[j] = fd;
+				}
+				archive.setFileData(fileData);
+			}
+
+			long offset = buf.getLong(pos + 24);
+			int length = buf.getInt(pos + 32);
+			if (length >= 0 && (offset < filePos || offset + length > buf.capacity()))
+			{
+				throw new IOException("contents of archive " + id + " are out of bounds");
+			}
+
+			mapped.ids[i] = id;
+			mapped.offsets[i] = offset;
+			mapped.lengths[i] = length;
+		}
+
+		return mapped;
+	}
+
+	@Override
+	public void save(Store store) throws IOException
+	{
+		store.getIndexes().sort(Comparator.comparingInt(Index::getId));
+		for (Index idx : store.getIndexes())
+		{
+			File file = new File(directory, idx.getId() + EXTENSION);
+			save(store.getStorage(), idx, file);
+		}
+	}
+
+	private static void save(Storage storage, Index idx, File file) throws IOException
+	{
+		List<Archive> archives = idx.getArchives();
+		archives.sort(Comparator.comparingInt(Archive::getArchiveId));
+
+		int files = 0;
+		for (Archive archive : archives)
+		{
+			if (archive.getFileData() != null)
+			{
+				files += archive.getFileData().length;
+			}
+		}
+
+		long tableSize = HEADER_SIZE + (long) archives.size() * ARCHIVE_SIZE + (long) files * FILE_SIZE;
+		if (tableSize > Integer.MAX_VALUE)
+		{
+			throw new IOException("archive table is too large");
+		}
+
+		ByteBuffer table = ByteBuffer.allocate((int) tableSize);
+		table.putInt(MAGIC);
+		table.putInt(VERSION);
+		table.putInt(idx.getProtocol());
+		table.putInt(idx.getRevision());
+		table.putInt(idx.getCompression());
+		table.putInt(idx.getCrc());
+		table.put((byte) (idx.isNamed() ? 1 : 0));
+		table.putInt(archives.size());
+
+		// write next to the file and move it into place, as the old file may still be mapped and read from
+		File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(tmp.toPath(),
+			StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			// stream the contents after the table, then go back and write the table
+			channel.position(tableSize);
+			OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+
+			int filePos = HEADER_SIZE + archives.size() * ARCHIVE_SIZE;
+			long offset = tableSize;
+			for (Archive archive : archives)
+			{
+				FileData[] fileData = archive.getFileData();
+				byte[] contents = storage.loadArchive(archive);
+
+				table.putInt(archive.getArchiveId());
+				table.putInt(archive.getNameHash());
+				table.putInt(archive.getRevision());
+				table.putInt(archive.getCrc());
+				table.putInt(archive.getCompression());
+				table.putInt(fileData != null ? fileData.length : -1);
+				table.putLong(contents != null ? offset : 0L);
+				table.putInt(contents != null ? contents.length : -1);
+
+				if (fileData != null)
+				{
+					for (FileData fd : fileData)
+					{
+						table.putInt(filePos, fd.getId());
+						table.putInt(filePos + 4, fd.getNameHash());
+						filePos += FILE_SIZE;
+					}
+				}
+
+				if (contents != null)
+				{
+					out.write(contents);
+					offset += contents.length;
+				}
+			}
+
+			out.flush();
+
+			table.clear();
+			for (long pos = 0; table.hasRemaining(); )
+			{
+				pos += channel.write(table, pos);
+			}
+		}
+
+		try
+		{
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e)
+		{
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	@Override
+	public byte[] load(int index, int archive) throws IOException
+	{
+		byte[] stored = data.get((long) index << 32 | archive);
+		if (stored != null)
+		{
+			return stored;
+		}
+
+		MappedIndex mapped = indexes.get(index);
+		if (mapped == null)
+		{
+			return null;
+		}
+
+		int i = Arrays.binarySearch(mapped.ids, archive);
+		if (i < 0 || mapped.lengths[i] < 0)
+		{
+			return null;
+		}
+
+		// duplicate so concurrent loads don't share a position
+		ByteBuffer buf = mapped.buffer.duplicate();
+		buf.position((int) mapped.offsets[i]);
+
+		byte[] contents = new byte[mapped.lengths[i]];
+		buf.get(contents);
+		return contents;
+	}
+
+	@Override
+	public void store(int index, int archive, byte[] bytes)
+	{
+		data.put((long) index << 32 | archive, bytes);
+	}
+}
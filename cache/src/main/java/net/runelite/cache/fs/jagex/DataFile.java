@@ -30,6 +30,8 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,12 +40,66 @@ public class DataFile implements Closeable
 	private static final Logger logger = LoggerFactory.getLogger(DataFile.class);
 
 	private static final int SECTOR_SIZE = 520;
+	// sectors per mapping, so a sector never straddles two mappings
+	private static final int SECTORS_PER_MAPPING = Integer.MAX_VALUE / SECTOR_SIZE;
 
 	private final RandomAccessFile dat;
+	// sector header of the current read, guarded by the lock in readFile
+	private final byte[] header = new byte[10];
+	private final MappedByteBuffer[] mappings;
+	private final long mappedLength;
 
 	public DataFile(File file) throws FileNotFoundException
 	{
-		this.dat = new RandomAccessFile(file, "rw");
+		this(new RandomAccessFile(file, "rw"), null, 0L);
+	}
+
+	private DataFile(RandomAccessFile dat, MappedByteBuffer[] mappings, long mappedLength)
+	{
+		this.dat = dat;
+		this.mappings = mappings;
+		this.mappedLength = mappedLength;
+	}
+
+	/**
+	 * Opens a data file for reading only. The file is memory mapped and
+	 * {@link #read(int, int, int, int)} walks sector chains straight out of
+	 * the mapping without taking a lock, so it may be called from any number
+	 * of threads. Writing is not supported.
+	 *
+	 * @param file data file
+	 * @return the mapped data file
+	 * @throws IOException
+	 */
+	public static DataFile openReadOnly(File file) throws IOException
+	{
+		RandomAccessFile dat = new RandomAccessFile(file, "r");
+		try
+		{
+			long length = dat.length();
+
+			FileChannel channel = dat.getChannel();
+			long mappingSize = (long) SECTORS_PER_MAPPING * SECTOR_SIZE;
+			int count = (int) ((length + mappingSize - 1) / mappingSize);
+			MappedByteBuffer[] mappings = new MappedByteBuffer[count];
+			for (int i = 0; i < count; ++i)
+			{
+				long start = i * mappingSize;
+				mappings[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(mappingSize, length - start));
+			}
+
+			return new DataFile(dat, mappings, length);
+		}
+		catch (IOException ex)
+		{
+			dat.close();
+			throw ex;
+		}
+	}
+
+	public boolean isReadOnly()
+	{
+		return mappings != null;
 	}
 
 	@Override
@@ -54,6 +110,11 @@ public class DataFile implements Closeable
 
 	public void clear() throws IOException
 	{
+		if (isReadOnly())
+		{
+			throw new IOException("data file is read only");
+		}
+
 		dat.setLength(0L);
 	}
 
@@ -66,16 +127,44 @@ public class DataFile implements Closeable
 	 * @return
 	 * @throws IOException
 	 */
-	public synchronized byte[] read(int indexId, int archiveId, int sector, int size) throws IOException
+	public byte[] read(int indexId, int archiveId, int sector, int size) throws IOException
 	{
-		if (sector <= 0L || dat.length() / SECTOR_SIZE < (long) sector)
+		byte[] data = new byte[size];
+		return read(indexId, archiveId, sector, size, data) ? data : null;
+	}
+
+	/**
+	 * Reads the contents of an archive into the start of {@code dest}, which
+	 * allows the caller to reuse the buffer between reads.
+	 *
+	 * @param indexId expected index of archive of contents being read
+	 * @param archiveId expected archive of contents being read
+	 * @param sector sector to start reading at
+	 * @param size size of file
+	 * @param dest buffer of at least size bytes
+	 * @return whether the whole file was read
+	 * @throws IOException
+	 */
+	public boolean read(int indexId, int archiveId, int sector, int size, byte[] dest) throws IOException
+	{
+		if (isReadOnly())
+		{
+			return readMapped(indexId, archiveId, sector, size, dest);
+		}
+
+		return readFile(indexId, archiveId, sector, size, dest);
+	}
+
+	private synchronized boolean readFile(int indexId, int archiveId, int sector, int size, byte[] dest) throws IOException
+	{
+		long length = dat.length();
+		if (sector <= 0L || length / SECTOR_SIZE < (long) sector)
 		{
-			logger.warn("bad read, dat length {}, requested sector {}", dat.length(), sector);
-			return null;
+			logger.warn("bad read, dat length {}, requested sector {}", length, sector);
+			return false;
 		}
 
-		byte[] readBuffer = new byte[SECTOR_SIZE];
-		ByteBuffer buffer = ByteBuffer.allocate(size);
+		int headerSize = archiveId > 0xFFFF ? 10 : 8;
 
 		for (int part = 0, readBytesCount = 0, nextSector;
 			size > readBytesCount;
@@ -84,64 +173,117 @@ public class DataFile implements Closeable
 			if (sector == 0)
 			{
 				logger.warn("Unexpected end of file");
-				return null;
+				return false;
 			}
 
 			dat.seek(SECTOR_SIZE * sector);
 
-			int dataBlockSize = size - readBytesCount;
-			byte headerSize;
+			int dataBlockSize = Math.min(size - readBytesCount, SECTOR_SIZE - headerSize);
+			if (dat.read(header, 0, headerSize) != headerSize
+				|| dat.read(dest, readBytesCount, dataBlockSize) != dataBlockSize)
+			{
+				logger.warn("Short read when reading file data for {}/{}", indexId, archiveId);
+				return false;
+			}
+
 			int currentIndex;
 			int currentPart;
 			int currentArchive;
-			if (archiveId > 0xFFFF)
+			if (headerSize == 10)
 			{
-				headerSize = 10;
-				if (dataBlockSize > SECTOR_SIZE - headerSize)
-				{
-					dataBlockSize = SECTOR_SIZE - headerSize;
-				}
+				currentArchive = ((header[0] & 0xFF) << 24)
+					| ((header[1] & 0xFF) << 16)
+					| ((header[2] & 0xFF) << 8)
+					| (header[3] & 0xFF);
+				currentPart = ((header[4] & 0xFF) << 8) + (header[5] & 0xFF);
+				nextSector = ((header[6] & 0xFF) << 16)
+					| ((header[7] & 0xFF) << 8)
+					| (header[8] & 0xFF);
+				currentIndex = header[9] & 0xFF;
+			}
+			else
+			{
+				currentArchive = ((header[0] & 0xFF) << 8)
+					| (header[1] & 0xFF);
+				currentPart = ((header[2] & 0xFF) << 8)
+					| (header[3] & 0xFF);
+				nextSector = ((header[4] & 0xFF) << 16)
+					| ((header[5] & 0xFF) << 8)
+					| (header[6] & 0xFF);
+				currentIndex = header[7] & 0xFF;
+			}
 
-				int i = dat.read(readBuffer, 0, headerSize + dataBlockSize);
-				if (i != headerSize + dataBlockSize)
-				{
-					logger.warn("Short read when reading file data for {}/{}", indexId, archiveId);
-					return null;
-				}
+			if (archiveId != currentArchive || currentPart != part || indexId != currentIndex)
+			{
+				logger.warn("data mismatch {} != {}, {} != {}, {} != {}",
+					archiveId, currentArchive,
+					part, currentPart,
+					indexId, currentIndex);
+				return false;
+			}
 
-				currentArchive = ((readBuffer[0] & 0xFF) << 24)
-					| ((readBuffer[1] & 0xFF) << 16)
-					| ((readBuffer[2] & 0xFF) << 8)
-					| (readBuffer[3] & 0xFF);
-				currentPart = ((readBuffer[4] & 0xFF) << 8) + (readBuffer[5] & 0xFF);
-				nextSector = ((readBuffer[6] & 0xFF) << 16)
-					| ((readBuffer[7] & 0xFF) << 8)
-					| (readBuffer[8] & 0xFF);
-				currentIndex = readBuffer[9] & 0xFF;
+			if (nextSector < 0 || length / SECTOR_SIZE < (long) nextSector)
+			{
+				logger.warn("Invalid next sector");
+				return false;
 			}
-			else
+
+			readBytesCount += dataBlockSize;
+
+			++part;
+		}
+
+		return true;
+	}
+
+	private boolean readMapped(int indexId, int archiveId, int sector, int size, byte[] dest)
+	{
+		long sectorCount = mappedLength / SECTOR_SIZE;
+		if (sector <= 0L || sectorCount < (long) sector)
+		{
+			logger.warn("bad read, dat length {}, requested sector {}", mappedLength, sector);
+			return false;
+		}
+
+		int headerSize = archiveId > 0xFFFF ? 10 : 8;
+
+		for (int part = 0, readBytesCount = 0, nextSector;
+			size > readBytesCount;
+			sector = nextSector)
+		{
+			if (sector == 0)
 			{
-				headerSize = 8;
-				if (dataBlockSize > SECTOR_SIZE - headerSize)
-				{
-					dataBlockSize = SECTOR_SIZE - headerSize;
-				}
+				logger.warn("Unexpected end of file");
+				return false;
+			}
 
-				int i = dat.read(readBuffer, 0, headerSize + dataBlockSize);
-				if (i != headerSize + dataBlockSize)
-				{
-					logger.warn("short read");
-					return null;
-				}
+			int dataBlockSize = Math.min(size - readBytesCount, SECTOR_SIZE - headerSize);
+			ByteBuffer map = mappings[sector / SECTORS_PER_MAPPING];
+			int pos = (sector % SECTORS_PER_MAPPING) * SECTOR_SIZE;
+			if (pos + headerSize + dataBlockSize > map.limit())
+			{
+				logger.warn("Short read when reading file data for {}/{}", indexId, archiveId);
+				return false;
+			}
 
-				currentArchive = ((readBuffer[0] & 0xFF) << 8)
-					| (readBuffer[1] & 0xFF);
-				currentPart = ((readBuffer[2] & 0xFF) << 8)
-					| (readBuffer[3] & 0xFF);
-				nextSector = ((readBuffer[4] & 0xFF) << 16)
-					| ((readBuffer[5] & 0xFF) << 8)
-					| (readBuffer[6] & 0xFF);
-				currentIndex = readBuffer[7] & 0xFF;
+			int currentIndex;
+			int currentPart;
+			int currentArchive;
+			if (headerSize == 10)
+			{
+				currentArchive = map.getInt(pos);
+				currentPart = map.getShort(pos + 4) & 0xFFFF;
+				nextSector = ((map.get(pos + 6) & 0xFF) << 16)
+					| (map.getShort(pos + 7) & 0xFFFF);
+				currentIndex = map.get(pos + 9) & 0xFF;
+			}
+			else
+			{
+				currentArchive = map.getShort(pos) & 0xFFFF;
+				currentPart = map.getShort(pos + 2) & 0xFFFF;
+				nextSector = ((map.get(pos + 4) & 0xFF) << 16)
+					| (map.getShort(pos + 5) & 0xFFFF);
+				currentIndex = map.get(pos + 7) & 0xFF;
 			}
 
 			if (archiveId != currentArchive || currentPart != part || indexId != currentIndex)
@@ -150,27 +292,34 @@ public class DataFile implements Closeable
 					archiveId, currentArchive,
 					part, currentPart,
 					indexId, currentIndex);
-				return null;
+				return false;
 			}
 
-			if (nextSector < 0 || dat.length() / SECTOR_SIZE < (long) nextSector)
+			if (nextSector < 0 || sectorCount < (long) nextSector)
 			{
 				logger.warn("Invalid next sector");
-				return null;
+				return false;
 			}
 
-			buffer.put(readBuffer, headerSize, dataBlockSize);
+			// the mapping is shared between threads, so copy through a private view of it
+			ByteBuffer view = map.duplicate();
+			view.position(pos + headerSize);
+			view.get(dest, readBytesCount, dataBlockSize);
 			readBytesCount += dataBlockSize;
 
 			++part;
 		}
 
-		buffer.flip();
-		return buffer.array();
+		return true;
 	}
 
 	public synchronized DataFileWriteResult write(int indexId, int archiveId, byte[] compressedData) throws IOException
 	{
+		if (isReadOnly())
+		{
+			throw new IOException("data file is read only");
+		}
+
 		int sector;
 		int startSector;
 
@@ -25,7 +25,6 @@
 package net.runelite.cache.fs.jagex;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
@@ -46,18 +45,42 @@ public class DiskStorage implements Storage
 	private static final String MAIN_FILE_CACHE_DAT = "main_file_cache.dat2";
 	private static final String MAIN_FILE_CACHE_IDX = "main_file_cache.idx";
 
+	// per thread buffer archives are read into by decompressArchive
+	private static final ThreadLocal<byte[]> ARCHIVE_BUFFER = ThreadLocal.withInitial(() -> new byte[0]);
+
 	private final File folder;
+	private final boolean readOnly;
 
 	private final DataFile data;
 	private final IndexFile index255;
 	private final List<IndexFile> indexFiles = new ArrayList<>();
 
 	public DiskStorage(File folder) throws IOException
+	{
+		this(folder, false);
+	}
+
+	/**
+	 * @param folder cache folder
+	 * @param readOnly memory map the cache files for lock free, concurrent reads.
+	 * The cache can not be saved to in this mode.
+	 * @throws IOException
+	 */
+	public DiskStorage(File folder, boolean readOnly) throws IOException
 	{
 		this.folder = folder;
+		this.readOnly = readOnly;
 
-		this.data = new DataFile(new File(folder, MAIN_FILE_CACHE_DAT));
-		this.index255 = new IndexFile(255, new File(folder, MAIN_FILE_CACHE_IDX + "255"));
+		if (readOnly)
+		{
+			this.data = DataFile.openReadOnly(new File(folder, MAIN_FILE_CACHE_DAT));
+			this.index255 = IndexFile.openReadOnly(255, new File(folder, MAIN_FILE_CACHE_IDX + "255"));
+		}
+		else
+		{
+			this.data = new DataFile(new File(folder, MAIN_FILE_CACHE_DAT));
+			this.index255 = new IndexFile(255, new File(folder, MAIN_FILE_CACHE_IDX + "255"));
+		}
 	}
 
 	@Override
@@ -83,7 +106,7 @@ public class DiskStorage implements Storage
 		}
 	}
 
-	private IndexFile getIndex(int i) throws FileNotFoundException
+	private IndexFile getIndex(int i) throws IOException
 	{
 		if (i == 255)
 		{
@@ -98,7 +121,8 @@ public class DiskStorage implements Storage
 			}
 		}
 
-		IndexFile indexFile = new IndexFile(i, new File(folder, MAIN_FILE_CACHE_IDX + i));
+		File file = new File(folder, MAIN_FILE_CACHE_IDX + i);
+		IndexFile indexFile = readOnly ? IndexFile.openReadOnly(i, file) : new IndexFile(i, file);
 		indexFiles.add(indexFile);
 		return indexFile;
 	}
@@ -208,6 +232,34 @@ public class DiskStorage implements Storage
 		return archiveData;
 	}
 
+	@Override
+	public byte[] decompressArchive(Archive archive, int[] keys) throws IOException
+	{
+		int index = archive.getIndex().getId();
+		IndexFile indexFile = getIndex(index);
+
+		IndexEntry entry = indexFile.read(archive.getArchiveId());
+		if (entry == null)
+		{
+			logger.debug("can't read archive {} from index {}", archive.getArchiveId(), index);
+			return null;
+		}
+
+		byte[] buffer = ARCHIVE_BUFFER.get();
+		if (buffer.length < entry.getLength())
+		{
+			buffer = new byte[entry.getLength()];
+			ARCHIVE_BUFFER.set(buffer);
+		}
+
+		if (!data.read(index, entry.getId(), entry.getSector(), entry.getLength(), buffer))
+		{
+			return null;
+		}
+
+		return archive.decompress(buffer, 0, entry.getLength(), keys);
+	}
+
 	@Override
 	public void store(int index, int archive, byte[] archiveData) throws IOException
 	{
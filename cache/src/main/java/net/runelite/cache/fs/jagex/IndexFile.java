@@ -29,6 +29,8 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,22 +45,76 @@ public class IndexFile implements Closeable
 	private final File file;
 	private final RandomAccessFile idx;
 	private final byte[] buffer = new byte[INDEX_ENTRY_LEN];
+	// read only mapping of the whole file, null when writable
+	private final ByteBuffer mapping;
 
 	public IndexFile(int indexFileId, File file) throws FileNotFoundException
 	{
 		this.indexFileId = indexFileId;
 		this.file = file;
 		this.idx = new RandomAccessFile(file, "rw");
+		this.mapping = null;
+	}
+
+	private IndexFile(int indexFileId, File file, RandomAccessFile idx, ByteBuffer mapping)
+	{
+		this.indexFileId = indexFileId;
+		this.file = file;
+		this.idx = idx;
+		this.mapping = mapping;
+	}
+
+	/**
+	 * Opens an index file for reading only. The file is memory mapped and
+	 * {@link #read(int)} does not lock, so it may be called from any number
+	 * of threads. A missing file reads as an empty index.
+	 *
+	 * @param indexFileId index id
+	 * @param file index file
+	 * @return the mapped index file
+	 * @throws IOException
+	 */
+	public static IndexFile openReadOnly(int indexFileId, File file) throws IOException
+	{
+		if (!file.exists())
+		{
+			return new IndexFile(indexFileId, file, null, ByteBuffer.allocate(0));
+		}
+
+		RandomAccessFile idx = new RandomAccessFile(file, "r");
+		try
+		{
+			ByteBuffer mapping = idx.getChannel().map(FileChannel.MapMode.READ_ONLY, 0L, idx.length());
+			return new IndexFile(indexFileId, file, idx, mapping);
+		}
+		catch (IOException ex)
+		{
+			idx.close();
+			throw ex;
+		}
+	}
+
+	public boolean isReadOnly()
+	{
+		return mapping != null;
 	}
 
 	@Override
 	public void close() throws IOException
 	{
-		idx.close();
+		if (idx != null)
+		{
+			idx.close();
+		}
 	}
 
 	public void clear() throws IOException
 	{
+		if (isReadOnly())
+		{
+			throw new IOException("index file is read only");
+		}
+
 		idx.setLength(0L);
 	}
 
@@ -96,6 +152,11 @@ public class IndexFile implements Closeable
 
 	public synchronized void write(IndexEntry entry) throws IOException
 	{
+		if (isReadOnly())
+		{
+			throw new IOException("index file is read only");
+		}
+
 		idx.seek(entry.getId() * INDEX_ENTRY_LEN);
 
 		buffer[0] = (byte) (entry.getLength() >> 16);
@@ -109,7 +170,17 @@ public class IndexFile implements Closeable
 		idx.write(buffer);
 	}
 
-	public synchronized IndexEntry read(int id) throws IOException
+	public IndexEntry read(int id) throws IOException
+	{
+		if (isReadOnly())
+		{
+			return readMapped(id);
+		}
+
+		return readFile(id);
+	}
+
+	private synchronized IndexEntry readFile(int id) throws IOException
 	{
 		idx.seek(id * INDEX_ENTRY_LEN);
 		int i = idx.read(buffer);
@@ -122,6 +193,26 @@ public class IndexFile implements Closeable
 		int length = ((buffer[0] & 0xFF) << 16) | ((buffer[1] & 0xFF) << 8) | (buffer[2] & 0xFF);
 		int sector = ((buffer[3] & 0xFF) << 16) | ((buffer[4] & 0xFF) << 8) | (buffer[5] & 0xFF);
 
+		return toEntry(id, length, sector);
+	}
+
+	private IndexEntry readMapped(int id)
+	{
+		int pos = id * INDEX_ENTRY_LEN;
+		if (id < 0 || pos + INDEX_ENTRY_LEN > mapping.limit())
+		{
+			logger.debug("short read for id {} on index {}", id, indexFileId);
+			return null;
+		}
+
+		int length = ((mapping.get(pos) & 0xFF) << 16) | (mapping.getShort(pos + 1) & 0xFFFF);
+		int sector = ((mapping.get(pos + 3) & 0xFF) << 16) | (mapping.getShort(pos + 4) & 0xFFFF);
+
+		return toEntry(id, length, sector);
+	}
+
+	private IndexEntry toEntry(int id, int length, int sector)
+	{
 		if (length <= 0 || sector <= 0)
 		{
 			logger.debug("invalid length or sector {}/{}", length, sector);
@@ -133,6 +224,11 @@ public class IndexFile implements Closeable
 
 	public synchronized int getIndexCount() throws IOException
 	{
+		if (isReadOnly())
+		{
+			return mapping.limit() / INDEX_ENTRY_LEN;
+		}
+
 		return (int) (idx.length() / INDEX_ENTRY_LEN);
 	}
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.models;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import net.runelite.cache.TextureManager;
+import net.runelite.cache.definitions.ModelDefinition;
+import net.runelite.cache.definitions.providers.ModelProvider;
+
+/**
+ * Summarises each model once, no matter how many objects and npcs use it or how often
+ * they are placed. Safe to share between threads and dumpers.
+ */
+public class ModelSummaries
+{
+	// stands in for models that don't exist, since the map can't hold null
+	private static final ModelSummary MISSING = ModelSummary.combine();
+
+	private final ModelProvider modelProvider;
+	private final TextureManager textureManager;
+	private final ConcurrentMap<Integer, ModelSummary> summaries = new ConcurrentHashMap<>();
+
+	public ModelSummaries(ModelProvider modelProvider, TextureManager textureManager)
+	{
+		this.modelProvider = modelProvider;
+		this.textureManager = textureManager;
+	}
+
+	/**
+	 * Gets the summary of a model, or null if there is no such model
+	 */
+	public ModelSummary get(int modelId) throws IOException
+	{
+		ModelSummary summary = summaries.get(modelId);
+		if (summary == null)
+		{
+			// two threads may both summarise a model the first time it is seen, which is harmless
+			ModelDefinition model = modelProvider.provide(modelId);
+			summary = model == null ? MISSING : ModelSummary.of(textureManager, model);
+			summaries.putIfAbsent(modelId, summary);
+		}
+		return summary == MISSING ? null : summary;
+	}
+
+	/**
+	 * Gets the combined summary of the models of an object or npc, skipping models which
+	 * don't exist.
+	 *
+	 * @see ModelSummary#combine(ModelSummary...)
+	 */
+	public ModelSummary get(int[] modelIds) throws IOException
+	{
+		if (modelIds.length == 1)
+		{
+			ModelSummary summary = get(modelIds[0]);
+			return summary == null ? ModelSummary.EMPTY : summary;
+		}
+
+		ModelSummary[] models = new ModelSummary[modelIds.length];
+		int count = 0;
+		for (int modelId : modelIds)
+		{
+			ModelSummary summary = get(modelId);
+			if (summary != null)
+			{
+				models[count++] = summary;
+			}
+		}
+		return ModelSummary.combine(Arrays.copyOf(models, count));
+	}
+
+	public int size()
+	{
+		return summaries.size();
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.models;
+
+import java.util.Arrays;
+import net.runelite.cache.TextureManager;
+import net.runelite.cache.definitions.ModelDefinition;
+import net.runelite.cache.definitions.TextureDefinition;
+import net.runelite.cache.util.IntHashSet;
+
+/**
+ * The parts of a model the Simba exports use: its height, and the distinct colours of its
+ * faces as BGR, in the order they first appear. Instances are immutable.
+ */
+public final class ModelSummary
+{
+	public static final ModelSummary EMPTY = new ModelSummary(0, new int[0]);
+
+	private final int height;
+	private final int[] colors;
+
+	private ModelSummary(int height, int[] colors)
+	{
+		this.height = height;
+		this.colors = colors;
+	}
+
+	public static ModelSummary of(TextureManager textureManager, ModelDefinition model)
+	{
+		int height = 0;
+		for (int y : model.vertexY)
+		{
+			// y points down
+			if (-y > height)
+			{
+				height = -y;
+			}
+		}
+
+		IntHashSet textures = new IntHashSet();
+		IntHashSet hsls = new IntHashSet();
+		IntHashSet bgrs = new IntHashSet();
+		int[] colors = new int[16];
+		int count = 0;
+
+		for (int i = 0; i < model.faceCount; ++i)
+		{
+			int textureId = model.faceTextures != null ? model.faceTextures[i] : -1;
+
+			int rgb;
+			if (textureId != -1)
+			{
+				if (!textures.add(textureId))
+				{
+					continue;
+				}
+				TextureDefinition texture = textureManager.findTexture(textureId);
+				rgb = JagexColor.adjustForBrightness(texture.field1777, JagexColor.BRIGHTNESS_MAX);
+			}
+			else
+			{
+				short hsl = model.faceColors[i];
+				if (!hsls.add(hsl))
+				{
+					continue;
+				}
+				rgb = JagexColor.HSLtoRGB(hsl, JagexColor.BRIGHTNESS_MAX);
+			}
+
+			int bgr = JagexColor.RGBtoBGR(rgb);
+			if (bgrs.add(bgr))
+			{
+				if (count == colors.length)
+				{
+					colors = Arrays.copyOf(colors, count * 2);
+				}
+				colors[count++] = bgr;
+			}
+		}
+
+		return new ModelSummary(height, Arrays.copyOf(colors, count));
+	}
+
+	/**
+	 * Combines the summaries of the models of one object or npc: the first non zero height,
+	 * and the colours of each model one after the other. Colours shared by two models are
+	 * listed for both.
+	 */
+	public static ModelSummary combine(ModelSummary... summaries)
+	{
+		int height = 0;
+		int count = 0;
+		for (ModelSummary summary : summaries)
+		{
+			if (height == 0)
+			{
+				height = summary.height;
+			}
+			count += summary.colors.length;
+		}
+
+		int[] colors = new int[count];
+		int pos = 0;
+		for (ModelSummary summary : summaries)
+		{
+			System.arraycopy(summary.colors, 0, colors, pos, summary.colors.length);
+			pos += summary.colors.length;
+		}
+		return new ModelSummary(height, colors);
+	}
+
+	/**
+	 * Gets the highest point of the model above its origin
+	 */
+	public int getHeight()
+	{
+		return height;
+	}
+
+	/**
+	 * Gets a copy of the model's colours, as BGR
+	 */
+	public int[] getColors()
+	{
+		return colors.clone();
+	}
+
+	public int getColorCount()
+	{
+		return colors.length;
+	}
+
+	public int getColor(int index)
+	{
+		return colors[index];
+	}
+}
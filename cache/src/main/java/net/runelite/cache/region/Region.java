@@ -25,6 +25,8 @@
 package net.runelite.cache.region;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import net.runelite.cache.definitions.LocationsDefinition;
 import net.runelite.cache.definitions.MapDefinition;
@@ -49,6 +51,8 @@ public class Region
 	private final short[][][] underlayIds = new short[Z][X][Y];
 
 	private final List<Location> locations = new ArrayList<>();
+	// locations bucketed by plane and local tile, see tileIndex; null until locations are loaded
+	private Location[][] tileLocations;
 
 	public Region(int id)
 	{
@@ -125,6 +129,54 @@ public class Region
 					loc.getPosition().getZ()));
 			locations.add(newLoc);
 		}
+
+		indexLocations();
+	}
+
+	private void indexLocations()
+	{
+		int[] counts = new int[Z * X * Y];
+		for (Location loc : locations)
+		{
+			int idx = tileIndex(loc.getPosition());
+			if (idx != -1)
+			{
+				++counts[idx];
+			}
+		}
+
+		Location[][] index = new Location[Z * X * Y][];
+		for (Location loc : locations)
+		{
+			int idx = tileIndex(loc.getPosition());
+			if (idx == -1)
+			{
+				continue;
+			}
+
+			if (index[idx] == null)
+			{
+				index[idx] = new Location[counts[idx]];
+				counts[idx] = 0;
+			}
+			index[idx][counts[idx]++] = loc;
+		}
+
+		tileLocations = index;
+	}
+
+	private int tileIndex(Position position)
+	{
+		return tileIndex(position.getZ(), position.getX() - baseX, position.getY() - baseY);
+	}
+
+	private static int tileIndex(int z, int x, int y)
+	{
+		if (z < 0 || z >= Z || x < 0 || x >= X || y < 0 || y >= Y)
+		{
+			return -1;
+		}
+		return (z * X + x) * Y + y;
 	}
 
 	public int getRegionID()
@@ -177,6 +229,20 @@ public class Region
 		return locations;
 	}
 
+	/**
+	 * Returns the locations on the given plane and local tile, in the order
+	 * they were loaded. Coordinates outside the region yield an empty list.
+	 */
+	public List<Location> getLocations(int z, int x, int y)
+	{
+		int idx = tileIndex(z, x, y);
+		if (idx == -1 || tileLocations == null || tileLocations[idx] == null)
+		{
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(Arrays.asList(tileLocations[idx]));
+	}
+
 	public int getRegionX()
 	{
 		return baseX >> 6;
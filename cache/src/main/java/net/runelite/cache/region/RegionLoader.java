@@ -25,9 +25,18 @@
 package net.runelite.cache.region;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.cache.IndexType;
 import net.runelite.cache.definitions.LocationsDefinition;
@@ -44,6 +53,8 @@ import net.runelite.cache.util.KeyProvider;
 public class RegionLoader
 {
 	private static final int MAX_REGION = 32768;
+	// regions per task when loading in parallel, one column of regions
+	private static final int REGIONS_PER_TASK = 256;
 
 	private final Store store;
 	private final Index index;
@@ -60,18 +71,103 @@ public class RegionLoader
 		this.keyProvider = keyProvider;
 	}
 
+	/**
+	 * Time spent in each stage of region loading, summed over all threads
+	 */
+	private static class LoadTimings
+	{
+		final LongAdder load = new LongAdder();
+		final LongAdder decode = new LongAdder();
+	}
+
 	public void loadRegions() throws IOException
+	{
+		loadRegions(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Load all regions, decoding them on {@code threads} threads. The
+	 * resulting regions, their iteration order and bounds are the same as
+	 * when loading them serially.
+	 */
+	public void loadRegions(int threads) throws IOException
 	{
 		if (!this.regions.isEmpty())
 		{
 			return;
 		}
 
-		for (int i = 0; i < MAX_REGION; ++i)
+		long start = System.nanoTime();
+		LoadTimings timings = new LoadTimings();
+		Region[] loaded = new Region[MAX_REGION];
+
+		if (threads <= 1)
+		{
+			loadRegions(loaded, 0, MAX_REGION, timings);
+		}
+		else
 		{
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
 			try
 			{
-				this.loadRegionFromArchive(i);
+				List<Callable<Void>> tasks = new ArrayList<>();
+				for (int i = 0; i < MAX_REGION; i += REGIONS_PER_TASK)
+				{
+					final int from = i;
+					tasks.add(() ->
+					{
+						loadRegions(loaded, from, Math.min(from + REGIONS_PER_TASK, MAX_REGION), timings);
+						return null;
+					});
+				}
+
+				for (Future<Void> future : executor.invokeAll(tasks))
+				{
+					future.get();
+				}
+			}
+			catch (InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while loading regions", ex);
+			}
+			catch (ExecutionException ex)
+			{
+				if (ex.getCause() instanceof RuntimeException)
+				{
+					throw (RuntimeException) ex.getCause();
+				}
+				throw new IOException(ex.getCause());
+			}
+			finally
+			{
+				executor.shutdownNow();
+			}
+		}
+
+		// insert in region id order so iteration order matches a serial load
+		for (Region region : loaded)
+		{
+			if (region != null)
+			{
+				regions.put(region.getRegionID(), region);
+			}
+		}
+
+		log.info("Loaded {} regions on {} threads in {}ms (read and decompress {}ms, decode {}ms)",
+			regions.size(), Math.max(threads, 1),
+			TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+			TimeUnit.NANOSECONDS.toMillis(timings.load.sum()),
+			TimeUnit.NANOSECONDS.toMillis(timings.decode.sum()));
+	}
+
+	private void loadRegions(Region[] loaded, int from, int to, LoadTimings timings)
+	{
+		for (int i = from; i < to; ++i)
+		{
+			try
+			{
+				loaded[i] = this.decodeRegion(i, timings);
 			}
 			catch (IOException ex)
 			{
@@ -81,6 +177,16 @@ public class RegionLoader
 	}
 
 	public Region loadRegionFromArchive(int i) throws IOException
+	{
+		Region region = decodeRegion(i, null);
+		if (region != null)
+		{
+			regions.put(i, region);
+		}
+		return region;
+	}
+
+	private Region decodeRegion(int i, LoadTimings timings) throws IOException
 	{
 		int x = i >> 8;
 		int y = i & 0xFF;
@@ -96,22 +202,38 @@ public class RegionLoader
 			return null;
 		}
 
-		byte[] data = map.decompress(storage.loadArchive(map));
+		long t0 = System.nanoTime();
+		byte[] data = storage.decompressArchive(map, null);
+		long t1 = System.nanoTime();
 
 		MapDefinition mapDef = new MapLoader().load(x, y, data);
 
 		Region region = new Region(i);
 		region.loadTerrain(mapDef);
+		long t2 = System.nanoTime();
+
+		if (timings != null)
+		{
+			timings.load.add(t1 - t0);
+			timings.decode.add(t2 - t1);
+		}
 
 		int[] keys = keyProvider.getKey(i);
 		if (keys != null)
 		{
-			data = land.decompress(storage.loadArchive(land), keys);
+			t0 = System.nanoTime();
+			data = storage.decompressArchive(land, keys);
+			t1 = System.nanoTime();
 			LocationsDefinition locDef = new LocationsLoader().load(x, y, data);
 			region.loadLocations(locDef);
-		}
+			t2 = System.nanoTime();
 
-		regions.put(i, region);
+			if (timings != null)
+			{
+				timings.load.add(t1 - t0);
+				timings.decode.add(t2 - t1);
+			}
+		}
 
 		return region;
 	}
@@ -30,6 +30,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.util.Arrays;
 import static net.runelite.cache.util.LibBZip2.BZ_FINISH_OK;
 import static net.runelite.cache.util.LibBZip2.BZ_OK;
@@ -49,6 +50,8 @@ public class BZip2
 		'1'       // block size
 	};
 
+	private static final ThreadLocal<BZip2Decoder> DECODER = ThreadLocal.withInitial(BZip2Decoder::new);
+
 	public static byte[] compress(byte[] bytes) throws IOException
 	{
 		return USE_NATIVE_BZIP2 ? compressLibBZip2(bytes) : compressApache(bytes);
@@ -128,19 +131,45 @@ public class BZip2
 
 	public static byte[] decompress(byte[] bytes, int len) throws IOException
 	{
-		byte[] data = new byte[len + BZIP_HEADER.length];
+		return decompress(bytes, 0, len);
+	}
 
-		// add header
-		System.arraycopy(BZIP_HEADER, 0, data, 0, BZIP_HEADER.length);
-		System.arraycopy(bytes, 0, data, BZIP_HEADER.length, len);
+	public static byte[] decompress(byte[] bytes, int off, int len) throws IOException
+	{
+		// add header in front of the stream rather than copying the data after it
+		InputStream data = new SequenceInputStream(
+			new ByteArrayInputStream(BZIP_HEADER),
+			new ByteArrayInputStream(bytes, off, len));
 
 		ByteArrayOutputStream os = new ByteArrayOutputStream();
 
-		try (InputStream is = new BZip2CompressorInputStream(new ByteArrayInputStream(data)))
+		try (InputStream is = new BZip2CompressorInputStream(data))
 		{
 			IOUtils.copy(is, os);
 		}
 
 		return os.toByteArray();
 	}
+
+	/**
+	 * Decompresses data of known decompressed length straight into its result,
+	 * reusing per-thread decoder tables. Streams with randomised blocks go
+	 * through commons-compress instead.
+	 */
+	public static byte[] decompress(byte[] bytes, int off, int len, int decompressedLength) throws IOException
+	{
+		try
+		{
+			return DECODER.get().decode(bytes, off, len, decompressedLength);
+		}
+		catch (BZip2Decoder.RandomisedBlockException ex)
+		{
+			byte[] data = decompress(bytes, off, len);
+			if (data.length != decompressedLength)
+			{
+				throw new IOException("bzip2 length mismatch: " + data.length + " != " + decompressedLength);
+			}
+			return data;
+		}
+	}
 }
@@ -0,0 +1,592 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Decodes headerless bzip2 streams, as stored in the cache, straight into an
+ * array of known length. Scratch tables are kept between calls, so use one
+ * instance per thread.
+ */
+class BZip2Decoder
+{
+	/**
+	 * Thrown for the deprecated randomised blocks, which bzip2 hasn't written
+	 * since 0.9.5 and which this decoder does not handle.
+	 */
+	static class RandomisedBlockException extends IOException
+	{
+		RandomisedBlockException()
+		{
+			super("randomised bzip2 blocks are not supported");
+		}
+	}
+
+	private static final int BLOCK_MAGIC_HI = 0x314159;
+	private static final int BLOCK_MAGIC_LO = 0x265359;
+	private static final int EOS_MAGIC_HI = 0x177245;
+	private static final int EOS_MAGIC_LO = 0x385090;
+
+	private static final int RUNA = 0;
+	private static final int RUNB = 1;
+
+	private static final int MAX_BLOCK_SIZE = 900000;
+	private static final int MAX_GROUPS = 6;
+	private static final int MIN_GROUPS = 2;
+	private static final int GROUP_SIZE = 50;
+	private static final int MAX_ALPHA_SIZE = 258;
+	private static final int MAX_CODE_LEN = 20;
+	private static final int MAX_SELECTORS = 18002;
+
+	// codes up to this long are decoded with a single table lookup
+	private static final int LOOKUP_BITS = 10;
+
+	private static final int[] CRC_TABLE = new int[256];
+
+	static
+	{
+		for (int i = 0; i < 256; ++i)
+		{
+			int c = i << 24;
+			for (int j = 0; j < 8; ++j)
+			{
+				c = (c & 0x80000000) != 0 ? (c << 1) ^ 0x04C11DB7 : c << 1;
+			}
+			CRC_TABLE[i] = c;
+		}
+	}
+
+	private byte[] in;
+	private int inPos;
+	private int inEnd;
+	private long bitBuffer;
+	private int bitCount;
+
+	private int origPtr;
+	private int[] tt = new int[0];
+	private final byte[] selectors = new byte[MAX_SELECTORS];
+	private final byte[][] lengths = new byte[MAX_GROUPS][MAX_ALPHA_SIZE];
+	private final int[][] limit = new int[MAX_GROUPS][MAX_CODE_LEN + 2];
+	private final int[][] base = new int[MAX_GROUPS][MAX_CODE_LEN + 2];
+	private final int[][] perm = new int[MAX_GROUPS][MAX_ALPHA_SIZE];
+	private final int[] minLens = new int[MAX_GROUPS];
+	private final int[] maxLens = new int[MAX_GROUPS];
+	// (symbol << 5) | code length, 0 when the code is longer than LOOKUP_BITS
+	private final short[][] lookup = new short[MAX_GROUPS][1 << LOOKUP_BITS];
+	private final byte[] seqToUnseq = new byte[256];
+	private final byte[] mtf = new byte[256];
+	private final int[] unzftab = new int[256];
+	private final int[] cftab = new int[257];
+
+	/**
+	 * @param data compressed data, without the "BZh" stream header
+	 * @param off offset of the first block header
+	 * @param len length of the compressed data
+	 * @param decompressedLength expected length of the decompressed data
+	 * @return the decompressed data
+	 * @throws IOException
+	 */
+	byte[] decode(byte[] data, int off, int len, int decompressedLength) throws IOException
+	{
+		in = data;
+		inPos = off;
+		inEnd = off + len;
+		bitBuffer = 0L;
+		bitCount = 0;
+
+		try
+		{
+			int magicHi = bits(24);
+			int magicLo = bits(24);
+
+			// check the stream looks like bzip2 before allocating what may be a garbage length
+			boolean block = magicHi == BLOCK_MAGIC_HI && magicLo == BLOCK_MAGIC_LO;
+			if (!block && (magicHi != EOS_MAGIC_HI || magicLo != EOS_MAGIC_LO))
+			{
+				throw new IOException("bad bzip2 block header");
+			}
+
+			byte[] out = new byte[decompressedLength];
+			int outPos = 0;
+			int combinedCrc = 0;
+
+			while (block)
+			{
+				int storedCrc = (bits(16) << 16) | bits(16);
+				int blockCrc = ~0;
+
+				int count = decodeBlock();
+				int origPtr = this.origPtr;
+				if (origPtr < 0 || origPtr >= count)
+				{
+					throw new IOException("bad bzip2 origin pointer");
+				}
+
+				// undo the BWT, see "fast" unRLE_obuf_to_output in bzip2
+				int[] tt = this.tt;
+				int[] cftab = this.cftab;
+				cftab[0] = 0;
+				for (int i = 0; i < 256; ++i)
+				{
+					cftab[i + 1] = cftab[i] + unzftab[i];
+				}
+				for (int i = 0; i < count; ++i)
+				{
+					int uc = tt[i] & 0xFF;
+					tt[cftab[uc]++] |= i << 8;
+				}
+
+				// and the initial run length encoding, computing the crc as we go
+				int tPos = tt[origPtr] >>> 8;
+				int last = -1;
+				int run = 0;
+				for (int i = 0; i < count; ++i)
+				{
+					tPos = tt[tPos];
+					int ch = tPos & 0xFF;
+					tPos >>>= 8;
+
+					if (run == 4)
+					{
+						if (outPos + ch > out.length)
+						{
+							throw new IOException("bzip2 data is longer than expected");
+						}
+						for (int j = 0; j < ch; ++j)
+						{
+							out[outPos++] = (byte) last;
+							blockCrc = (blockCrc << 8) ^ CRC_TABLE[(blockCrc >>> 24) ^ last];
+						}
+						run = 0;
+						continue;
+					}
+
+					if (ch == last)
+					{
+						++run;
+					}
+					else
+					{
+						run = 1;
+						last = ch;
+					}
+
+					if (outPos >= out.length)
+					{
+						throw new IOException("bzip2 data is longer than expected");
+					}
+					out[outPos++] = (byte) ch;
+					blockCrc = (blockCrc << 8) ^ CRC_TABLE[(blockCrc >>> 24) ^ ch];
+				}
+
+				blockCrc = ~blockCrc;
+				if (blockCrc != storedCrc)
+				{
+					throw new IOException("bzip2 block crc mismatch");
+				}
+				combinedCrc = ((combinedCrc << 1) | (combinedCrc >>> 31)) ^ blockCrc;
+
+				magicHi = bits(24);
+				magicLo = bits(24);
+				block = magicHi == BLOCK_MAGIC_HI && magicLo == BLOCK_MAGIC_LO;
+				if (!block && (magicHi != EOS_MAGIC_HI || magicLo != EOS_MAGIC_LO))
+				{
+					throw new IOException("bad bzip2 block header");
+				}
+			}
+
+			int storedCombinedCrc = (bits(16) << 16) | bits(16);
+			if (storedCombinedCrc != combinedCrc)
+			{
+				throw new IOException("bzip2 stream crc mismatch");
+			}
+
+			if (outPos != out.length)
+			{
+				throw new IOException("bzip2 data is shorter than expected: " + outPos + " != " + out.length);
+			}
+
+			return out;
+		}
+		finally
+		{
+			in = null;
+		}
+	}
+
+	/**
+	 * Decodes the huffman and move to front coded symbols of a block into the
+	 * low bytes of tt.
+	 *
+	 * @return the number of bytes in the block
+	 */
+	private int decodeBlock() throws IOException
+	{
+		if (bits(1) != 0)
+		{
+			throw new RandomisedBlockException();
+		}
+
+		origPtr = bits(24);
+
+		// the symbols in use
+		int nInUse = 0;
+		int inUse16 = bits(16);
+		for (int i = 0; i < 16; ++i)
+		{
+			if ((inUse16 & (0x8000 >>> i)) != 0)
+			{
+				int inUse = bits(16);
+				for (int j = 0; j < 16; ++j)
+				{
+					if ((inUse & (0x8000 >>> j)) != 0)
+					{
+						seqToUnseq[nInUse++] = (byte) (i * 16 + j);
+					}
+				}
+			}
+		}
+		if (nInUse == 0)
+		{
+			throw new IOException("bzip2 block uses no symbols");
+		}
+		int alphaSize = nInUse + 2;
+
+		// the move to front coded huffman table selectors
+		int nGroups = bits(3);
+		int nSelectors = bits(15);
+		if (nGroups < MIN_GROUPS || nGroups > MAX_GROUPS || nSelectors < 1)
+		{
+			throw new IOException("bad bzip2 huffman groups");
+		}
+
+		byte[] pos = new byte[]
+		{
+			0, 1, 2, 3, 4, 5
+		};
+		for (int i = 0; i < nSelectors; ++i)
+		{
+			int j = 0;
+			while (bits(1) != 0)
+			{
+				if (++j >= nGroups)
+				{
+					throw new IOException("bad bzip2 selector");
+				}
+			}
+
+			byte v = pos[j];
+			for (; j > 0; --j)
+			{
+				pos[j] = pos[j - 1];
+			}
+			pos[0] = v;
+
+			// like bzip2 1.0.8, selectors past the maximum are read and dropped
+			if (i < MAX_SELECTORS)
+			{
+				selectors[i] = v;
+			}
+		}
+		nSelectors = Math.min(nSelectors, MAX_SELECTORS);
+
+		// the delta coded code lengths
+		for (int t = 0; t < nGroups; ++t)
+		{
+			byte[] len = lengths[t];
+			int curr = bits(5);
+			for (int i = 0; i < alphaSize; ++i)
+			{
+				for (;;)
+				{
+					if (curr < 1 || curr > MAX_CODE_LEN)
+					{
+						throw new IOException("bad bzip2 code length");
+					}
+					if (bits(1) == 0)
+					{
+						break;
+					}
+					curr += bits(1) == 0 ? 1 : -1;
+				}
+				len[i] = (byte) curr;
+			}
+			createDecodeTables(t, alphaSize);
+		}
+
+		// the symbols themselves
+		byte[] mtf = this.mtf;
+		int[] unzftab = this.unzftab;
+		for (int i = 0; i < 256; ++i)
+		{
+			mtf[i] = seqToUnseq[i];
+			unzftab[i] = 0;
+		}
+
+		int[] tt = this.tt;
+		int eob = nInUse + 1;
+		int count = 0;
+		int groupNo = -1;
+		int groupPos = 0;
+		int group = 0;
+
+		int run = 0;
+		int runBit = 1;
+		for (;;)
+		{
+			if (groupPos == 0)
+			{
+				if (++groupNo >= nSelectors)
+				{
+					throw new IOException("bzip2 selectors exhausted");
+				}
+				groupPos = GROUP_SIZE;
+				group = selectors[groupNo];
+			}
+			--groupPos;
+
+			int sym = decodeSymbol(group);
+
+			if (sym == RUNA || sym == RUNB)
+			{
+				// run lengths of the front symbol are written in bijective base 2
+				run += sym == RUNA ? runBit : runBit << 1;
+				runBit <<= 1;
+				if (run > MAX_BLOCK_SIZE)
+				{
+					throw new IOException("bad bzip2 run length");
+				}
+				continue;
+			}
+
+			if (run > 0)
+			{
+				if (count + run > tt.length)
+				{
+					tt = grow(count + run);
+				}
+
+				int uc = mtf[0] & 0xFF;
+				unzftab[uc] += run;
+				for (int end = count + run; count < end; ++count)
+				{
+					tt[count] = uc;
+				}
+				run = 0;
+				runBit = 1;
+			}
+
+			if (sym == eob)
+			{
+				break;
+			}
+
+			if (sym > eob)
+			{
+				throw new IOException("bad bzip2 symbol");
+			}
+
+			int nn = sym - 1;
+			byte v = mtf[nn];
+			System.arraycopy(mtf, 0, mtf, 1, nn);
+			mtf[0] = v;
+
+			if (count >= tt.length)
+			{
+				tt = grow(count + 1);
+			}
+			int uc = v & 0xFF;
+			++unzftab[uc];
+			tt[count++] = uc;
+		}
+
+		checkOverrun();
+		return count;
+	}
+
+	private int[] grow(int size) throws IOException
+	{
+		if (size > MAX_BLOCK_SIZE)
+		{
+			throw new IOException("bzip2 block too large");
+		}
+
+		int[] tt = new int[Math.min(MAX_BLOCK_SIZE, Math.max(size, this.tt.length * 2))];
+		System.arraycopy(this.tt, 0, tt, 0, this.tt.length);
+		return this.tt = tt;
+	}
+
+	private void createDecodeTables(int t, int alphaSize) throws IOException
+	{
+		byte[] length = lengths[t];
+		int[] limit = this.limit[t];
+		int[] base = this.base[t];
+		int[] perm = this.perm[t];
+		short[] lookup = this.lookup[t];
+
+		int minLen = MAX_CODE_LEN;
+		int maxLen = 0;
+		for (int i = 0; i < alphaSize; ++i)
+		{
+			minLen = Math.min(minLen, length[i]);
+			maxLen = Math.max(maxLen, length[i]);
+		}
+		minLens[t] = minLen;
+		maxLens[t] = maxLen;
+
+		// canonical codes are assigned by length, then by symbol
+		int pp = 0;
+		for (int i = minLen; i <= maxLen; ++i)
+		{
+			for (int j = 0; j < alphaSize; ++j)
+			{
+				if (length[j] == i)
+				{
+					perm[pp++] = j;
+				}
+			}
+		}
+
+		for (int i = 0; i < base.length; ++i)
+		{
+			base[i] = 0;
+			limit[i] = 0;
+		}
+		for (int i = 0; i < alphaSize; ++i)
+		{
+			++base[length[i] + 1];
+		}
+		for (int i = 1; i < base.length; ++i)
+		{
+			base[i] += base[i - 1];
+		}
+
+		int vec = 0;
+		for (int i = minLen; i <= maxLen; ++i)
+		{
+			vec += base[i + 1] - base[i];
+			limit[i] = vec - 1;
+			vec <<= 1;
+		}
+		for (int i = minLen + 1; i <= maxLen; ++i)
+		{
+			base[i] = ((limit[i - 1] + 1) << 1) - base[i];
+		}
+
+		// fill the lookup table for the short codes
+		Arrays.fill(lookup, (short) 0);
+		int code = 0;
+		pp = 0;
+		for (int i = minLen; i <= maxLen; ++i)
+		{
+			for (int j = 0; j < alphaSize; ++j)
+			{
+				if (length[j] != i)
+				{
+					continue;
+				}
+
+				if (i <= LOOKUP_BITS)
+				{
+					int shift = LOOKUP_BITS - i;
+					int start = code << shift;
+					int end = start + (1 << shift);
+					if (end > lookup.length)
+					{
+						throw new IOException("bad bzip2 huffman table");
+					}
+					short entry = (short) ((j << 5) | i);
+					for (int k = start; k < end; ++k)
+					{
+						lookup[k] = entry;
+					}
+				}
+				++code;
+			}
+			code <<= 1;
+		}
+	}
+
+	private int decodeSymbol(int t) throws IOException
+	{
+		int peek = peek(MAX_CODE_LEN);
+		int entry = lookup[t][peek >>> (MAX_CODE_LEN - LOOKUP_BITS)];
+		if (entry != 0)
+		{
+			bitCount -= entry & 0x1F;
+			return entry >>> 5;
+		}
+
+		int[] limit = this.limit[t];
+		int maxLen = maxLens[t];
+		for (int n = Math.max(minLens[t], LOOKUP_BITS + 1); n <= maxLen; ++n)
+		{
+			int code = peek >>> (MAX_CODE_LEN - n);
+			if (code <= limit[n])
+			{
+				bitCount -= n;
+				int idx = code - base[t][n];
+				if (idx < 0 || idx >= MAX_ALPHA_SIZE)
+				{
+					throw new IOException("bad bzip2 huffman code");
+				}
+				return perm[t][idx];
+			}
+		}
+
+		throw new IOException("bad bzip2 huffman code");
+	}
+
+	private int peek(int n)
+	{
+		while (bitCount < n)
+		{
+			// past the end of the input read zeros, checkOverrun catches any that get used
+			int b = inPos < inEnd ? in[inPos] & 0xFF : 0;
+			++inPos;
+			bitBuffer = (bitBuffer << 8) | b;
+			bitCount += 8;
+		}
+		return (int) (bitBuffer >>> (bitCount - n)) & ((1 << n) - 1);
+	}
+
+	private int bits(int n) throws IOException
+	{
+		int v = peek(n);
+		bitCount -= n;
+		checkOverrun();
+		return v;
+	}
+
+	private void checkOverrun() throws IOException
+	{
+		if (inPos > inEnd && bitCount < (inPos - inEnd) * 8)
+		{
+			throw new IOException("unexpected end of bzip2 data");
+		}
+	}
+}
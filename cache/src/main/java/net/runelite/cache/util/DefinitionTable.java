@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A table of definitions keyed by their id. Definition ids are dense, so
+ * the table is a plain array indexed by id with a bitmap of the ids present.
+ * Iteration is in id order.
+ */
+public class DefinitionTable<T> implements Iterable<T>
+{
+	private Object[] definitions;
+	private long[] present;
+	private int size;
+
+	public DefinitionTable()
+	{
+		this(0);
+	}
+
+	public DefinitionTable(int capacity)
+	{
+		definitions = new Object[capacity];
+		present = new long[(capacity + 63) >> 6];
+	}
+
+	@SuppressWarnings("unchecked")
+	public T get(int id)
+	{
+		if (id < 0 || id >= definitions.length)
+		{
+			return null;
+		}
+		return (T) definitions[id];
+	}
+
+	public boolean contains(int id)
+	{
+		return id >= 0 && id < definitions.length && (present[id >> 6] & (1L << id)) != 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	public T put(int id, T definition)
+	{
+		if (id < 0)
+		{
+			throw new IllegalArgumentException("negative id " + id);
+		}
+		Objects.requireNonNull(definition);
+
+		if (id >= definitions.length)
+		{
+			int capacity = Math.max(id + 1, definitions.length + (definitions.length >> 1));
+			definitions = Arrays.copyOf(definitions, capacity);
+			present = Arrays.copyOf(present, (capacity + 63) >> 6);
+		}
+
+		T old = (T) definitions[id];
+		if (old == null)
+		{
+			present[id >> 6] |= 1L << id;
+			++size;
+		}
+		definitions[id] = definition;
+		return old;
+	}
+
+	public void putAll(Map<Integer, ? extends T> definitions)
+	{
+		for (Map.Entry<Integer, ? extends T> entry : definitions.entrySet())
+		{
+			put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	/**
+	 * Calls action with every definition and its id, in id order.
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEachEntry(ObjIntConsumer<? super T> action)
+	{
+		for (int id = nextId(0); id != -1; id = nextId(id + 1))
+		{
+			action.accept((T) definitions[id], id);
+		}
+	}
+
+	private int nextId(int from)
+	{
+		int word = from >> 6;
+		if (word >= present.length)
+		{
+			return -1;
+		}
+
+		long bits = present[word] & (-1L << from);
+		while (bits == 0)
+		{
+			if (++word >= present.length)
+			{
+				return -1;
+			}
+			bits = present[word];
+		}
+		return (word << 6) + Long.numberOfTrailingZeros(bits);
+	}
+
+	@Override
+	public Iterator<T> iterator()
+	{
+		return new Iterator<T>()
+		{
+			private int next = nextId(0);
+
+			@Override
+			public boolean hasNext()
+			{
+				return next != -1;
+			}
+
+			@Override
+			@SuppressWarnings("unchecked")
+			public T next()
+			{
+				if (next == -1)
+				{
+					throw new NoSuchElementException();
+				}
+				T definition = (T) definitions[next];
+				next = nextId(next + 1);
+				return definition;
+			}
+		};
+	}
+
+	/**
+	 * An unmodifiable view of the definitions, in id order.
+	 */
+	public Collection<T> values()
+	{
+		return new AbstractCollection<T>()
+		{
+			@Override
+			public Iterator<T> iterator()
+			{
+				return DefinitionTable.this.iterator();
+			}
+
+			@Override
+			public int size()
+			{
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * An unmodifiable map view of the table, in id order.
+	 */
+	public Map<Integer, T> asMap()
+	{
+		return new AbstractMap<Integer, T>()
+		{
+			@Override
+			public T get(Object key)
+			{
+				return key instanceof Integer ? DefinitionTable.this.get((Integer) key) : null;
+			}
+
+			@Override
+			public boolean containsKey(Object key)
+			{
+				return key instanceof Integer && contains((Integer) key);
+			}
+
+			@Override
+			public int size()
+			{
+				return size;
+			}
+
+			@Override
+			public Set<Entry<Integer, T>> entrySet()
+			{
+				return new AbstractSet<Entry<Integer, T>>()
+				{
+					@Override
+					public Iterator<Entry<Integer, T>> iterator()
+					{
+						return new Iterator<Entry<Integer, T>>()
+						{
+							private int next = nextId(0);
+
+							@Override
+							public boolean hasNext()
+							{
+								return next != -1;
+							}
+
+							@Override
+							@SuppressWarnings("unchecked")
+							public Entry<Integer, T> next()
+							{
+								if (next == -1)
+								{
+									throw new NoSuchElementException();
+								}
+								Entry<Integer, T> entry = new SimpleImmutableEntry<>(next, (T) definitions[next]);
+								next = nextId(next + 1);
+								return entry;
+							}
+						};
+					}
+
+					@Override
+					public int size()
+					{
+						return size;
+					}
+				};
+			}
+		};
+	}
+}
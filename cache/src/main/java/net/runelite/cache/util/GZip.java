@@ -30,8 +30,11 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
 import org.apache.commons.compress.utils.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +43,13 @@ public class GZip
 {
 	private static final Logger logger = LoggerFactory.getLogger(GZip.class);
 
+	private static final int FHCRC = 2;
+	private static final int FEXTRA = 4;
+	private static final int FNAME = 8;
+	private static final int FCOMMENT = 16;
+
+	private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(() -> new Inflater(true));
+
 	public static byte[] compress(byte[] bytes) throws IOException
 	{
 		InputStream is = new ByteArrayInputStream(bytes);
@@ -54,14 +64,117 @@ public class GZip
 	}
 
 	public static byte[] decompress(byte[] bytes, int len) throws IOException
+	{
+		return decompress(bytes, 0, len);
+	}
+
+	public static byte[] decompress(byte[] bytes, int off, int len) throws IOException
 	{
 		ByteArrayOutputStream os = new ByteArrayOutputStream();
 
-		try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(bytes, 0, len)))
+		try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(bytes, off, len)))
 		{
 			IOUtils.copy(is, os);
 		}
 
 		return os.toByteArray();
 	}
+
+	/**
+	 * Decompresses a gzip member of known decompressed length straight into
+	 * its result, reusing a per-thread {@link Inflater}.
+	 */
+	public static byte[] decompress(byte[] bytes, int off, int len, int decompressedLength) throws IOException
+	{
+		int end = off + len;
+		if (len < 18 || (bytes[off] & 0xFF) != 0x1f || (bytes[off + 1] & 0xFF) != 0x8b || bytes[off + 2] != 8)
+		{
+			throw new IOException("bad gzip header");
+		}
+
+		int flags = bytes[off + 3] & 0xFF;
+		int pos = off + 10;
+		if ((flags & FEXTRA) != 0)
+		{
+			pos += 2 + ((bytes[pos] & 0xFF) | (bytes[pos + 1] & 0xFF) << 8);
+		}
+		if ((flags & FNAME) != 0)
+		{
+			pos = skipString(bytes, pos, end);
+		}
+		if ((flags & FCOMMENT) != 0)
+		{
+			pos = skipString(bytes, pos, end);
+		}
+		if ((flags & FHCRC) != 0)
+		{
+			pos += 2;
+		}
+		if (pos > end - 8)
+		{
+			throw new IOException("truncated gzip data");
+		}
+
+		int crc = readIntLE(bytes, end - 8);
+		int size = readIntLE(bytes, end - 4);
+		if (size != decompressedLength)
+		{
+			throw new IOException("gzip size mismatch: " + size + " != " + decompressedLength);
+		}
+
+		byte[] out = new byte[decompressedLength];
+		Inflater inflater = INFLATER.get();
+		try
+		{
+			inflater.setInput(bytes, pos, end - 8 - pos);
+			int n = inflater.inflate(out);
+			if (n == decompressedLength && !inflater.finished())
+			{
+				// an empty output buffer may leave the end of the stream unread
+				n += inflater.inflate(new byte[1]);
+			}
+			if (n != decompressedLength || !inflater.finished())
+			{
+				throw new IOException("gzip data length mismatch");
+			}
+		}
+		catch (DataFormatException ex)
+		{
+			throw new IOException(ex);
+		}
+		finally
+		{
+			inflater.reset();
+		}
+
+		CRC32 crc32 = new CRC32();
+		crc32.update(out, 0, out.length);
+		if ((int) crc32.getValue() != crc)
+		{
+			throw new IOException("gzip crc mismatch");
+		}
+
+		return out;
+	}
+
+	private static int skipString(byte[] bytes, int pos, int end) throws IOException
+	{
+		while (pos < end && bytes[pos] != 0)
+		{
+			++pos;
+		}
+		if (pos >= end)
+		{
+			throw new IOException("truncated gzip header");
+		}
+		return pos + 1;
+	}
+
+	private static int readIntLE(byte[] bytes, int pos)
+	{
+		return (bytes[pos] & 0xFF)
+			| (bytes[pos + 1] & 0xFF) << 8
+			| (bytes[pos + 2] & 0xFF) << 16
+			| (bytes[pos + 3] & 0xFF) << 24;
+	}
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash set of ints, for deduplicating values without boxing them.
+ */
+public final class IntHashSet
+{
+	private static final int MIN_CAPACITY = 16;
+
+	// 0 marks an empty slot, so whether 0 is in the set is tracked on its own
+	private int[] keys;
+	private boolean hasZero;
+	private int size;
+
+	public IntHashSet()
+	{
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * @param expected number of values the set should hold without growing
+	 */
+	public IntHashSet(int expected)
+	{
+		int capacity = MIN_CAPACITY;
+		while (capacity * 3 / 4 < expected)
+		{
+			capacity <<= 1;
+		}
+		keys = new int[capacity];
+	}
+
+	/**
+	 * Adds a value to the set
+	 *
+	 * @return true if the value was not in the set already
+	 */
+	public boolean add(int value)
+	{
+		if (value == 0)
+		{
+			if (hasZero)
+			{
+				return false;
+			}
+			hasZero = true;
+			++size;
+			return true;
+		}
+
+		int mask = keys.length - 1;
+		for (int i = hash(value) & mask; ; i = (i + 1) & mask)
+		{
+			int key = keys[i];
+			if (key == value)
+			{
+				return false;
+			}
+			if (key == 0)
+			{
+				keys[i] = value;
+				if (++size > keys.length * 3 / 4)
+				{
+					grow();
+				}
+				return true;
+			}
+		}
+	}
+
+	public boolean contains(int value)
+	{
+		if (value == 0)
+		{
+			return hasZero;
+		}
+
+		int mask = keys.length - 1;
+		for (int i = hash(value) & mask; ; i = (i + 1) & mask)
+		{
+			int key = keys[i];
+			if (key == value)
+			{
+				return true;
+			}
+			if (key == 0)
+			{
+				return false;
+			}
+		}
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public boolean isEmpty()
+	{
+		return size == 0;
+	}
+
+	public void clear()
+	{
+		Arrays.fill(keys, 0);
+		hasZero = false;
+		size = 0;
+	}
+
+	private void grow()
+	{
+		int[] old = keys;
+		keys = new int[old.length << 1];
+		int mask = keys.length - 1;
+		for (int key : old)
+		{
+			if (key != 0)
+			{
+				int i = hash(key) & mask;
+				while (keys[i] != 0)
+				{
+					i = (i + 1) & mask;
+				}
+				keys[i] = key;
+			}
+		}
+	}
+
+	private static int hash(int value)
+	{
+		// spread the bits so sequential and packed values don't cluster
+		int h = value * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * Pixel writer for int backed images. For {@link BufferedImage#TYPE_INT_RGB} and
+ * {@link BufferedImage#TYPE_INT_ARGB} images the pixels are stored straight into the
+ * backing {@link DataBufferInt} array, skipping the per pixel colour model lookups
+ * {@link BufferedImage#setRGB(int, int, int)} does. Any other image, such as a
+ * {@link BigBufferedImage}, falls back to {@code setRGB}, so the result is the same
+ * either way.
+ */
+public final class IntRaster
+{
+	private final BufferedImage image;
+	private final int width;
+	private final int height;
+
+	/**
+	 * backing array, or null if the image isn't directly writable
+	 */
+	private final int[] data;
+	private final int offset;
+	private final int stride;
+	/**
+	 * what setRGB keeps of an argb value: everything with alpha, the rgb bits without
+	 */
+	private final int mask;
+
+	private IntRaster(BufferedImage image, int[] data, int offset, int stride, int mask)
+	{
+		this.image = image;
+		this.width = image.getWidth();
+		this.height = image.getHeight();
+		this.data = data;
+		this.offset = offset;
+		this.stride = stride;
+		this.mask = mask;
+	}
+
+	public static IntRaster of(BufferedImage image)
+	{
+		int type = image.getType();
+		if (type != BufferedImage.TYPE_INT_RGB && type != BufferedImage.TYPE_INT_ARGB)
+		{
+			return new IntRaster(image, null, 0, 0, 0);
+		}
+
+		WritableRaster raster = image.getRaster();
+		DataBuffer buffer = raster.getDataBuffer();
+		SampleModel sampleModel = raster.getSampleModel();
+		if (!(buffer instanceof DataBufferInt) || buffer.getNumBanks() != 1
+			|| !(sampleModel instanceof SinglePixelPackedSampleModel))
+		{
+			return new IntRaster(image, null, 0, 0, 0);
+		}
+
+		SinglePixelPackedSampleModel sppsm = (SinglePixelPackedSampleModel) sampleModel;
+		// subimages share the parent's array, shifted by the sample model translation
+		int offset = buffer.getOffset()
+			+ sppsm.getOffset(-raster.getSampleModelTranslateX(), -raster.getSampleModelTranslateY());
+		int mask = type == BufferedImage.TYPE_INT_ARGB ? 0xFFFFFFFF : 0x00FFFFFF;
+		return new IntRaster(image, ((DataBufferInt) buffer).getData(), offset, sppsm.getScanlineStride(), mask);
+	}
+
+	public int getWidth()
+	{
+		return width;
+	}
+
+	public int getHeight()
+	{
+		return height;
+	}
+
+	public BufferedImage getImage()
+	{
+		return image;
+	}
+
+	/**
+	 * Whether pixels go straight to the backing array rather than through setRGB
+	 */
+	public boolean isDirect()
+	{
+		return data != null;
+	}
+
+	/**
+	 * Gets a pixel as {@link BufferedImage#getRGB(int, int)} would
+	 */
+	public int getRGB(int x, int y)
+	{
+		if (data == null)
+		{
+			return image.getRGB(x, y);
+		}
+
+		checkBounds(x, y, 1, 1);
+		return data[offset + y * stride + x] | ~mask;
+	}
+
+	/**
+	 * Reads the w x h block at (x, y) into a row major array, as
+	 * {@link BufferedImage#getRGB(int, int, int, int, int[], int, int)} would
+	 *
+	 * @param dst array of at least w * h pixels, or null to allocate one
+	 */
+	public int[] getRGB(int x, int y, int w, int h, int[] dst)
+	{
+		if (dst == null)
+		{
+			dst = new int[w * h];
+		}
+
+		if (data == null)
+		{
+			return image.getRGB(x, y, w, h, dst, 0, w);
+		}
+
+		checkBounds(x, y, w, h);
+		int alpha = ~mask;
+		int row = offset + y * stride + x;
+		for (int j = 0; j < h; ++j, row += stride)
+		{
+			System.arraycopy(data, row, dst, j * w, w);
+			if (alpha != 0)
+			{
+				for (int i = j * w, end = i + w; i < end; ++i)
+				{
+					dst[i] |= alpha;
+				}
+			}
+		}
+		return dst;
+	}
+
+	/**
+	 * Checks if every pixel of the w x h block at (x, y) is argb, as getRGB would return it
+	 */
+	public boolean isFilled(int x, int y, int w, int h, int argb)
+	{
+		if (data == null)
+		{
+			for (int j = 0; j < h; ++j)
+			{
+				for (int i = 0; i < w; ++i)
+				{
+					if (image.getRGB(x + i, y + j) != argb)
+					{
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+
+		checkBounds(x, y, w, h);
+		if ((argb | mask) != -1)
+		{
+			// an alpha getRGB never returns for this image
+			return false;
+		}
+
+		int value = argb & mask;
+		int row = offset + y * stride + x;
+		for (int j = 0; j < h; ++j, row += stride)
+		{
+			for (int i = 0; i < w; ++i)
+			{
+				if (data[row + i] != value)
+				{
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	public void setRGB(int x, int y, int argb)
+	{
+		if (data == null)
+		{
+			image.setRGB(x, y, argb);
+			return;
+		}
+
+		checkBounds(x, y, 1, 1);
+		data[offset + y * stride + x] = argb & mask;
+	}
+
+	public void fillRect(int x, int y, int w, int h, int argb)
+	{
+		if (data == null)
+		{
+			for (int j = 0; j < h; ++j)
+			{
+				for (int i = 0; i < w; ++i)
+				{
+					image.setRGB(x + i, y + j, argb);
+				}
+			}
+			return;
+		}
+
+		checkBounds(x, y, w, h);
+		int value = argb & mask;
+		int row = offset + y * stride + x;
+		for (int j = 0; j < h; ++j, row += stride)
+		{
+			for (int i = 0; i < w; ++i)
+			{
+				data[row + i] = value;
+			}
+		}
+	}
+
+	/**
+	 * Copies a w x h block of {@code src}, a row major array with rows {@code srcStride} apart,
+	 * to (x, y). Zero pixels are skipped, leaving whatever was drawn there before.
+	 */
+	public void copyOpaque(int[] src, int srcOffset, int srcStride, int x, int y, int w, int h)
+	{
+		if (data == null)
+		{
+			for (int j = 0; j < h; ++j)
+			{
+				for (int i = 0; i < w; ++i)
+				{
+					int argb = src[srcOffset + j * srcStride + i];
+					if (argb != 0)
+					{
+						image.setRGB(x + i, y + j, argb);
+					}
+				}
+			}
+			return;
+		}
+
+		checkBounds(x, y, w, h);
+		int row = offset + y * stride + x;
+		for (int j = 0; j < h; ++j, row += stride, srcOffset += srcStride)
+		{
+			for (int i = 0; i < w; ++i)
+			{
+				int argb = src[srcOffset + i];
+				if (argb != 0)
+				{
+					data[row + i] = argb & mask;
+				}
+			}
+		}
+	}
+
+	private void checkBounds(int x, int y, int w, int h)
+	{
+		if (x < 0 || y < 0 || x + w > width || y + h > height)
+		{
+			// same as BufferedImage.setRGB, so callers see no difference between the two paths
+			throw new ArrayIndexOutOfBoundsException("Coordinate out of bounds!");
+		}
+	}
+}
@@ -0,0 +1,419 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import javax.imageio.ImageIO;
+
+/**
+ * PNG encoder for images with few colours, like collision and height map chunks. An image with
+ * at most 256 colours is written with a palette, packed down to 1, 2 or 4 bits per pixel when
+ * it has few enough, and a grey image with more colours is written as 8 bit greyscale. Pixels
+ * are read through {@link IntRaster}, so int backed images are read straight from their array.
+ * Any other image is handed to {@link ImageIO}.
+ */
+public final class PngEncoder
+{
+	private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+	private static final int COLOR_GREY = 0;
+	private static final int COLOR_PALETTE = 3;
+
+	private static final int FILTER_NONE = 0;
+	private static final int FILTER_SUB = 1;
+	private static final int FILTER_UP = 2;
+	private static final int FILTER_PAETH = 4;
+
+	private static final int MAX_PALETTE = 256;
+	// palettes this small beat 8 bit greyscale
+	private static final int MAX_SMALL_PALETTE = 16;
+
+	private final int level;
+
+	/**
+	 * @param level deflate level, from {@link Deflater#NO_COMPRESSION} to {@link Deflater#BEST_COMPRESSION},
+	 *              or {@link Deflater#DEFAULT_COMPRESSION}
+	 */
+	public PngEncoder(int level)
+	{
+		if ((level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION) && level != Deflater.DEFAULT_COMPRESSION)
+		{
+			throw new IllegalArgumentException("invalid deflate level " + level);
+		}
+		this.level = level;
+	}
+
+	public byte[] encode(BufferedImage image) throws IOException
+	{
+		IntRaster raster = IntRaster.of(image);
+		int width = raster.getWidth();
+		int height = raster.getHeight();
+		return encode(raster.getRGB(0, 0, width, height, null), width, height, image);
+	}
+
+	/**
+	 * Encodes a row major array of argb pixels, as {@link IntRaster#getRGB(int, int, int, int, int[])}
+	 * reads them
+	 */
+	public byte[] encode(int[] pixels, int width, int height) throws IOException
+	{
+		return encode(pixels, width, height, null);
+	}
+
+	/**
+	 * @param image the image the pixels are from, or null to build one if ImageIO is needed
+	 */
+	private byte[] encode(int[] pixels, int width, int height, BufferedImage image) throws IOException
+	{
+		Palette palette = new Palette();
+		boolean grey = true;
+		boolean opaque = true;
+		for (int argb : pixels)
+		{
+			if (palette.indexOf(argb) == -1)
+			{
+				if (palette.size == MAX_PALETTE)
+				{
+					// opaque grey has at most 256 shades, so this is neither a palette nor a greyscale image
+					return encodeImageIO(image != null ? image : toImage(pixels, width, height));
+				}
+
+				palette.add(argb);
+				grey &= isGrey(argb);
+				opaque &= argb >>> 24 == 0xFF;
+			}
+		}
+
+		if (grey && opaque && palette.size > MAX_SMALL_PALETTE)
+		{
+			return encodeGrey(pixels, width, height);
+		}
+		return encodePalette(pixels, width, height, palette);
+	}
+
+	private byte[] encodePalette(int[] pixels, int width, int height, Palette palette) throws IOException
+	{
+		int bitDepth = palette.size <= 2 ? 1 : palette.size <= 4 ? 2 : palette.size <= 16 ? 4 : 8;
+		int perByte = 8 / bitDepth;
+		int rowBytes = (width + perByte - 1) / perByte;
+
+		byte[] raw = new byte[height * (rowBytes + 1)];
+		for (int y = 0, pos = 0; y < height; ++y)
+		{
+			// palette images compress best unfiltered
+			raw[pos++] = FILTER_NONE;
+			int row = y * width;
+			for (int x = 0; x < width; x += perByte)
+			{
+				int packed = 0;
+				for (int i = 0; i < perByte; ++i)
+				{
+					packed <<= bitDepth;
+					if (x + i < width)
+					{
+						packed |= palette.indexOf(pixels[row + x + i]);
+					}
+				}
+				raw[pos++] = (byte) packed;
+			}
+		}
+
+		byte[] plte = new byte[palette.size * 3];
+		int transparent = 0;
+		for (int i = 0; i < palette.size; ++i)
+		{
+			int argb = palette.colors[i];
+			plte[i * 3] = (byte) (argb >> 16);
+			plte[i * 3 + 1] = (byte) (argb >> 8);
+			plte[i * 3 + 2] = (byte) argb;
+			if (argb >>> 24 != 0xFF)
+			{
+				transparent = i + 1;
+			}
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(SIGNATURE);
+		writeChunk(out, "IHDR", header(width, height, bitDepth, COLOR_PALETTE));
+		writeChunk(out, "PLTE", plte);
+		if (transparent > 0)
+		{
+			// alphas of the palette entries up to the last translucent one, the rest are opaque
+			byte[] trns = new byte[transparent];
+			for (int i = 0; i < transparent; ++i)
+			{
+				trns[i] = (byte) (palette.colors[i] >>> 24);
+			}
+			writeChunk(out, "tRNS", trns);
+		}
+		writeChunk(out, "IDAT", deflate(raw));
+		writeChunk(out, "IEND", new byte[0]);
+		return out.toByteArray();
+	}
+
+	private byte[] encodeGrey(int[] pixels, int width, int height) throws IOException
+	{
+		byte[] raw = new byte[height * (width + 1)];
+		byte[] prev = new byte[width];
+		byte[] cur = new byte[width];
+		byte[][] filtered = new byte[FILTER_PAETH + 1][width];
+
+		for (int y = 0; y < height; ++y)
+		{
+			for (int x = 0; x < width; ++x)
+			{
+				cur[x] = (byte) pixels[y * width + x];
+			}
+
+			int filter = filterRow(cur, prev, filtered);
+			int pos = y * (width + 1);
+			raw[pos] = (byte) filter;
+			System.arraycopy(filter == FILTER_NONE ? cur : filtered[filter], 0, raw, pos + 1, width);
+
+			byte[] t = prev;
+			prev = cur;
+			cur = t;
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(SIGNATURE);
+		writeChunk(out, "IHDR", header(width, height, 8, COLOR_GREY));
+		writeChunk(out, "IDAT", deflate(raw));
+		writeChunk(out, "IEND", new byte[0]);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Filters a row of one byte pixels with Sub, Up and Paeth into filtered, and picks the filter
+	 * whose output has the smallest sum of absolute values, as libpng does
+	 */
+	private static int filterRow(byte[] cur, byte[] prev, byte[][] filtered)
+	{
+		byte[] sub = filtered[FILTER_SUB];
+		byte[] up = filtered[FILTER_UP];
+		byte[] paeth = filtered[FILTER_PAETH];
+		long sumNone = 0, sumSub = 0, sumUp = 0, sumPaeth = 0;
+
+		for (int x = 0; x < cur.length; ++x)
+		{
+			int c = cur[x] & 0xFF;
+			int a = x > 0 ? cur[x - 1] & 0xFF : 0;
+			int b = prev[x] & 0xFF;
+			int ab = x > 0 ? prev[x - 1] & 0xFF : 0;
+
+			sub[x] = (byte) (c - a);
+			up[x] = (byte) (c - b);
+			paeth[x] = (byte) (c - paethPredictor(a, b, ab));
+
+			sumNone += Math.abs((byte) c);
+			sumSub += Math.abs(sub[x]);
+			sumUp += Math.abs(up[x]);
+			sumPaeth += Math.abs(paeth[x]);
+		}
+
+		int best = FILTER_NONE;
+		long bestSum = sumNone;
+		if (sumSub < bestSum)
+		{
+			best = FILTER_SUB;
+			bestSum = sumSub;
+		}
+		if (sumUp < bestSum)
+		{
+			best = FILTER_UP;
+			bestSum = sumUp;
+		}
+		if (sumPaeth < bestSum)
+		{
+			best = FILTER_PAETH;
+		}
+		return best;
+	}
+
+	private static int paethPredictor(int a, int b, int c)
+	{
+		int p = a + b - c;
+		int pa = Math.abs(p - a);
+		int pb = Math.abs(p - b);
+		int pc = Math.abs(p - c);
+		if (pa <= pb && pa <= pc)
+		{
+			return a;
+		}
+		return pb <= pc ? b : c;
+	}
+
+	private byte[] deflate(byte[] raw)
+	{
+		Deflater deflater = new Deflater(level);
+		try
+		{
+			deflater.setInput(raw);
+			deflater.finish();
+
+			ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(raw.length / 8, 64));
+			byte[] buffer = new byte[8192];
+			while (!deflater.finished())
+			{
+				int n = deflater.deflate(buffer);
+				out.write(buffer, 0, n);
+			}
+			return out.toByteArray();
+		}
+		finally
+		{
+			deflater.end();
+		}
+	}
+
+	private static byte[] header(int width, int height, int bitDepth, int colorType)
+	{
+		byte[] ihdr = new byte[13];
+		putInt(ihdr, 0, width);
+		putInt(ihdr, 4, height);
+		ihdr[8] = (byte) bitDepth;
+		ihdr[9] = (byte) colorType;
+		// compression, filter and interlace methods are all 0
+		return ihdr;
+	}
+
+	private static void writeChunk(ByteArrayOutputStream out, String type, byte[] data)
+	{
+		byte[] header = new byte[8];
+		putInt(header, 0, data.length);
+		for (int i = 0; i < 4; ++i)
+		{
+			header[4 + i] = (byte) type.charAt(i);
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(header, 4, 4);
+		crc.update(data);
+
+		byte[] trailer = new byte[4];
+		putInt(trailer, 0, (int) crc.getValue());
+
+		out.write(header, 0, header.length);
+		out.write(data, 0, data.length);
+		out.write(trailer, 0, trailer.length);
+	}
+
+	private static void putInt(byte[] b, int off, int value)
+	{
+		b[off] = (byte) (value >>> 24);
+		b[off + 1] = (byte) (value >>> 16);
+		b[off + 2] = (byte) (value >>> 8);
+		b[off + 3] = (byte) value;
+	}
+
+	private static boolean isGrey(int argb)
+	{
+		int r = (argb >> 16) & 0xFF;
+		int g = (argb >> 8) & 0xFF;
+		int b = argb & 0xFF;
+		return r == g && g == b;
+	}
+
+	private static BufferedImage toImage(int[] pixels, int width, int height)
+	{
+		boolean opaque = true;
+		for (int argb : pixels)
+		{
+			opaque &= argb >>> 24 == 0xFF;
+		}
+
+		BufferedImage image = new BufferedImage(width, height, opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+		image.setRGB(0, 0, width, height, pixels, 0, width);
+		return image;
+	}
+
+	private static byte[] encodeImageIO(BufferedImage image) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return out.toByteArray();
+	}
+
+	/**
+	 * Open addressing map of colours to their palette index
+	 */
+	private static class Palette
+	{
+		// twice the largest palette, so probes stay short
+		private static final int SLOTS = MAX_PALETTE * 2;
+
+		final int[] colors = new int[MAX_PALETTE];
+		int size;
+
+		private final int[] keys = new int[SLOTS];
+		// palette index + 1, 0 for an empty slot
+		private final int[] values = new int[SLOTS];
+
+		private int lastColor;
+		private int lastIndex = -1;
+
+		int indexOf(int argb)
+		{
+			// neighbouring pixels are mostly the same colour
+			if (argb == lastColor && lastIndex != -1)
+			{
+				return lastIndex;
+			}
+
+			for (int slot = slot(argb); values[slot] != 0; slot = (slot + 1) & (SLOTS - 1))
+			{
+				if (keys[slot] == argb)
+				{
+					lastColor = argb;
+					lastIndex = values[slot] - 1;
+					return lastIndex;
+				}
+			}
+			return -1;
+		}
+
+		void add(int argb)
+		{
+			int slot = slot(argb);
+			while (values[slot] != 0)
+			{
+				slot = (slot + 1) & (SLOTS - 1);
+			}
+
+			keys[slot] = argb;
+			values[slot] = size + 1;
+			colors[size++] = argb;
+		}
+
+		private static int slot(int argb)
+		{
+			return (argb * 0x9E3779B9) >>> 23;
+		}
+	}
+}
@@ -27,7 +27,9 @@ package net.runelite.cache;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import net.runelite.cache.fs.Store;
+import static org.junit.Assert.assertEquals;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
@@ -62,4 +64,20 @@ public class ItemManagerTest
 		logger.info("Dumped to {}, java {}", dumpDir, javaDir);
 	}
 
+	@Test
+	public void testParallelLoad() throws IOException
+	{
+		try (Store store = new Store(StoreLocation.LOCATION))
+		{
+			store.load();
+
+			ItemManager serial = new ItemManager(store);
+			serial.load(false);
+			ItemManager parallel = new ItemManager(store);
+			parallel.load(true);
+
+			assertEquals(new ArrayList<>(serial.getItems()), new ArrayList<>(parallel.getItems()));
+		}
+	}
+
 }
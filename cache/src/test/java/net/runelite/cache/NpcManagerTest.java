@@ -26,7 +26,9 @@ package net.runelite.cache;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import net.runelite.cache.fs.Store;
+import static org.junit.Assert.assertEquals;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
@@ -63,4 +65,20 @@ public class NpcManagerTest
 		logger.info("Dumped to {}, java {}", dumpDir, javaDir);
 	}
 
+	@Test
+	public void testParallelLoad() throws IOException
+	{
+		try (Store store = new Store(StoreLocation.LOCATION))
+		{
+			store.load();
+
+			NpcManager serial = new NpcManager(store);
+			serial.load(false);
+			NpcManager parallel = new NpcManager(store);
+			parallel.load(true);
+
+			assertEquals(new ArrayList<>(serial.getNpcs()), new ArrayList<>(parallel.getNpcs()));
+		}
+	}
+
 }
@@ -26,7 +26,9 @@ package net.runelite.cache;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import net.runelite.cache.fs.Store;
+import static org.junit.Assert.assertEquals;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
@@ -63,4 +65,20 @@ public class ObjectManagerTest
 		logger.info("Dumped to {}, java {}", dumpDir, javaDir);
 	}
 
+	@Test
+	public void testParallelLoad() throws IOException
+	{
+		try (Store store = new Store(StoreLocation.LOCATION))
+		{
+			store.load();
+
+			ObjectManager serial = new ObjectManager(store);
+			serial.load(false);
+			ObjectManager parallel = new ObjectManager(store);
+			parallel.load(true);
+
+			assertEquals(new ArrayList<>(serial.getObjects()), new ArrayList<>(parallel.getObjects()));
+		}
+	}
+
 }
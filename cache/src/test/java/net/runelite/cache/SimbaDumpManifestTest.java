@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache;
+
+import com.google.common.collect.ImmutableSet;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SimbaDumpManifestTest
+{
+	private static final int REGION = 50 << 8 | 50;
+	private static final int EDGE = 0 << 8 | 10;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testDirtyRegions() throws IOException
+	{
+		SimbaDumpManifest previous = manifest(7, "\"" + REGION + "\":1,\"" + EDGE + "\":2,\"100\":3");
+		SimbaDumpManifest current = manifest(7, "\"" + REGION + "\":9,\"" + EDGE + "\":2,\"" + (REGION + 1) + "\":4");
+
+		ImmutableSet.Builder<Integer> expected = ImmutableSet.builder();
+		// the changed region and the one added right next to it
+		for (int x = 49; x <= 51; ++x)
+		{
+			for (int y = 49; y <= 52; ++y)
+			{
+				expected.add(x << 8 | y);
+			}
+		}
+		// the removed region 0_100
+		for (int x = 0; x <= 1; ++x)
+		{
+			for (int y = 99; y <= 101; ++y)
+			{
+				expected.add(x << 8 | y);
+			}
+		}
+
+		assertEquals(expected.build(), current.dirtyRegions(previous));
+		assertEquals(ImmutableSet.of(), current.dirtyRegions(current));
+	}
+
+	@Test
+	public void testWorldChanged() throws IOException
+	{
+		SimbaDumpManifest previous = manifest(7, "\"" + REGION + "\":1");
+		SimbaDumpManifest current = manifest(8, "\"" + REGION + "\":1");
+
+		assertNull(current.dirtyRegions(previous));
+	}
+
+	@Test
+	public void testOutputs() throws IOException
+	{
+		File zip = folder.newFile("map.zip");
+		Files.write(zip.toPath(), new byte[]{1, 2, 3});
+
+		SimbaDumpManifest manifest = manifest(7, "");
+		assertFalse(manifest.hasOutput("map.zip", zip));
+
+		manifest.putOutput("map.zip", zip);
+		File file = folder.newFile(SimbaDumpManifest.FILE_NAME);
+		manifest.write(file);
+
+		SimbaDumpManifest read = SimbaDumpManifest.read(file);
+		assertTrue(read.hasOutput("map.zip", zip));
+
+		Files.write(zip.toPath(), new byte[]{1, 2, 4});
+		assertFalse(read.hasOutput("map.zip", zip));
+		assertNull(SimbaDumpManifest.read(new File(folder.getRoot(), "missing.json")));
+	}
+
+	private SimbaDumpManifest manifest(int world, String regions) throws IOException
+	{
+		File file = folder.newFile();
+		String json = "{\"version\":1,\"world\":" + world + ",\"bounds\":[0,0,6400,6400],\"regions\":{" + regions + "}}";
+		Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+		return SimbaDumpManifest.read(file);
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import net.runelite.cache.definitions.ModelDefinition;
+import net.runelite.cache.definitions.ObjectDefinition;
+import net.runelite.cache.models.ModelSummary;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class SimbaObjectIndexTest
+{
+	private static final ObjectDefinition DOOR = object(1, "Door", 1, 1, "Open", null, "Examine");
+	private static final ObjectDefinition TABLE = object(2, "\"Table\" <b>", 2, 1);
+	private static final ObjectDefinition EXTRA = object(10060, "null", 1, 1, null, "Search");
+
+	private static final ModelSummary MODELS = ModelSummary.of(null, model(new int[]{0, -96}, (short) 1000, (short) 2000));
+
+	@Test
+	public void testRegion() throws IOException
+	{
+		SimbaObjectIndex index = new SimbaObjectIndex();
+		index.add(DOOR, 0, MODELS, 4, 8, 0);
+		index.add(TABLE, 10, ModelSummary.EMPTY, 12, 16, 3);
+		index.add(DOOR, 2, MODELS, 20, 24, 1);
+
+		JsonObject door = placement(DOOR, 0, MODELS, 4, 8, 0);
+		append(door, 20, 24, 1);
+
+		JsonArray expected = new JsonArray();
+		expected.add(door);
+		expected.add(placement(TABLE, 10, ModelSummary.EMPTY, 12, 16, 3));
+
+		assertEquals(2, index.size());
+		assertEquals(expected.toString(), write(index));
+	}
+
+	@Test
+	public void testExtraPlacement() throws IOException
+	{
+		SimbaObjectIndex index = new SimbaObjectIndex();
+		for (int i = 0; i < 5; ++i)
+		{
+			index.add(EXTRA, 10, ModelSummary.EMPTY, i, i, 0);
+		}
+
+		JsonObject extra = placement(EXTRA, 10, ModelSummary.EMPTY, 0, 0, 0);
+		append(extra, 1, 1, 0);
+		append(extra, 2, 2, 0);
+		append(extra, 8554, 36468, 0);
+		append(extra, 3, 3, 0);
+		append(extra, 4, 4, 0);
+
+		JsonArray expected = new JsonArray();
+		expected.add(extra);
+		assertEquals(expected.toString(), write(index));
+	}
+
+	@Test
+	public void testAddAll() throws IOException
+	{
+		SimbaObjectIndex first = new SimbaObjectIndex();
+		first.add(DOOR, 0, MODELS, 4, 8, 0);
+		first.add(DOOR, 0, MODELS, 12, 16, 1);
+
+		SimbaObjectIndex second = new SimbaObjectIndex();
+		second.add(TABLE, 10, ModelSummary.EMPTY, 40, 40, 2);
+		second.add(DOOR, 0, MODELS, 20, 24, 2);
+		second.add(DOOR, 0, MODELS, 28, 32, 3);
+
+		SimbaObjectIndex full = new SimbaObjectIndex();
+		full.addAll(first);
+		full.addAll(second);
+
+		// a region's placements of an object the map already has are reduced to the first
+		JsonObject door = placement(DOOR, 0, MODELS, 4, 8, 0);
+		append(door, 12, 16, 1);
+		append(door, 20, 24, 2);
+
+		JsonArray expected = new JsonArray();
+		expected.add(door);
+		expected.add(placement(TABLE, 10, ModelSummary.EMPTY, 40, 40, 2));
+		assertEquals(expected.toString(), write(full));
+
+		// the regions are left as they were
+		assertEquals(2, second.size());
+		assertEquals(1, first.size());
+	}
+
+	@Test
+	public void testEmpty() throws IOException
+	{
+		SimbaObjectIndex index = new SimbaObjectIndex();
+		assertEquals(true, index.isEmpty());
+		assertEquals("[]", write(index));
+	}
+
+	private static String write(SimbaObjectIndex index) throws IOException
+	{
+		StringWriter out = new StringWriter();
+		JsonWriter writer = new JsonWriter(out);
+		writer.setLenient(true);
+		index.write(writer);
+		writer.flush();
+		return out.toString();
+	}
+
+	private static JsonObject placement(ObjectDefinition object, int type, ModelSummary models, int x, int y, int rotation)
+	{
+		JsonObject obj = new JsonObject();
+		obj.addProperty("id", object.getId());
+		obj.addProperty("name", object.getName());
+		obj.addProperty("type", type);
+		obj.addProperty("category", object.getCategory());
+
+		JsonArray actions = new JsonArray();
+		for (String action : object.getActions())
+		{
+			if (action != null) actions.add(action);
+		}
+		obj.add("actions", actions);
+
+		obj.add("coordinates", new JsonArray());
+		JsonArray size = new JsonArray();
+		size.add(object.getSizeX());
+		size.add(object.getSizeY());
+		size.add(models.getHeight());
+		obj.add("size", size);
+		obj.add("rotations", new JsonArray());
+
+		JsonArray colors = new JsonArray();
+		for (int color : models.getColors())
+		{
+			colors.add(color);
+		}
+		obj.add("colors", colors);
+
+		append(obj, x, y, rotation);
+		return obj;
+	}
+
+	private static void append(JsonObject obj, int x, int y, int rotation)
+	{
+		JsonArray coordinate = new JsonArray();
+		coordinate.add(x);
+		coordinate.add(y);
+		obj.getAsJsonArray("coordinates").add(coordinate);
+		obj.getAsJsonArray("rotations").add(rotation);
+	}
+
+	private static ObjectDefinition object(int id, String name, int sizeX, int sizeY, String... actions)
+	{
+		ObjectDefinition object = new ObjectDefinition();
+		object.setId(id);
+		object.setName(name);
+		object.setSizeX(sizeX);
+		object.setSizeY(sizeY);
+		object.setCategory(id * 3);
+		String[] all = new String[5];
+		System.arraycopy(actions, 0, all, 0, actions.length);
+		object.setActions(all);
+		return object;
+	}
+
+	private static ModelDefinition model(int[] vertexY, short... faceColors)
+	{
+		ModelDefinition model = new ModelDefinition();
+		model.vertexY = vertexY;
+		model.faceCount = faceColors.length;
+		model.faceColors = faceColors;
+		return model;
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+import javax.imageio.ImageIO;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+public class SimbaZipWriterTest
+{
+	@Test
+	public void testOrder() throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(out);
+			SimbaZipWriter writer = new SimbaZipWriter(zip, 4))
+		{
+			for (int i = 0; i < 100; ++i)
+			{
+				int n = i;
+				writer.submit(i + ".txt", () ->
+				{
+					// later entries finish first
+					Thread.sleep((100 - n) % 7);
+					return content(n);
+				});
+			}
+			writer.write("last.txt", content(100));
+			writer.finish();
+		}
+
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray())))
+		{
+			for (int i = 0; i < 100; ++i)
+			{
+				ZipEntry entry = zip.getNextEntry();
+				assertEquals(i + ".txt", entry.getName());
+				assertEquals(ZipEntry.STORED, entry.getMethod());
+				assertArrayEquals(content(i), zip.readAllBytes());
+			}
+
+			assertEquals("last.txt", zip.getNextEntry().getName());
+			assertArrayEquals(content(100), zip.readAllBytes());
+			assertNull(zip.getNextEntry());
+		}
+	}
+
+	@Test
+	public void testPng() throws IOException
+	{
+		BufferedImage image = new BufferedImage(8, 4, BufferedImage.TYPE_INT_RGB);
+		image.setRGB(3, 2, 0xFF8040);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(out);
+			SimbaZipWriter writer = new SimbaZipWriter(zip, 1))
+		{
+			writer.submitPng("0/50-50.png", image);
+			writer.finish();
+		}
+
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray())))
+		{
+			assertEquals("0/50-50.png", zip.getNextEntry().getName());
+			BufferedImage read = ImageIO.read(zip);
+			assertEquals(8, read.getWidth());
+			assertEquals(0xFF8040, read.getRGB(3, 2) & 0xFFFFFF);
+		}
+	}
+
+	private static byte[] content(int i)
+	{
+		return ("entry " + i).getBytes(StandardCharsets.UTF_8);
+	}
+}
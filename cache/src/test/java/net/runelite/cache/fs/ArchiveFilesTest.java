@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.fs;
+
+import java.util.ArrayList;
+import java.util.Map;
+import net.runelite.cache.io.OutputStream;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class ArchiveFilesTest
+{
+	@Test
+	public void testLazyContents()
+	{
+		ArchiveFiles files = files(3);
+		files.getFiles().get(0).setContents(new byte[]{1, 2, 3});
+		files.getFiles().get(1).setContents(new byte[0]);
+		files.getFiles().get(2).setContents(new byte[]{4, 5});
+		byte[] data = files.saveContents();
+
+		ArchiveFiles eager = files(3);
+		eager.loadContents(data);
+		ArchiveFiles lazy = files(3);
+		lazy.loadContents(data, true);
+
+		assertEquals(files, eager);
+		assertEquals(files, lazy);
+		assertEquals(2, lazy.findFile(2).getSize());
+		assertArrayEquals(new byte[]{4, 5}, lazy.findFile(2).getContents());
+	}
+
+	@Test
+	public void testLazyChunks()
+	{
+		// two files over two chunks: "ab" + "x", then "cd" + "yz"
+		OutputStream out = new OutputStream();
+		out.writeBytes(new byte[]{'a', 'b', 'x', 'c', 'd', 'y', 'z'});
+		out.writeInt(2);
+		out.writeInt(-1);
+		out.writeInt(2);
+		out.writeInt(0);
+		out.writeByte(2);
+		byte[] data = out.flip();
+
+		ArchiveFiles eager = files(2);
+		eager.loadContents(data);
+		ArchiveFiles lazy = files(2);
+		lazy.loadContents(data, true);
+
+		assertArrayEquals("abcd".getBytes(), lazy.findFile(0).getContents());
+		assertArrayEquals("xyz".getBytes(), lazy.findFile(1).getContents());
+		assertEquals(3, lazy.findFile(1).getSize());
+		assertEquals(eager, lazy);
+	}
+
+	@Test
+	public void testDecode()
+	{
+		ArchiveFiles files = new ArchiveFiles();
+		for (int i = 0; i < 1000; ++i)
+		{
+			FSFile file = new FSFile(i * 7 % 1000);
+			file.setContents(new byte[]{(byte) i, (byte) (i >> 8)});
+			files.addFile(file);
+		}
+
+		ArchiveFiles.FileDecoder<String> decoder = (id, b) -> id + ":" + ((b[0] & 0xFF) | (b[1] & 0xFF) << 8);
+		Map<Integer, String> serial = files.decode(decoder, false);
+		Map<Integer, String> parallel = files.decode(decoder, true);
+
+		assertEquals(1000, serial.size());
+		assertEquals("7:1", serial.get(7));
+		assertEquals(new ArrayList<>(serial.entrySet()), new ArrayList<>(parallel.entrySet()));
+	}
+
+	private static ArchiveFiles files(int count)
+	{
+		ArchiveFiles files = new ArchiveFiles();
+		for (int i = 0; i < count; ++i)
+		{
+			files.addFile(new FSFile(i));
+		}
+		return files;
+	}
+}
@@ -26,8 +26,12 @@ package net.runelite.cache.fs;
 
 import java.io.IOException;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import static net.runelite.cache.fs.jagex.CompressionType.BZ2;
 import static net.runelite.cache.fs.jagex.CompressionType.GZ;
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import net.runelite.cache.util.GZip;
 import org.junit.Test;
 
 public class ContainerTest
@@ -52,4 +56,63 @@ public class ContainerTest
 		assertArrayEquals(data, container.data);
 	}
 
+	@Test
+	public void testDecompressSlice() throws IOException
+	{
+		int[] keys = new int[]
+		{
+			4, 8, 15, 16
+		};
+		Random random = new Random(43L);
+		byte[] data = new byte[1024];
+		random.nextBytes(data);
+
+		Container container = new Container(BZ2, 7);
+		container.compress(data, keys);
+		byte[] compressedData = container.data;
+		int crc = container.crc;
+
+		// the keyed decompress must not touch its input
+		byte[] copy = compressedData.clone();
+		container = Container.decompress(compressedData, keys);
+		assertArrayEquals(copy, compressedData);
+		assertArrayEquals(data, container.data);
+
+		byte[] buffer = new byte[compressedData.length + 16];
+		System.arraycopy(compressedData, 0, buffer, 3, compressedData.length);
+		container = Container.decompress(buffer, 3, compressedData.length, keys);
+		assertArrayEquals(data, container.data);
+		assertEquals(crc, container.crc);
+		assertEquals(7, container.revision);
+	}
+
+	@Test
+	public void testSetDecompressor() throws IOException
+	{
+		byte[] data = new byte[512];
+		new Random(44L).nextBytes(data);
+
+		Container container = new Container(GZ, -1);
+		container.compress(data, null);
+		byte[] compressedData = container.data;
+
+		AtomicInteger calls = new AtomicInteger();
+		Container.setDecompressor(GZ, (b, off, len, decompressedLength) ->
+		{
+			calls.incrementAndGet();
+			return GZip.decompress(b, off, len);
+		});
+		try
+		{
+			container = Container.decompress(compressedData, null);
+		}
+		finally
+		{
+			Container.setDecompressor(GZ, GZip::decompress);
+		}
+
+		assertEquals(1, calls.get());
+		assertArrayEquals(data, container.data);
+	}
+
 }
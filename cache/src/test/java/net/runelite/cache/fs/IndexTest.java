@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.fs;
+
+import net.runelite.cache.util.Djb2;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class IndexTest
+{
+	@Test
+	public void testGetArchive()
+	{
+		Index index = new Index(0);
+		Archive a = index.addArchive(5);
+		Archive b = index.addArchive(7);
+
+		assertSame(a, index.getArchive(5));
+		assertSame(b, index.getArchive(7));
+		assertNull(index.getArchive(6));
+
+		assertTrue(index.removeArchive(a));
+		assertNull(index.getArchive(5));
+		assertFalse(index.removeArchive(a));
+		assertEquals(1, index.getArchives().size());
+	}
+
+	@Test
+	public void testFindArchiveByName()
+	{
+		Index index = new Index(5);
+		Archive m = index.addArchive(0);
+		Archive l = index.addArchive(1);
+		m.setNameHash(Djb2.hash("m49_52"));
+		l.setNameHash(Djb2.hash("l49_52"));
+
+		assertSame(m, index.findArchiveByName("m49_52"));
+		assertSame(l, index.findArchiveByName("l49_52"));
+		assertNull(index.findArchiveByName("m50_50"));
+
+		// renaming after a lookup must be picked up
+		l.setNameHash(Djb2.hash("l50_50"));
+		assertNull(index.findArchiveByName("l49_52"));
+		assertSame(l, index.findArchiveByName("l50_50"));
+
+		index.removeArchive(m);
+		assertNull(index.findArchiveByName("m49_52"));
+	}
+
+	@Test
+	public void testOrderPreserved()
+	{
+		Index index = new Index(0);
+		for (int i = 10; i >= 0; --i)
+		{
+			index.addArchive(i);
+		}
+
+		index.removeArchive(index.getArchive(4));
+
+		int expected = 10;
+		for (Archive archive : index.getArchives())
+		{
+			if (expected == 4)
+			{
+				--expected;
+			}
+			assertEquals(expected--, archive.getArchiveId());
+		}
+	}
+}
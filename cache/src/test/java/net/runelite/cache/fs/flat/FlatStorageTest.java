@@ -25,6 +25,7 @@
 package net.runelite.cache.fs.flat;
 
 import java.io.File;
+import java.nio.file.Files;
 import net.runelite.cache.fs.Archive;
 import net.runelite.cache.fs.Container;
 import net.runelite.cache.fs.Index;
@@ -100,4 +101,72 @@ public class FlatStorageTest
 			assertEquals(archive2.getRevision(), archive2_2.getRevision());
 		}
 	}
+
+	@Test
+	public void testBinaryConversion() throws Exception
+	{
+		File text = folder.newFolder();
+		try (Store store = new Store(new FlatStorage(text)))
+		{
+			Index index = store.addIndex(2);
+			index.setProtocol(7);
+			index.setRevision(1234);
+			index.setCrc(-99);
+			index.setNamed(true);
+
+			for (int i = 5; i >= 0; --i)
+			{
+				Archive archive = index.addArchive(i * 3);
+				archive.setNameHash(i * 1000 - 2500);
+				archive.setRevision(i);
+				archive.setCrc(i * 31);
+				archive.setCompression(i % 3);
+
+				FileData[] fileData = new FileData[i + 1];
+				for (int j = 0; j <= i; ++j)
+				{
+					fileData[j] = new FileData();
+					fileData[j].setId(j * 2);
+					fileData[j].setNameHash(j - i);
+				}
+				archive.setFileData(fileData);
+
+				// leave one archive without contents
+				if (i != 4)
+				{
+					store.getStorage().saveArchive(archive, ("archive" + i).getBytes());
+				}
+			}
+
+			store.addIndex(0);
+
+			store.save();
+		}
+
+		File binary = folder.newFolder();
+		BinaryFlatStorage.convert(new FlatStorage(text), new BinaryFlatStorage(binary));
+
+		try (Store store = new Store(new BinaryFlatStorage(binary)))
+		{
+			store.load();
+
+			Index index = store.findIndex(2);
+			assertEquals(1234, index.getRevision());
+			assertEquals(6, index.getArchives().size());
+			assertArrayEquals("archive5".getBytes(), store.getStorage().loadArchive(index.getArchive(15)));
+			assertNull(store.getStorage().loadArchive(index.getArchive(12)));
+			assertNull(store.getStorage().load(2, 1));
+			assertNull(store.getStorage().load(1, 0));
+			assertEquals(6, index.getArchive(15).getFileData().length);
+			assertEquals(0, store.findIndex(0).getArchives().size());
+		}
+
+		File text2 = folder.newFolder();
+		BinaryFlatStorage.convert(new BinaryFlatStorage(binary), new FlatStorage(text2));
+
+		for (String name : new String[]{"0.flatcache", "2.flatcache"})
+		{
+			assertArrayEquals(Files.readAllBytes(new File(text, name).toPath()), Files.readAllBytes(new File(text2, name).toPath()));
+		}
+	}
 }
@@ -167,4 +167,30 @@ public class DataFileTest
 		Assert.assertEquals("testtesttesttest1", str);
 		Assert.assertEquals(42, res2.revision);
 	}
+
+	@Test
+	public void testReadOnly() throws IOException
+	{
+		byte[] b = new byte[4096];
+		for (int i = 0; i < b.length; ++i)
+		{
+			b[i] = (byte) (i * 31);
+		}
+
+		File file = folder.newFile();
+		DataFileWriteResult res, res2;
+		try (DataFile df = new DataFile(file))
+		{
+			res = df.write(42, 3, b);
+			res2 = df.write(7, 0x1FFFF, b);
+		}
+
+		try (DataFile df = DataFile.openReadOnly(file))
+		{
+			Assert.assertArrayEquals(b, df.read(42, 3, res.sector, res.compressedLength));
+			Assert.assertArrayEquals(b, df.read(7, 0x1FFFF, res2.sector, res2.compressedLength));
+			// wrong archive for the sector chain
+			Assert.assertNull(df.read(42, 4, res.sector, res.compressedLength));
+		}
+	}
 }
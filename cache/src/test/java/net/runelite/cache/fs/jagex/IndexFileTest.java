@@ -47,4 +47,24 @@ public class IndexFileTest
 		IndexEntry entry2 = index.read(7);
 		Assert.assertEquals(entry, entry2);
 	}
+
+	@Test
+	public void testReadOnly() throws IOException
+	{
+		File file = folder.newFile();
+		IndexEntry entry;
+		try (IndexFile index = new IndexFile(5, file))
+		{
+			entry = new IndexEntry(index, 7, 8, 9);
+			index.write(entry);
+		}
+
+		try (IndexFile index = IndexFile.openReadOnly(5, file))
+		{
+			Assert.assertEquals(8, index.getIndexCount());
+			Assert.assertEquals(entry, index.read(7));
+			Assert.assertNull(index.read(3));
+			Assert.assertNull(index.read(8));
+		}
+	}
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.models;
+
+import net.runelite.cache.definitions.ModelDefinition;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+public class ModelSummaryTest
+{
+	private static final short RED = JagexColor.packHSL(0, 7, 64);
+	private static final short GREEN = JagexColor.packHSL(21, 7, 64);
+	private static final short BLUE = JagexColor.packHSL(42, 7, 64);
+
+	@Test
+	public void testSummary()
+	{
+		ModelSummary summary = ModelSummary.of(null, model(new int[]{0, -120, 30, -80}, RED, GREEN, RED, BLUE, GREEN));
+
+		assertEquals(120, summary.getHeight());
+		assertArrayEquals(new int[]{bgr(RED), bgr(GREEN), bgr(BLUE)}, summary.getColors());
+	}
+
+	@Test
+	public void testCombine()
+	{
+		ModelSummary flat = ModelSummary.of(null, model(new int[]{0, 10}, GREEN));
+		ModelSummary tall = ModelSummary.of(null, model(new int[]{-200}, RED, GREEN));
+
+		ModelSummary combined = ModelSummary.combine(flat, tall);
+		assertEquals(200, combined.getHeight());
+		// colours are not deduplicated across models
+		assertArrayEquals(new int[]{bgr(GREEN), bgr(RED), bgr(GREEN)}, combined.getColors());
+	}
+
+	@Test
+	public void testSummaries() throws Exception
+	{
+		int[] loads = new int[1];
+		ModelSummaries summaries = new ModelSummaries(modelId ->
+		{
+			++loads[0];
+			return modelId == 1 ? null : model(new int[]{-modelId}, RED);
+		}, null);
+
+		ModelSummary summary = summaries.get(5);
+		assertEquals(5, summary.getHeight());
+		assertSame(summary, summaries.get(5));
+		assertNull(summaries.get(1));
+		assertNull(summaries.get(1));
+		assertEquals(2, loads[0]);
+
+		ModelSummary combined = summaries.get(new int[]{1, 7, 5});
+		assertEquals(7, combined.getHeight());
+		assertEquals(2, combined.getColorCount());
+		assertEquals(3, loads[0]);
+	}
+
+	private static int bgr(short hsl)
+	{
+		return JagexColor.RGBtoBGR(JagexColor.HSLtoRGB(hsl, JagexColor.BRIGHTNESS_MAX));
+	}
+
+	private static ModelDefinition model(int[] vertexY, short... faceColors)
+	{
+		ModelDefinition model = new ModelDefinition();
+		model.vertexY = vertexY;
+		model.faceCount = faceColors.length;
+		model.faceColors = faceColors;
+		return model;
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.region;
+
+import java.util.List;
+import net.runelite.cache.definitions.LocationsDefinition;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class RegionTest
+{
+	@Test
+	public void testLocationsByTile()
+	{
+		Region region = new Region(50, 50);
+
+		LocationsDefinition locs = new LocationsDefinition();
+		locs.getLocations().add(new Location(1, 10, 0, new Position(3, 4, 0)));
+		locs.getLocations().add(new Location(2, 0, 1, new Position(3, 4, 1)));
+		locs.getLocations().add(new Location(3, 22, 2, new Position(3, 4, 0)));
+		locs.getLocations().add(new Location(4, 10, 3, new Position(63, 63, 3)));
+		region.loadLocations(locs);
+
+		List<Location> tile = region.getLocations(0, 3, 4);
+		assertEquals(2, tile.size());
+		assertEquals(1, tile.get(0).getId());
+		assertEquals(3, tile.get(1).getId());
+		assertEquals(region.getBaseX() + 3, tile.get(0).getPosition().getX());
+
+		assertEquals(1, region.getLocations(1, 3, 4).size());
+		assertEquals(4, region.getLocations(3, 63, 63).get(0).getId());
+
+		assertTrue(region.getLocations(2, 3, 4).isEmpty());
+		assertTrue(region.getLocations(4, 3, 4).isEmpty());
+		assertTrue(region.getLocations(0, 64, 0).isEmpty());
+		assertEquals(4, region.getLocations().size());
+	}
+
+	@Test
+	public void testLocationsNotLoaded()
+	{
+		Region region = new Region(50, 50);
+		assertTrue(region.getLocations(0, 3, 4).isEmpty());
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class BZip2DecoderTest
+{
+	// "runelite" compressed with bzip2 -1, without the stream header
+	private static final byte[] RUNELITE = new byte[]
+	{
+		0x31, 0x41, 0x59, 0x26, 0x53, 0x59, (byte) 0x85, (byte) 0xf2, (byte) 0x8b, 0x2e,
+		0x00, 0x00, 0x02, (byte) 0x81, (byte) 0x80, 0x02, 0x25, 0x16, 0x00, 0x20,
+		0x00, 0x22, 0x18, 0x02, 0x18, 0x05, 0x1a, (byte) 0xa2, 0x5c, 0x2e,
+		(byte) 0xe4, (byte) 0x8a, 0x70, (byte) 0xa1, 0x21, 0x0b, (byte) 0xe5, 0x16, 0x5c
+	};
+
+	@Test
+	public void testDecode() throws IOException
+	{
+		byte[] buf = new byte[RUNELITE.length + 5];
+		System.arraycopy(RUNELITE, 0, buf, 2, RUNELITE.length);
+
+		byte[] data = BZip2.decompress(buf, 2, RUNELITE.length, 8);
+		assertEquals("runelite", new String(data, StandardCharsets.UTF_8));
+	}
+
+	@Test(expected = IOException.class)
+	public void testWrongLength() throws IOException
+	{
+		BZip2.decompress(RUNELITE, 0, RUNELITE.length, 9);
+	}
+
+	@Test(expected = IOException.class)
+	public void testTruncated() throws IOException
+	{
+		BZip2.decompress(RUNELITE, 0, RUNELITE.length - 1, 8);
+	}
+
+	@Test(expected = IOException.class)
+	public void testCorrupt() throws IOException
+	{
+		byte[] buf = RUNELITE.clone();
+		buf[20] ^= 0x10;
+		BZip2.decompress(buf, 0, buf.length, 8);
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException
+	{
+		Random random = new Random(42L);
+		byte[] data = new byte[300_000];
+		// runs and a skewed alphabet exercise the run length and huffman paths
+		for (int i = 0; i < data.length; )
+		{
+			int run = random.nextInt(8) == 0 ? random.nextInt(300) : 1;
+			Arrays.fill(data, i, Math.min(data.length, i + run), (byte) (random.nextInt(16) * random.nextInt(16)));
+			i += run;
+		}
+
+		byte[] compressed = BZip2.compressApache(data);
+		assertArrayEquals(data, BZip2.decompress(compressed, 0, compressed.length, data.length));
+	}
+}
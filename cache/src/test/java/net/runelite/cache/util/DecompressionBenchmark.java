@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import com.google.common.primitives.Ints;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import net.runelite.cache.StoreLocation;
+import net.runelite.cache.fs.Archive;
+import net.runelite.cache.fs.Index;
+import net.runelite.cache.fs.Storage;
+import net.runelite.cache.fs.Store;
+import net.runelite.cache.fs.jagex.CompressionType;
+import static org.junit.Assert.assertArrayEquals;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the known length decompressors used by containers against the
+ * previous stream based ones, over the unencrypted archives of the test cache.
+ * Run by hand, it is not part of the build.
+ */
+public class DecompressionBenchmark
+{
+	private static final Logger logger = LoggerFactory.getLogger(DecompressionBenchmark.class);
+
+	private static final int WARMUP = 3;
+	private static final int ITERATIONS = 10;
+
+	@Test
+	@Ignore
+	public void benchmark() throws IOException
+	{
+		List<byte[]> bzip2 = new ArrayList<>();
+		List<byte[]> gzip = new ArrayList<>();
+
+		try (Store store = new Store(StoreLocation.LOCATION))
+		{
+			store.load();
+
+			Storage storage = store.getStorage();
+			for (Index index : store.getIndexes())
+			{
+				for (Archive archive : index.getArchives())
+				{
+					byte[] data = storage.load(index.getId(), archive.getArchiveId());
+					if (data == null || data.length < 9)
+					{
+						continue;
+					}
+
+					switch (data[0])
+					{
+						case CompressionType.BZ2:
+							bzip2.add(data);
+							break;
+						case CompressionType.GZ:
+							gzip.add(data);
+							break;
+					}
+				}
+			}
+		}
+
+		run("bzip2", bzip2, (b, off, len, decompressedLength) -> BZip2.decompress(b, off, len), BZip2::decompress);
+		run("gzip", gzip, (b, off, len, decompressedLength) -> GZip.decompress(b, off, len), GZip::decompress);
+	}
+
+	private static void run(String name, List<byte[]> containers, Decompressor stream, Decompressor direct) throws IOException
+	{
+		// encrypted containers can't be decompressed without their keys, skip them
+		List<byte[]> usable = new ArrayList<>();
+		long bytes = 0;
+		for (byte[] b : containers)
+		{
+			try
+			{
+				byte[] expected = decompress(stream, b);
+				assertArrayEquals(expected, decompress(direct, b));
+				usable.add(b);
+				bytes += expected.length;
+			}
+			catch (IOException ex)
+			{
+				logger.debug("skipping container", ex);
+			}
+		}
+
+		for (int i = 0; i < WARMUP; ++i)
+		{
+			decompressAll(stream, usable);
+			decompressAll(direct, usable);
+		}
+
+		long streamTime = decompressAll(stream, usable);
+		long directTime = decompressAll(direct, usable);
+
+		logger.info("{}: {} containers, {} bytes; stream {} MB/s, direct {} MB/s", name, usable.size(), bytes,
+			bytes * ITERATIONS * 1000L / streamTime, bytes * ITERATIONS * 1000L / directTime);
+	}
+
+	private static long decompressAll(Decompressor decompressor, List<byte[]> containers) throws IOException
+	{
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; ++i)
+		{
+			for (byte[] b : containers)
+			{
+				decompress(decompressor, b);
+			}
+		}
+		return System.nanoTime() - start;
+	}
+
+	private static byte[] decompress(Decompressor decompressor, byte[] b) throws IOException
+	{
+		int compressedLength = Ints.fromBytes(b[1], b[2], b[3], b[4]);
+		int decompressedLength = Ints.fromBytes(b[5], b[6], b[7], b[8]);
+		if (compressedLength < 0 || 9 + compressedLength > b.length || decompressedLength < 0)
+		{
+			throw new IOException("bad container header");
+		}
+		return decompressor.decompress(b, 9, compressedLength, decompressedLength);
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class DefinitionTableTest
+{
+	@Test
+	public void test()
+	{
+		DefinitionTable<String> table = new DefinitionTable<>();
+		assertTrue(table.isEmpty());
+		assertNull(table.get(0));
+		assertNull(table.get(-1));
+
+		table.put(130, "c");
+		table.put(0, "a");
+		table.put(64, "b");
+		assertNull(table.put(63, "x"));
+		assertEquals("x", table.put(63, "y"));
+
+		assertEquals(4, table.size());
+		assertEquals("b", table.get(64));
+		assertNull(table.get(65));
+		assertNull(table.get(10000));
+		assertTrue(table.contains(130));
+		assertFalse(table.contains(129));
+
+		List<String> values = new ArrayList<>();
+		for (String s : table)
+		{
+			values.add(s);
+		}
+		assertEquals(Arrays.asList("a", "y", "b", "c"), values);
+		assertEquals(values, new ArrayList<>(table.values()));
+
+		List<Integer> ids = new ArrayList<>();
+		table.forEachEntry((s, id) -> ids.add(id));
+		assertEquals(Arrays.asList(0, 63, 64, 130), ids);
+
+		Map<Integer, String> map = table.asMap();
+		assertEquals(4, map.size());
+		assertEquals("c", map.get(130));
+		assertEquals(new ArrayList<>(map.keySet()), ids);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeId()
+	{
+		new DefinitionTable<String>().put(-1, "a");
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class IntHashSetTest
+{
+	@Test
+	public void test()
+	{
+		IntHashSet set = new IntHashSet();
+		assertTrue(set.isEmpty());
+		assertFalse(set.contains(0));
+
+		assertTrue(set.add(0));
+		assertFalse(set.add(0));
+		assertTrue(set.add(-1));
+		assertTrue(set.add(Integer.MIN_VALUE));
+		assertFalse(set.add(-1));
+
+		assertEquals(3, set.size());
+		assertTrue(set.contains(0));
+		assertTrue(set.contains(Integer.MIN_VALUE));
+		assertFalse(set.contains(1));
+
+		set.clear();
+		assertTrue(set.isEmpty());
+		assertFalse(set.contains(0));
+		assertFalse(set.contains(-1));
+	}
+
+	@Test
+	public void testGrow()
+	{
+		Random random = new Random(42);
+		IntHashSet set = new IntHashSet(4);
+		Set<Integer> expected = new HashSet<>();
+
+		for (int i = 0; i < 10_000; ++i)
+		{
+			// a small range so there are plenty of duplicates
+			int value = random.nextInt(4096) - 2048;
+			assertEquals(expected.add(value), set.add(value));
+		}
+
+		assertEquals(expected.size(), set.size());
+		for (int i = -3000; i < 3000; ++i)
+		{
+			assertEquals(expected.contains(i), set.contains(i));
+		}
+	}
+}
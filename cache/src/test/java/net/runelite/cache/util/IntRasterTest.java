@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class IntRasterTest
+{
+	private static final int W = 37;
+	private static final int H = 23;
+
+	@Test
+	public void testDirect()
+	{
+		assertTrue(IntRaster.of(new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB)).isDirect());
+		assertTrue(IntRaster.of(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB)).isDirect());
+		assertFalse(IntRaster.of(new BufferedImage(1, 1, BufferedImage.TYPE_INT_BGR)).isDirect());
+		assertFalse(IntRaster.of(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB_PRE)).isDirect());
+	}
+
+	@Test
+	public void testMatchesSetRGB()
+	{
+		for (int type : new int[]{BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_BGR, BufferedImage.TYPE_3BYTE_BGR})
+		{
+			BufferedImage expected = new BufferedImage(W, H, type);
+			BufferedImage actual = new BufferedImage(W, H, type);
+			draw(expected, actual, 0, 0);
+
+			assertArrayEquals(pixels(expected), pixels(actual));
+		}
+	}
+
+	@Test
+	public void testSubimage()
+	{
+		for (int type : new int[]{BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB})
+		{
+			BufferedImage expected = new BufferedImage(W + 10, H + 10, type);
+			BufferedImage actual = new BufferedImage(W + 10, H + 10, type);
+			draw(expected.getSubimage(3, 7, W, H), actual.getSubimage(3, 7, W, H), 3, 7);
+
+			assertArrayEquals(pixels(expected), pixels(actual));
+		}
+	}
+
+	@Test
+	public void testGetRGB()
+	{
+		for (int type : new int[]{BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_3BYTE_BGR})
+		{
+			BufferedImage image = new BufferedImage(W + 10, H + 10, type);
+			draw(new BufferedImage(W + 10, H + 10, type), image, 0, 0);
+
+			BufferedImage sub = image.getSubimage(3, 7, W, H);
+			IntRaster raster = IntRaster.of(sub);
+			assertArrayEquals(pixels(sub), raster.getRGB(0, 0, W, H, null));
+			assertEquals(sub.getRGB(W - 1, H - 1), raster.getRGB(W - 1, H - 1));
+		}
+	}
+
+	@Test
+	public void testIsFilled()
+	{
+		for (int type : new int[]{BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_3BYTE_BGR})
+		{
+			BufferedImage image = new BufferedImage(W, H, type);
+			IntRaster raster = IntRaster.of(image);
+			raster.fillRect(0, 0, W, H, 0xFF102030);
+
+			assertTrue(raster.isFilled(0, 0, W, H, 0xFF102030));
+			// the alpha has to match as well
+			assertFalse(raster.isFilled(0, 0, W, H, 0x00102030));
+
+			raster.setRGB(W - 1, H - 1, 0xFF102031);
+			assertFalse(raster.isFilled(0, 0, W, H, 0xFF102030));
+			assertTrue(raster.isFilled(0, 0, W - 1, H, 0xFF102030));
+		}
+	}
+
+	@Test(expected = ArrayIndexOutOfBoundsException.class)
+	public void testOutOfBounds()
+	{
+		BufferedImage image = new BufferedImage(W + 10, H + 10, BufferedImage.TYPE_INT_RGB);
+		IntRaster.of(image.getSubimage(0, 0, W, H)).setRGB(W, 0, -1);
+	}
+
+	private static void draw(BufferedImage expected, BufferedImage actual, int x0, int y0)
+	{
+		Random random = new Random(42);
+		IntRaster raster = IntRaster.of(actual);
+
+		for (int i = 0; i < 200; ++i)
+		{
+			int x = random.nextInt(W);
+			int y = random.nextInt(H);
+			int argb = random.nextInt();
+			expected.setRGB(x, y, argb);
+			raster.setRGB(x, y, argb);
+		}
+
+		int argb = random.nextInt();
+		for (int y = 2; y < 2 + 5; ++y)
+		{
+			for (int x = 4; x < 4 + 9; ++x)
+			{
+				expected.setRGB(x, y, argb);
+			}
+		}
+		raster.fillRect(4, 2, 9, 5, argb);
+
+		// every other pixel is transparent and should be left alone
+		int[] src = new int[8 * 6];
+		for (int i = 0; i < src.length; ++i)
+		{
+			src[i] = (i & 1) == 0 ? 0 : random.nextInt();
+		}
+		for (int y = 0; y < 4; ++y)
+		{
+			for (int x = 0; x < 5; ++x)
+			{
+				int rgb = src[8 + 2 + y * 8 + x];
+				if (rgb != 0)
+				{
+					expected.setRGB(W - 5 + x, H - 4 + y, rgb);
+				}
+			}
+		}
+		raster.copyOpaque(src, 8 + 2, 8, W - 5, H - 4, 5, 4);
+	}
+
+	private static int[] pixels(BufferedImage image)
+	{
+		return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+	}
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.Deflater;
+import javax.imageio.ImageIO;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class PngEncoderTest
+{
+	private static final int W = 61;
+	private static final int H = 29;
+
+	// IHDR bit depth and colour type
+	private static final int BIT_DEPTH = 24;
+	private static final int COLOR_TYPE = 25;
+
+	private final PngEncoder encoder = new PngEncoder(Deflater.DEFAULT_COMPRESSION);
+
+	@Test
+	public void testPalette() throws IOException
+	{
+		int[][] palettes = {
+			{0xFF000000},
+			{0xFF000000, 0xFFFFFFFF},
+			{0xFF000000, 0xFFFFFFFF, 0xFFFF0000},
+			{0xFF000000, 0xFFFFFFFF, 0xFFFF0000, 0xFF00FF00, 0xFF0000FF},
+			randomColors(200),
+		};
+		int[] bitDepths = {1, 1, 2, 4, 8};
+
+		for (int i = 0; i < palettes.length; ++i)
+		{
+			BufferedImage image = image(BufferedImage.TYPE_INT_RGB, palettes[i]);
+			byte[] png = encoder.encode(image);
+
+			assertEquals(bitDepths[i], png[BIT_DEPTH]);
+			assertEquals(3, png[COLOR_TYPE]);
+			assertArrayEquals(pixels(image), pixels(ImageIO.read(new ByteArrayInputStream(png))));
+		}
+	}
+
+	@Test
+	public void testTransparentPalette() throws IOException
+	{
+		BufferedImage image = image(BufferedImage.TYPE_INT_ARGB, new int[]{0xFF000000, 0x00000000, 0x80FF0000});
+		byte[] png = encoder.encode(image);
+
+		assertEquals(3, png[COLOR_TYPE]);
+		assertArrayEquals(pixels(image), pixels(ImageIO.read(new ByteArrayInputStream(png))));
+	}
+
+	@Test
+	public void testGrey() throws IOException
+	{
+		int[] greys = new int[256];
+		for (int i = 0; i < greys.length; ++i)
+		{
+			greys[i] = 0xFF000000 | i * 0x010101;
+		}
+
+		BufferedImage image = new BufferedImage(W, H, BufferedImage.TYPE_INT_RGB);
+		// smooth in both directions, like a height map
+		for (int y = 0; y < H; ++y)
+		{
+			for (int x = 0; x < W; ++x)
+			{
+				image.setRGB(x, y, greys[(x * 3 + y * 2) & 0xFF]);
+			}
+		}
+
+		byte[] png = encoder.encode(image.getSubimage(0, 0, W, H));
+		assertEquals(8, png[BIT_DEPTH]);
+		assertEquals(0, png[COLOR_TYPE]);
+
+		// ImageIO converts grey to rgb through a linear colour space, so compare the samples
+		BufferedImage read = ImageIO.read(new ByteArrayInputStream(png));
+		for (int y = 0; y < H; ++y)
+		{
+			for (int x = 0; x < W; ++x)
+			{
+				assertEquals(image.getRGB(x, y) & 0xFF, read.getRaster().getSample(x, y, 0));
+			}
+		}
+	}
+
+	@Test
+	public void testManyColors() throws IOException
+	{
+		BufferedImage image = image(BufferedImage.TYPE_INT_RGB, randomColors(1000));
+		byte[] png = encoder.encode(image);
+
+		assertArrayEquals(pixels(image), pixels(ImageIO.read(new ByteArrayInputStream(png))));
+	}
+
+	@Test
+	public void testSubimage() throws IOException
+	{
+		BufferedImage image = image(BufferedImage.TYPE_INT_RGB, new int[]{0xFF000000, 0xFFFFFFFF, 0xFFFF0000});
+		BufferedImage sub = image.getSubimage(5, 3, 17, 11);
+
+		assertArrayEquals(pixels(sub), pixels(ImageIO.read(new ByteArrayInputStream(encoder.encode(sub)))));
+	}
+
+	@Test
+	public void testChunkPixels() throws IOException
+	{
+		// a chunk away from the map's origin, read as the collision dumper reads it
+		BufferedImage map = new BufferedImage(1024, 768, BufferedImage.TYPE_INT_RGB);
+		for (int y = 0; y < map.getHeight(); ++y)
+		{
+			for (int x = 0; x < map.getWidth(); ++x)
+			{
+				map.setRGB(x, y, ((x >> 2) + (y >> 2)) % 3 == 0 ? 0xFF000000 : 0xFFFFFFFF);
+			}
+		}
+		map.setRGB(300, 260, 0xFFFF0000);
+
+		int[] pixels = IntRaster.of(map).getRGB(256, 256, 256, 256, null);
+		BufferedImage read = ImageIO.read(new ByteArrayInputStream(encoder.encode(pixels, 256, 256)));
+
+		assertEquals(256, read.getWidth());
+		assertEquals(256, read.getHeight());
+		assertArrayEquals(pixels(map.getSubimage(256, 256, 256, 256)), pixels(read));
+	}
+
+	@Test
+	public void testManyColorPixels() throws IOException
+	{
+		BufferedImage image = image(BufferedImage.TYPE_INT_RGB, randomColors(1000));
+		byte[] png = encoder.encode(pixels(image), W, H);
+
+		assertArrayEquals(pixels(image), pixels(ImageIO.read(new ByteArrayInputStream(png))));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidLevel()
+	{
+		new PngEncoder(10);
+	}
+
+	private static BufferedImage image(int type, int[] colors)
+	{
+		Random random = new Random(42);
+		BufferedImage image = new BufferedImage(W, H, type);
+		for (int y = 0; y < H; ++y)
+		{
+			for (int x = 0; x < W; ++x)
+			{
+				// every colour at least once
+				int i = y * W + x;
+				image.setRGB(x, y, colors[i < colors.length ? i : random.nextInt(colors.length)]);
+			}
+		}
+		return image;
+	}
+
+	private static int[] randomColors(int n)
+	{
+		Random random = new Random(n);
+		int[] colors = new int[n];
+		for (int i = 0; i < n; ++i)
+		{
+			colors[i] = 0xFF000000 | random.nextInt();
+		}
+		return colors;
+	}
+
+	private static int[] pixels(BufferedImage image)
+	{
+		return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+	}
+}
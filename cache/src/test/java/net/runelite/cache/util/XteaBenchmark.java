@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2024, Adam <Adam@sigterm.info>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.cache.util;
+
+import java.util.Random;
+import net.runelite.cache.io.InputStream;
+import net.runelite.cache.io.OutputStream;
+import static org.junit.Assert.assertArrayEquals;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares in place decryption against the previous stream based
+ * implementation, on buffers about the size of a map locations archive.
+ * Run by hand, it is not part of the build.
+ */
+public class XteaBenchmark
+{
+	private static final Logger logger = LoggerFactory.getLogger(XteaBenchmark.class);
+
+	private static final int GOLDEN_RATIO = 0x9E3779B9;
+	private static final int ROUNDS = 32;
+
+	private static final int SIZE = 16 * 1024;
+	private static final int WARMUP = 2000;
+	private static final int ITERATIONS = 20000;
+
+	private static final int[] KEY = new int[]
+	{
+		4, 8, 15, 16
+	};
+
+	@Test
+	@Ignore
+	public void benchmark()
+	{
+		Random random = new Random(42L);
+		byte[] data = new byte[SIZE];
+		random.nextBytes(data);
+
+		Xtea xtea = new Xtea(KEY);
+		byte[] buf = data.clone();
+		xtea.decrypt(buf, 0, buf.length);
+		assertArrayEquals(streamDecrypt(data, data.length), buf);
+
+		for (int i = 0; i < WARMUP; ++i)
+		{
+			streamDecrypt(data, data.length);
+			xtea.decrypt(buf, 0, buf.length);
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; ++i)
+		{
+			streamDecrypt(data, data.length);
+		}
+		long stream = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; ++i)
+		{
+			xtea.decrypt(buf, 0, buf.length);
+		}
+		long inPlace = System.nanoTime() - start;
+
+		logger.info("stream: {} MB/s, in place: {} MB/s",
+			throughput(stream), throughput(inPlace));
+	}
+
+	private static long throughput(long nanos)
+	{
+		return (long) SIZE * ITERATIONS * 1_000_000_000L / nanos / (1024 * 1024);
+	}
+
+	// Xtea.decrypt as it was before decrypting in place
+	private static byte[] streamDecrypt(byte[] data, int len)
+	{
+		InputStream in = new InputStream(data);
+		OutputStream out = new OutputStream(len);
+		int numBlocks = len / 8;
+		for (int block = 0; block < numBlocks; ++block)
+		{
+			int v0 = in.readInt();
+			int v1 = in.readInt();
+			int sum = GOLDEN_RATIO * ROUNDS;
+			for (int i = 0; i < ROUNDS; ++i)
+			{
+				v1 -= (((v0 << 4) ^ (v0 >>> 5)) + v0) ^ (sum + KEY[(sum >>> 11) & 3]);
+				sum -= GOLDEN_RATIO;
+				v0 -= (((v1 << 4) ^ (v1 >>> 5)) + v1) ^ (sum + KEY[sum & 3]);
+			}
+			out.writeInt(v0);
+			out.writeInt(v1);
+		}
+		out.writeBytes(in.getRemaining());
+		return out.flip();
+	}
+}
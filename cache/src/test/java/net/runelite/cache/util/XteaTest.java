@@ -25,6 +25,7 @@
 package net.runelite.cache.util;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import static org.junit.Assert.assertArrayEquals;
 import org.junit.Test;
 
@@ -53,4 +54,24 @@ public class XteaTest
 
 		assertArrayEquals(data, decData);
 	}
+
+	@Test
+	public void testDecryptInPlace()
+	{
+		byte[] data = "testtesttest1testtesttest2".getBytes(StandardCharsets.UTF_8);
+
+		int[] key = new int[]
+		{
+			4, 8, 15, 16
+		};
+
+		Xtea xtea = new Xtea(key);
+		byte[] encData = xtea.encrypt(data, data.length);
+
+		byte[] buf = new byte[encData.length + 5];
+		System.arraycopy(encData, 0, buf, 5, encData.length);
+		xtea.decrypt(buf, 5, encData.length);
+
+		assertArrayEquals(data, Arrays.copyOfRange(buf, 5, buf.length));
+	}
 }
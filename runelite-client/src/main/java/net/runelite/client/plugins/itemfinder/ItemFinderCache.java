@@ -30,14 +30,35 @@ import net.runelite.cache.fs.Store;
 
 import java.io.File;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.util.Arrays;
 
 // Use cache to list items because getCountObj isn't available in the client.
 public class ItemFinderCache
 {
 
-	ArrayList<Integer> ids = new ArrayList<Integer>();
-	ArrayList<String> names = new ArrayList<String>();
+	// Dense id -> name index, null for ids the cache has no usable name for.
+	private String[] names = new String[0];
+
+	public String getName(int id) {
+		if ((id < 0) || (id >= names.length)) {
+			return null;
+		}
+		return names[id];
+	}
+
+	public int size() {
+		return names.length;
+	}
+
+	private void put(int id, String name) {
+		if (id >= names.length) {
+			names = Arrays.copyOf(names, Math.max(id + 1, names.length * 2));
+		}
+		// First definition wins, same as the old indexOf lookup.
+		if (names[id] == null) {
+			names[id] = name;
+		}
+	}
 
 	public void Load() {
 
@@ -66,16 +87,14 @@ public class ItemFinderCache
 					name = "noted " + itemManager.getItem(itemDef.getNotedID()).getName().toLowerCase();
 				}
 
-				ids.add(itemDef.id);
-				names.add(name);
+				put(itemDef.id, name);
 
 				if (itemDef.getCountObj() != null) {
 					for (int i = 0; i < 10; ++i) {
 						int id = itemDef.getCountObj()[i];
 
 						if (id > 0) {
-							ids.add(id);
-							names.add(name);
+							put(id, name);
 						}
 					}
 				}
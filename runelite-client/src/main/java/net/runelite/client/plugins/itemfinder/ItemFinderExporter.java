@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2016-2018, Seth <Sethtroll3@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.runelite.client.plugins.itemfinder;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Bulk export pipeline for the item finder dump.
+// The client thread only renders sprites and calls Submit. Hashing and PNG encoding run on a worker pool,
+// and a single writer thread deduplicates in submission order and writes images.zip, item and id.
+public class ItemFinderExporter
+{
+	// Upper bound on rendered sprites waiting in the pipeline, so rendering can't outrun the workers.
+	private static final int MAX_IN_FLIGHT = 4096;
+
+	private static final long FNV64_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV64_PRIME = 0x100000001b3L;
+
+	private static final CompletableFuture<Sprite> END = CompletableFuture.completedFuture(null);
+
+	private final File dir;
+	private final ExecutorService workers;
+	private final Thread writer;
+	private final LinkedBlockingQueue<CompletableFuture<Sprite>> queue = new LinkedBlockingQueue<>();
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+	private static final class Sprite {
+		private final int id;
+		private final String name;
+		private final BufferedImage image;
+		private final int[] pixels;
+		private final long hash;
+
+		Sprite(int id, String name, BufferedImage image, int[] pixels, long hash) {
+			this.id = id;
+			this.name = name;
+			this.image = image;
+			this.pixels = pixels;
+			this.hash = hash;
+		}
+	}
+
+	private static final class Encoded {
+		private final Sprite sprite;
+		private final byte[] png;
+
+		Encoded(Sprite sprite, byte[] png) {
+			this.sprite = sprite;
+			this.png = png;
+		}
+	}
+
+	private static final class DedupKey {
+		private final String name;
+		private final long hash;
+
+		// Names are compared case-insensitively, like the original filter.
+		DedupKey(String name, long hash) {
+			this.name = name.toLowerCase(Locale.ROOT);
+			this.hash = hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof DedupKey)) {
+				return false;
+			}
+			DedupKey other = (DedupKey) o;
+			return (hash == other.hash) && name.equals(other.name);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(name, hash);
+		}
+	}
+
+	public ItemFinderExporter(File dir, int threads) {
+		this.dir = dir;
+		this.workers = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "ItemFinder worker");
+			t.setDaemon(true);
+			return t;
+		});
+		this.writer = new Thread(this::Write, "ItemFinder writer");
+		this.writer.setDaemon(true);
+	}
+
+	public void Start() {
+		writer.start();
+	}
+
+	public ExecutorService getWorkers() {
+		return workers;
+	}
+
+	public CompletableFuture<Void> getDone() {
+		return done;
+	}
+
+	public boolean IsSaturated() {
+		return inFlight.get() >= MAX_IN_FLIGHT;
+	}
+
+	// Called from the client thread with a freshly rendered sprite the exporter now owns.
+	// Sprites submitted after the pipeline failed are dropped, getDone says why.
+	public void Submit(int id, String name, BufferedImage image) {
+		inFlight.incrementAndGet();
+		CompletableFuture<Sprite> sprite;
+		try {
+			sprite = CompletableFuture.supplyAsync(() -> {
+				int[] pixels = Pixels(image);
+				return new Sprite(id, name, image, pixels, HashImage(image.getWidth(), image.getHeight(), pixels));
+			}, workers);
+		} catch (RejectedExecutionException e) {
+			inFlight.decrementAndGet();
+			return;
+		}
+		queue.add(Track(sprite));
+	}
+
+	// A failed task never reaches WriteEntry, so it leaves the in flight count here and fails the pipeline
+	// straight away instead of when the writer gets to it.
+	private <T> CompletableFuture<T> Track(CompletableFuture<T> future) {
+		return future.whenComplete((result, e) -> {
+			if (e != null) {
+				inFlight.decrementAndGet();
+				done.completeExceptionally(e);
+			}
+		});
+	}
+
+	// No more sprites will be submitted.
+	public void Finish() {
+		queue.add(END);
+	}
+
+	// ARGB pixels straight from the backing array when possible, getRGB otherwise.
+	private static int[] Pixels(BufferedImage img) {
+		if ((img.getType() == BufferedImage.TYPE_INT_ARGB) && (img.getRaster().getDataBuffer() instanceof DataBufferInt)) {
+			int[] data = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+			if (data.length == img.getWidth() * img.getHeight()) {
+				return data;
+			}
+		}
+		return img.getRGB(0, 0, img.getWidth(), img.getHeight(), null, 0, img.getWidth());
+	}
+
+	// 64-bit FNV-1a over the image dimensions and pixels.
+	private static long HashImage(int width, int height, int[] pixels) {
+		long hash = FNV64_OFFSET;
+		hash = (hash ^ width) * FNV64_PRIME;
+		hash = (hash ^ height) * FNV64_PRIME;
+		for (int pixel : pixels) {
+			hash = (hash ^ (pixel & 0xFF)) * FNV64_PRIME;
+			hash = (hash ^ ((pixel >>> 8) & 0xFF)) * FNV64_PRIME;
+			hash = (hash ^ ((pixel >>> 16) & 0xFF)) * FNV64_PRIME;
+			hash = (hash ^ (pixel >>> 24)) * FNV64_PRIME;
+		}
+		return hash;
+	}
+
+	private static boolean SameImages(Sprite a, Sprite b) {
+		return (a.image.getWidth() == b.image.getWidth()) && (a.image.getHeight() == b.image.getHeight()) && Arrays.equals(a.pixels, b.pixels);
+	}
+
+	private static byte[] Encode(BufferedImage image) {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			ImageIO.write(image, "png", out);
+			return out.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void Write() {
+		long start = System.currentTimeMillis();
+		int total = 0;
+		int written = 0;
+
+		HashMap<DedupKey, ArrayList<Sprite>> seen = new HashMap<>();
+		ArrayDeque<CompletableFuture<Encoded>> pending = new ArrayDeque<>();
+
+		try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(new File(dir, "images.zip"))));
+			FileWriter item = new FileWriter(new File(dir, "item"));
+			FileWriter id = new FileWriter(new File(dir, "id"))) {
+
+			while (true) {
+				CompletableFuture<Sprite> next = queue.take();
+				if (next == END) {
+					break;
+				}
+
+				Sprite sprite = next.join();
+				++total;
+
+				// Dedup runs here, in submission order, so the first item of a (name, image) pair is kept like before.
+				ArrayList<Sprite> bucket = seen.computeIfAbsent(new DedupKey(sprite.name, sprite.hash), k -> new ArrayList<>(1));
+				boolean isDuplicate = false;
+				for (Sprite other : bucket) {
+					if (SameImages(sprite, other)) {
+						isDuplicate = true;
+						break;
+					}
+				}
+
+				if (isDuplicate) {
+					inFlight.decrementAndGet();
+				} else {
+					bucket.add(sprite);
+					pending.add(Track(CompletableFuture.supplyAsync(() -> new Encoded(sprite, Encode(sprite.image)), workers)));
+				}
+
+				// Write whatever has finished encoding, keeping id order.
+				while (!pending.isEmpty() && (pending.peek().isDone() || pending.size() >= MAX_IN_FLIGHT)) {
+					WriteEntry(pending.poll().join(), zip, item, id);
+					++written;
+				}
+			}
+
+			while (!pending.isEmpty()) {
+				WriteEntry(pending.poll().join(), zip, item, id);
+				++written;
+			}
+
+			System.out.println("Loaded " + total + " items");
+			System.out.println("Filtered item count: " + written);
+			System.out.println("ItemFinder completed in " + (System.currentTimeMillis() - start) + "ms");
+			done.complete(null);
+		} catch (Exception e) {
+			System.out.println("ItemFinder exception:");
+			System.out.println(e);
+			done.completeExceptionally(e);
+		} finally {
+			workers.shutdown();
+		}
+	}
+
+	private void WriteEntry(Encoded encoded, ZipOutputStream zip, FileWriter item, FileWriter id) throws IOException {
+		zip.putNextEntry(new ZipEntry(encoded.sprite.id + ".png"));
+		zip.write(encoded.png);
+		zip.closeEntry();
+
+		item.write(encoded.sprite.name + System.lineSeparator());
+		id.write(encoded.sprite.id + System.lineSeparator());
+
+		inFlight.decrementAndGet();
+	}
+}
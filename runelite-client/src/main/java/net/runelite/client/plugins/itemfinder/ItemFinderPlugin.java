@@ -24,85 +24,93 @@
  */
 package net.runelite.client.plugins.itemfinder;
 
-import com.google.common.hash.Hashing;
 import net.runelite.api.Client;
 import net.runelite.api.GameState;
+import net.runelite.api.SpritePixels;
+import net.runelite.api.widgets.ItemQuantityMode;
 import net.runelite.client.callback.ClientThread;
-import net.runelite.client.game.ItemManager;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
 import net.runelite.client.task.Schedule;
-import org.apache.commons.lang3.tuple.MutableTriple;
 
-import javax.imageio.ImageIO;
 import javax.inject.Inject;
 import java.awt.image.BufferedImage;
-import java.awt.image.DataBufferByte;
-import java.awt.image.DataBufferInt;
-import java.io.*;
+import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
-import java.util.Base64;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.concurrent.CompletableFuture;
+
+import static net.runelite.api.Constants.CLIENT_DEFAULT_ZOOM;
+import static net.runelite.api.Constants.ITEM_SPRITE_HEIGHT;
+import static net.runelite.api.Constants.ITEM_SPRITE_WIDTH;
 
 @PluginDescriptor(
 		name = "ItemFinder"
 )
 
 public class ItemFinderPlugin extends Plugin {
-	@Inject
-	private ItemManager itemManager;
+	// Sprites rendered per client frame, small enough to keep the client responsive.
+	private static final int RENDER_BATCH_SIZE = 128;
+	// Frames to wait for an item's model to load before the item is left out of the dump.
+	private static final int MAX_RENDER_RETRIES = 100;
+
 	@Inject
 	private Client client;
 	@Inject
 	private ClientThread clientThread;
 
-	private boolean SameImages(BufferedImage img1, BufferedImage img2) {
-		if (img1.getWidth() == img2.getWidth() && img1.getHeight() == img2.getHeight()) {
-			for (int x = 0; x < img1.getWidth(); x++) {
-				for (int y = 0; y < img1.getHeight(); y++) {
-					if (img1.getRGB(x, y) != img2.getRGB(x, y))
-						return false;
-				}
-			}
-		} else {
-			return false;
+	private ItemFinderCache cache;
+	private ItemFinderExporter exporter;
+	private int nextId;
+	private int itemCount;
+	private int retries;
+
+	// Renders the next batch of sprites straight from the client, bypassing ItemManager's small image cache.
+	// Returns false until every item has been rendered so the client thread calls it again next frame.
+	private boolean RenderBatch() {
+		if (exporter.getDone().isDone()) {
+			// The pipeline failed, stop rendering and let the writer drain and report it.
+			System.out.println("ItemFinder stopped rendering at item " + nextId);
+			exporter.Finish();
+			return true;
 		}
-		return true;
-	}
-
-	ArrayList<MutableTriple<Integer, String, BufferedImage>> items = new ArrayList<MutableTriple<Integer, String, BufferedImage>>();
-	ArrayList<MutableTriple<Integer, String, BufferedImage>> filteredItems = new ArrayList<MutableTriple<Integer, String, BufferedImage>>();
 
-	private void LoadAll() {
+		if (client.getGameState().ordinal() < GameState.LOGIN_SCREEN.ordinal()) {
+			return false;
+		}
 
-		ItemFinderCache cache = new ItemFinderCache();
-		cache.Load();
-		for (int id = 0; id < client.getItemCount(); id++) {
-			if (cache.ids.indexOf(id) == -1) {
+		int end = Math.min(nextId + RENDER_BATCH_SIZE, itemCount);
+		for (; (nextId < end) && !exporter.IsSaturated(); nextId++) {
+			String name = cache.getName(nextId);
+			if (name == null) {
 				continue;
 			}
-			items.add(new MutableTriple(id, cache.names.get(cache.ids.indexOf(id)), itemManager.getImage(id, 0, false)));
-		}
-	}
 
-	private void Filter() {
-		for (int i = 0; i < items.size(); i++) {
-			boolean isDuplicate = false;
-			for (int j = 0; j < filteredItems.size(); j++) {
-				if (items.get(i).middle.equalsIgnoreCase(filteredItems.get(j).middle) && SameImages(items.get(i).right, filteredItems.get(j).right)) {
-					isDuplicate = true;
-					break;
+			SpritePixels sprite = client.createItemSprite(nextId, 0, 1, SpritePixels.DEFAULT_SHADOW_COLOR,
+					ItemQuantityMode.NEVER, false, CLIENT_DEFAULT_ZOOM);
+			if (sprite == null) {
+				// The model isn't loaded yet, try the same item again next frame.
+				if (++retries < MAX_RENDER_RETRIES) {
+					return false;
 				}
+				System.out.println("ItemFinder skipped item " + nextId + ", its sprite could not be rendered");
+				retries = 0;
+				continue;
 			}
+			retries = 0;
 
-			if (!isDuplicate) {
-				filteredItems.add(items.get(i));
-			}
+			BufferedImage img = new BufferedImage(ITEM_SPRITE_WIDTH, ITEM_SPRITE_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+			sprite.toBufferedImage(img);
+			exporter.Submit(nextId, name, img);
+		}
+
+		if (nextId < itemCount) {
+			return false;
 		}
+
+		exporter.Finish();
+		return true;
 	}
 
 	private boolean dumped = false;
@@ -115,51 +123,35 @@ public class ItemFinderPlugin extends Plugin {
 		if ((dumped) || (client.getGameState() != GameState.LOGIN_SCREEN)) {
 			return;
 		}
-		System.out.println("ItemFinder starting...");
-		clientThread.invoke(() ->
-		{
-			try {
-				System.out.println("ItemFinder...");
-				String dir = Paths.get(System.getProperty("user.dir") + File.separator + "itemfinder" + File.separator).toString();
-
-				if (!Files.isDirectory(Paths.get(dir))) {
-					Files.createDirectory(Paths.get(dir));
-				}
-
-				System.out.println("Saving to " + dir);
-
-				System.out.println("Loading items...");
-				LoadAll();
-				System.out.println("Loaded " + items.size() + " items");
-
-				System.out.println("Filtering items...");
-				Filter();
-				System.out.println("Filtered item count: " + filteredItems.size());
-
-				ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(new File(dir, "images.zip"))));
-
-				FileWriter item = new FileWriter(new File(dir, "item"));
-				FileWriter id = new FileWriter(new File(dir, "id"));
+		dumped = true;
 
-				for (int i = 0; i < filteredItems.size(); i++) {
-					zip.putNextEntry(new ZipEntry(filteredItems.get(i).left + ".png"));
-					ImageIO.write(filteredItems.get(i).right, "png", zip);
+		System.out.println("ItemFinder starting...");
+		try {
+			String dir = Paths.get(System.getProperty("user.dir") + File.separator + "itemfinder" + File.separator).toString();
 
-					item.write(filteredItems.get(i).middle + System.lineSeparator());
-					id.write( filteredItems.get(i).left + System.lineSeparator());
-				}
+			if (!Files.isDirectory(Paths.get(dir))) {
+				Files.createDirectory(Paths.get(dir));
+			}
 
-				zip.close();
-				item.close();
-				id.close();
+			System.out.println("Saving to " + dir);
 
-				System.out.println("ItemFinder completed");
-			} catch (Exception e) {
-				System.out.println("ItemFinder exception:");
-				System.out.println(e);
-			}
-		});
+			exporter = new ItemFinderExporter(new File(dir), Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+			exporter.Start();
+		} catch (Exception e) {
+			System.out.println("ItemFinder exception:");
+			System.out.println(e);
+			return;
+		}
 
-		dumped = true;
+		// Reading the cache from disk is slow, so do it on a worker and only come back to the client thread to render.
+		System.out.println("Loading items...");
+		cache = new ItemFinderCache();
+		CompletableFuture.runAsync(cache::Load, exporter.getWorkers())
+				.thenRun(() -> clientThread.invoke(() -> {
+					nextId = 0;
+					itemCount = Math.min(client.getItemCount(), cache.size());
+					System.out.println("Rendering " + itemCount + " item ids...");
+					clientThread.invoke(this::RenderBatch);
+				}));
 	}
 }